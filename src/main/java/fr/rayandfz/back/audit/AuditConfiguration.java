@@ -0,0 +1,41 @@
+package fr.rayandfz.back.audit;
+
+import fr.rayandfz.back.service.IProductService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.nio.file.Path;
+
+/**
+ * Spring configuration for the audit log of product changes, active unless {@code catalog.audit.enabled=false}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "catalog.audit", name = "enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(AuditProperties.class)
+public class AuditConfiguration {
+
+    /**
+     * Opens the audit log described by the audit properties. The user making a change is read from the
+     * actor header of the current request, if any.
+     *
+     * @param properties     the audit properties
+     * @param productService the product service owning the catalog
+     * @return the opened audit log
+     */
+    @Bean(destroyMethod = "close")
+    public ProductAuditLog productAuditLog(final AuditProperties properties, final IProductService productService) {
+        final String actorHeader = properties.getActorHeader();
+        return ProductAuditLog.open(Path.of(properties.getDirectory()), properties.getRingCapacity(),
+                properties.getBatchSize(), properties.getDurability(), properties.getAckTimeoutMillis(), () -> {
+                    final RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+                    return attributes instanceof ServletRequestAttributes servletAttributes
+                            ? servletAttributes.getRequest().getHeader(actorHeader)
+                            : null;
+                }, productService.getCatalogId());
+    }
+}
@@ -0,0 +1,17 @@
+package fr.rayandfz.back.audit;
+
+/**
+ * When a write request is acknowledged relative to the persistence of its audit entry.
+ */
+public enum AuditDurability {
+    /**
+     * The request returns as soon as the entry is in the ring buffer. Entries still in the buffer are lost if
+     * the process dies, and entries are dropped, and counted, when the buffer is full.
+     */
+    FIRE_AND_FORGET,
+    /**
+     * The request waits until the batch holding its entry is committed. When the buffer is full, the request
+     * writes its entry itself, so no entry is dropped.
+     */
+    FLUSH_BEFORE_ACK
+}
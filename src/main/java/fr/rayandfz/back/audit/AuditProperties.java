@@ -0,0 +1,154 @@
+package fr.rayandfz.back.audit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for the audit log of product changes, bound from the {@code catalog.audit} prefix.
+ * <p>
+ * Entries wait in a ring buffer of {@link #getRingCapacity()} entries before being written to the audit
+ * database in {@link #getDirectory()}, in batches of up to {@link #getBatchSize()} entries. The user making
+ * a change is read from the {@link #getActorHeader()} request header.
+ * </p>
+ */
+@ConfigurationProperties(prefix = "catalog.audit")
+public class AuditProperties {
+    private boolean enabled = true;
+
+    private String directory = "./data/audit";
+
+    private int ringCapacity = 16_384;
+
+    private int batchSize = 512;
+
+    private AuditDurability durability = AuditDurability.FIRE_AND_FORGET;
+
+    private long ackTimeoutMillis = 5_000;
+
+    private String actorHeader = "X-User";
+
+    /**
+     * Whether product changes are audited.
+     *
+     * @return {@code true} if the audit log is enabled
+     */
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    /**
+     * Enables or disables the audit log.
+     *
+     * @param enabled the new enabled flag
+     */
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Gets the directory holding the audit database.
+     *
+     * @return the audit directory
+     */
+    public String getDirectory() {
+        return this.directory;
+    }
+
+    /**
+     * Sets the directory holding the audit database.
+     *
+     * @param directory the new audit directory
+     */
+    public void setDirectory(final String directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Gets the number of entries that can wait for the writer thread, a power of two.
+     *
+     * @return the ring buffer capacity
+     */
+    public int getRingCapacity() {
+        return this.ringCapacity;
+    }
+
+    /**
+     * Sets the number of entries that can wait for the writer thread, a power of two.
+     *
+     * @param ringCapacity the new ring buffer capacity
+     */
+    public void setRingCapacity(final int ringCapacity) {
+        this.ringCapacity = ringCapacity;
+    }
+
+    /**
+     * Gets the maximum number of entries written in one transaction.
+     *
+     * @return the batch size
+     */
+    public int getBatchSize() {
+        return this.batchSize;
+    }
+
+    /**
+     * Sets the maximum number of entries written in one transaction.
+     *
+     * @param batchSize the new batch size
+     */
+    public void setBatchSize(final int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Gets when write requests are acknowledged relative to the persistence of their audit entry.
+     *
+     * @return the durability mode
+     */
+    public AuditDurability getDurability() {
+        return this.durability;
+    }
+
+    /**
+     * Sets when write requests are acknowledged relative to the persistence of their audit entry.
+     *
+     * @param durability the new durability mode
+     */
+    public void setDurability(final AuditDurability durability) {
+        this.durability = durability;
+    }
+
+    /**
+     * Gets the maximum time a request waits for its entry to be written, in flush-before-ack mode.
+     *
+     * @return the acknowledgement timeout, in milliseconds
+     */
+    public long getAckTimeoutMillis() {
+        return this.ackTimeoutMillis;
+    }
+
+    /**
+     * Sets the maximum time a request waits for its entry to be written, in flush-before-ack mode.
+     *
+     * @param ackTimeoutMillis the new acknowledgement timeout, in milliseconds
+     */
+    public void setAckTimeoutMillis(final long ackTimeoutMillis) {
+        this.ackTimeoutMillis = ackTimeoutMillis;
+    }
+
+    /**
+     * Gets the request header naming the user making a change.
+     *
+     * @return the actor header name
+     */
+    public String getActorHeader() {
+        return this.actorHeader;
+    }
+
+    /**
+     * Sets the request header naming the user making a change.
+     *
+     * @param actorHeader the new actor header name
+     */
+    public void setActorHeader(final String actorHeader) {
+        this.actorHeader = actorHeader;
+    }
+}
@@ -0,0 +1,130 @@
+package fr.rayandfz.back.audit;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free ring buffer with many producers and a single consumer.
+ * <p>
+ * Each cell has a sequence number telling whose turn it is: a producer claims a position by advancing the
+ * tail with a compare-and-set, fills the cell, then publishes it by setting its sequence; the consumer takes
+ * published cells in position order and hands them back to the producers of the next lap. A full buffer
+ * makes {@link #offer(Object)} fail instead of blocking.
+ * </p>
+ *
+ * @param <T> the type of the elements
+ */
+final class AuditRingBuffer<T> {
+    private final int mask;
+    private final AtomicReferenceArray<T> elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    /**
+     * Constructs an empty ring buffer.
+     *
+     * @param capacity the number of elements, a power of two
+     */
+    AuditRingBuffer(final int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("The capacity of the ring buffer must be a power of two, got " + capacity);
+        }
+        this.mask = capacity - 1;
+        this.elements = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            this.sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Adds an element, from any thread.
+     *
+     * @param element the element to add
+     * @return the position of the element, or -1 if the buffer is full
+     */
+    long offer(final T element) {
+        long position = this.tail.get();
+        while (true) {
+            final int index = (int) position & this.mask;
+            final long difference = this.sequences.get(index) - position;
+            if (difference == 0) {
+                if (this.tail.compareAndSet(position, position + 1)) {
+                    this.elements.lazySet(index, element);
+                    this.sequences.set(index, position + 1);
+                    return position;
+                }
+                position = this.tail.get();
+            } else if (difference < 0) {
+                // The cell still holds the element of the previous lap
+                return -1;
+            } else {
+                position = this.tail.get();
+            }
+        }
+    }
+
+    /**
+     * Takes the published elements in position order, from the consumer thread only.
+     *
+     * @param batch       the list the elements are added to
+     * @param maxElements the maximum number of elements to take
+     * @return the number of elements taken
+     */
+    int drainTo(final List<T> batch, final int maxElements) {
+        long position = this.head;
+        int taken = 0;
+        while (taken < maxElements) {
+            final int index = (int) position & this.mask;
+            if (this.sequences.get(index) != position + 1) {
+                break;
+            }
+            batch.add(this.elements.get(index));
+            this.elements.lazySet(index, null);
+            this.sequences.set(index, position + this.mask + 1);
+            position++;
+            taken++;
+        }
+        this.head = position;
+        return taken;
+    }
+
+    /**
+     * Gets the position of the next element the consumer will take, all previous ones being taken.
+     *
+     * @return the head position
+     */
+    long head() {
+        return this.head;
+    }
+
+    /**
+     * Gets the position the next element will be added at, all previous ones being claimed.
+     *
+     * @return the tail position
+     */
+    long tail() {
+        return this.tail.get();
+    }
+
+    /**
+     * Gets the number of elements waiting for the consumer, approximately under contention.
+     *
+     * @return the number of pending elements
+     */
+    int size() {
+        return (int) Math.max(0, this.tail.get() - this.head);
+    }
+
+    /**
+     * Gets the maximum number of pending elements.
+     *
+     * @return the capacity
+     */
+    int capacity() {
+        return this.mask + 1;
+    }
+}
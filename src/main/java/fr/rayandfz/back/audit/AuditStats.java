@@ -0,0 +1,134 @@
+package fr.rayandfz.back.audit;
+
+/**
+ * Counters of the audit log, since the application started.
+ */
+public class AuditStats {
+    private final AuditDurability durability;
+    private final int capacity;
+    private final int pending;
+    private final long published;
+    private final long dropped;
+    private final long inlineWrites;
+    private final long written;
+    private final long failed;
+    private final long batches;
+    private final long ackTimeouts;
+    private final long ackFailures;
+
+    AuditStats(final AuditDurability durability, final int capacity, final int pending, final long published,
+               final long dropped, final long inlineWrites, final long written, final long failed, final long batches,
+               final long ackTimeouts, final long ackFailures) {
+        this.durability = durability;
+        this.capacity = capacity;
+        this.pending = pending;
+        this.published = published;
+        this.dropped = dropped;
+        this.inlineWrites = inlineWrites;
+        this.written = written;
+        this.failed = failed;
+        this.batches = batches;
+        this.ackTimeouts = ackTimeouts;
+        this.ackFailures = ackFailures;
+    }
+
+    /**
+     * Gets the durability mode of the audit log.
+     *
+     * @return the durability mode
+     */
+    public AuditDurability getDurability() {
+        return this.durability;
+    }
+
+    /**
+     * Gets the number of entries the ring buffer can hold.
+     *
+     * @return the capacity of the ring buffer
+     */
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Gets the number of entries waiting in the ring buffer.
+     *
+     * @return the pending entries
+     */
+    public int getPending() {
+        return this.pending;
+    }
+
+    /**
+     * Gets the number of entries added to the ring buffer.
+     *
+     * @return the published entries
+     */
+    public long getPublished() {
+        return this.published;
+    }
+
+    /**
+     * Gets the number of entries lost because the ring buffer was full, in fire-and-forget mode.
+     *
+     * @return the dropped entries
+     */
+    public long getDropped() {
+        return this.dropped;
+    }
+
+    /**
+     * Gets the number of entries written by the request thread because the ring buffer was full, in
+     * flush-before-ack mode.
+     *
+     * @return the entries written inline
+     */
+    public long getInlineWrites() {
+        return this.inlineWrites;
+    }
+
+    /**
+     * Gets the number of entries written to the audit table.
+     *
+     * @return the written entries
+     */
+    public long getWritten() {
+        return this.written;
+    }
+
+    /**
+     * Gets the number of entries that could not be written.
+     *
+     * @return the failed entries
+     */
+    public long getFailed() {
+        return this.failed;
+    }
+
+    /**
+     * Gets the number of batches written by the background writer.
+     *
+     * @return the written batches
+     */
+    public long getBatches() {
+        return this.batches;
+    }
+
+    /**
+     * Gets the number of requests that stopped waiting for their entry to be written, in flush-before-ack mode.
+     *
+     * @return the acknowledgement timeouts
+     */
+    public long getAckTimeouts() {
+        return this.ackTimeouts;
+    }
+
+    /**
+     * Gets the number of requests acknowledged although their entry could not be written, in flush-before-ack mode.
+     *
+     * @return the acknowledgement failures
+     */
+    public long getAckFailures() {
+        return this.ackFailures;
+    }
+}
@@ -0,0 +1,432 @@
+package fr.rayandfz.back.audit;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import fr.rayandfz.back.model.ProductAuditEntry;
+import fr.rayandfz.back.model.ProductFieldChange;
+import fr.rayandfz.back.service.ProductChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.Closeable;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Append-only audit log of the creations, updates and deletions of products.
+ * <p>
+ * Request threads only put an entry, with the changed fields found by the product service, in a bounded
+ * lock-free {@link AuditRingBuffer}. A single writer thread takes the entries in batches of up to
+ * {@code batchSize} and inserts each batch in one transaction into the audit tables of an H2 database in
+ * {@code directory}. Rows are only ever inserted.
+ * </p>
+ * <p>
+ * Product ids are only unique within a catalog, and a catalog kept in memory starts over at every restart
+ * while the audit database remains. Each entry therefore records the identifier of the catalog it belongs
+ * to, and only the entries of the current catalog are returned; older ones are kept, but never attributed
+ * to the new products reusing their ids.
+ * </p>
+ * <p>
+ * In {@link AuditDurability#FIRE_AND_FORGET} mode, a request does not wait for its entry, which is dropped
+ * when the ring buffer is full. In {@link AuditDurability#FLUSH_BEFORE_ACK} mode, the request wakes the writer
+ * and waits, up to {@code ackTimeoutMillis}, until the batch holding its entry is committed and written to
+ * the database file; entries of concurrent requests share the same commit. When the ring buffer is full, the
+ * request writes its entry itself. Entries show up in queries once written.
+ * </p>
+ * <p>
+ * The writer hands out the outcome of each entry with its batch: a request whose entry could not be written
+ * logs it and counts it in {@link AuditStats#getAckFailures()}. It is acknowledged all the same, as after a
+ * timeout, since the change of the product is already committed.
+ * </p>
+ */
+public class ProductAuditLog implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProductAuditLog.class);
+
+    private static final String CREATE_ENTRIES = "CREATE TABLE IF NOT EXISTS product_audit ("
+            + "id BIGINT PRIMARY KEY, "
+            + "catalog_id VARCHAR(64), "
+            + "product_id BIGINT NOT NULL, "
+            + "change_type VARCHAR(16) NOT NULL, "
+            + "actor VARCHAR(255) NOT NULL, "
+            + "changed_at BIGINT NOT NULL)";
+
+    // Audit databases created before entries recorded their catalog
+    private static final String ADD_CATALOG_ID = "ALTER TABLE product_audit ADD COLUMN IF NOT EXISTS catalog_id VARCHAR(64)";
+
+    private static final String DROP_PRODUCT_INDEX = "DROP INDEX IF EXISTS product_audit_product";
+
+    private static final String CREATE_PRODUCT_INDEX =
+            "CREATE INDEX IF NOT EXISTS product_audit_catalog_product ON product_audit (catalog_id, product_id, id)";
+
+    private static final String CREATE_FIELDS = "CREATE TABLE IF NOT EXISTS product_audit_field ("
+            + "audit_id BIGINT NOT NULL, "
+            + "field_index INT NOT NULL, "
+            + "field VARCHAR(64) NOT NULL, "
+            + "previous_value CLOB, "
+            + "new_value CLOB, "
+            + "PRIMARY KEY (audit_id, field_index))";
+
+    private static final String INSERT_ENTRY = "INSERT INTO product_audit (id, catalog_id, product_id, change_type, "
+            + "actor, changed_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_FIELD =
+            "INSERT INTO product_audit_field (audit_id, field_index, field, previous_value, new_value) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String SELECT_BY_PRODUCT = "SELECT a.id, a.change_type, a.actor, a.changed_at, "
+            + "f.field, f.previous_value, f.new_value FROM product_audit a "
+            + "LEFT JOIN product_audit_field f ON f.audit_id = a.id "
+            + "WHERE a.catalog_id = ? AND a.product_id = ? ORDER BY a.id, f.field_index";
+
+    private static final String SELECT_MAX_ID = "SELECT COALESCE(MAX(id), 0) FROM product_audit";
+
+    private static final String ANONYMOUS = "anonymous";
+    private static final int MAX_ACTOR_LENGTH = 255;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final HikariDataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AuditRingBuffer<Entry> ring;
+    private final int batchSize;
+    private final AuditDurability durability;
+    private final long ackTimeoutMillis;
+    private final Supplier<String> actorSupplier;
+    private final String catalogId;
+    private final AtomicLong nextId;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    private final Object commitMonitor = new Object();
+    private final AtomicInteger waiters = new AtomicInteger();
+    // Positions below it went through the writer, whether their batch was written or failed
+    private volatile long processed;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder inlineWrites = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder ackTimeouts = new LongAdder();
+    private final LongAdder ackFailures = new LongAdder();
+
+    private ProductAuditLog(final HikariDataSource dataSource, final int ringCapacity, final int batchSize,
+                            final AuditDurability durability, final long ackTimeoutMillis,
+                            final Supplier<String> actorSupplier, final String catalogId) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        this.ring = new AuditRingBuffer<>(ringCapacity);
+        this.batchSize = batchSize;
+        this.durability = durability;
+        this.ackTimeoutMillis = ackTimeoutMillis;
+        this.actorSupplier = actorSupplier;
+        this.catalogId = catalogId;
+        this.jdbcTemplate.execute(CREATE_ENTRIES);
+        this.jdbcTemplate.execute(ADD_CATALOG_ID);
+        this.jdbcTemplate.execute(DROP_PRODUCT_INDEX);
+        this.jdbcTemplate.execute(CREATE_PRODUCT_INDEX);
+        this.jdbcTemplate.execute(CREATE_FIELDS);
+        this.nextId = new AtomicLong(this.jdbcTemplate.queryForObject(SELECT_MAX_ID, Long.class));
+        this.writer = new Thread(this::writeLoop, "product-audit-writer");
+        this.writer.setDaemon(true);
+    }
+
+    /**
+     * Opens the audit log in a directory, creating its database on first use, and starts the writer thread.
+     *
+     * @param directory        the directory holding the audit database
+     * @param ringCapacity     the number of entries that can wait for the writer, a power of two
+     * @param batchSize        the maximum number of entries written in one transaction
+     * @param durability       when write requests are acknowledged
+     * @param ackTimeoutMillis the maximum time a request waits for its entry, in flush-before-ack mode
+     * @param actorSupplier    the supplier of the user making the current change, called on the request thread
+     * @param catalogId        the identifier of the catalog whose changes are recorded
+     * @return the opened audit log
+     */
+    public static ProductAuditLog open(final Path directory, final int ringCapacity, final int batchSize,
+                                       final AuditDurability durability, final long ackTimeoutMillis,
+                                       final Supplier<String> actorSupplier, final String catalogId) {
+        final HikariConfig config = new HikariConfig();
+        config.setPoolName("product-audit");
+        // Without a write delay, a commit is written to the database file before it returns
+        config.setJdbcUrl("jdbc:h2:file:" + directory.toAbsolutePath().resolve("audit") + ";DB_CLOSE_ON_EXIT=FALSE"
+                + (durability == AuditDurability.FLUSH_BEFORE_ACK ? ";WRITE_DELAY=0" : ""));
+        config.setUsername("sa");
+        config.setPassword("");
+        config.setMaximumPoolSize(4);
+        final HikariDataSource dataSource = new HikariDataSource(config);
+        try {
+            final ProductAuditLog log = new ProductAuditLog(dataSource, ringCapacity, batchSize, durability,
+                    ackTimeoutMillis, actorSupplier, catalogId);
+            log.writer.start();
+            return log;
+        } catch (RuntimeException ex) {
+            dataSource.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Records who changed which fields of a product. Updates that changed no field are not recorded.
+     *
+     * @param event the change published by the product service
+     */
+    @EventListener
+    public void onProductChanged(final ProductChangedEvent event) {
+        final List<ProductFieldChange> changes = event.getChanges();
+        if (event.getType() == ProductChangedEvent.Type.UPDATED && changes.isEmpty()) {
+            return;
+        }
+        record(new Entry(this.nextId.incrementAndGet(), event.getId(), event.getType().name(), actor(),
+                event.getTimestamp(), changes));
+    }
+
+    /**
+     * Gets the entries of a product of the current catalog, oldest first.
+     *
+     * @param productId the product id
+     * @return the written entries of the product
+     */
+    public List<ProductAuditEntry> getEntries(final long productId) {
+        final List<ProductAuditEntry> entries = new ArrayList<>();
+        this.jdbcTemplate.query(SELECT_BY_PRODUCT, resultSet -> {
+            final long id = resultSet.getLong(1);
+            ProductAuditEntry entry = entries.isEmpty() ? null : entries.get(entries.size() - 1);
+            if (entry == null || entry.getId() != id) {
+                entry = new ProductAuditEntry(id, productId, resultSet.getString(2), resultSet.getString(3),
+                        Instant.ofEpochMilli(resultSet.getLong(4)), new ArrayList<>());
+                entries.add(entry);
+            }
+            final String field = resultSet.getString(5);
+            if (field != null) {
+                entry.getChanges().add(new ProductFieldChange(field, resultSet.getString(6), resultSet.getString(7)));
+            }
+        }, this.catalogId, productId);
+        return entries;
+    }
+
+    /**
+     * Waits until the entries recorded so far are written.
+     *
+     * @param timeoutMillis the maximum time to wait
+     * @return {@code true} if the entries are written, {@code false} if the time ran out or an entry recorded
+     * since the audit log was opened could not be written
+     */
+    public boolean flush(final long timeoutMillis) {
+        return awaitProcessed(this.ring.tail() - 1, timeoutMillis) && this.failed.sum() == 0;
+    }
+
+    /**
+     * Gets the counters of the audit log, such as the entries dropped because the ring buffer was full.
+     *
+     * @return the current counters
+     */
+    public AuditStats getStats() {
+        return new AuditStats(this.durability, this.ring.capacity(), this.ring.size(), this.published.sum(),
+                this.dropped.sum(), this.inlineWrites.sum(), this.written.sum(), this.failed.sum(), this.batches.sum(),
+                this.ackTimeouts.sum(), this.ackFailures.sum());
+    }
+
+    /**
+     * Writes the pending entries, stops the writer thread and closes the database.
+     */
+    @Override
+    public void close() {
+        this.running = false;
+        LockSupport.unpark(this.writer);
+        try {
+            this.writer.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        this.dataSource.close();
+    }
+
+    private void record(final Entry entry) {
+        final long position = this.ring.offer(entry);
+        if (position < 0) {
+            if (this.durability == AuditDurability.FLUSH_BEFORE_ACK) {
+                this.inlineWrites.increment();
+                if (!write(List.of(entry))) {
+                    acknowledgeUnwritten(entry);
+                }
+                return;
+            }
+            this.dropped.increment();
+            final long count = this.dropped.sum();
+            // Logged on the first drop, then less and less often
+            if (Long.bitCount(count) == 1) {
+                LOGGER.warn("Audit ring buffer full, {} audit entries dropped so far", count);
+            }
+            return;
+        }
+        this.published.increment();
+        if (this.durability == AuditDurability.FLUSH_BEFORE_ACK) {
+            LockSupport.unpark(this.writer);
+            if (!awaitProcessed(position, this.ackTimeoutMillis)) {
+                this.ackTimeouts.increment();
+                LOGGER.warn("Audit entry {} not written after {} ms, acknowledging anyway", entry.id(), this.ackTimeoutMillis);
+            } else if (!entry.isWritten()) {
+                acknowledgeUnwritten(entry);
+            }
+        }
+    }
+
+    private void acknowledgeUnwritten(final Entry entry) {
+        this.ackFailures.increment();
+        LOGGER.error("Audit entry {} could not be written, acknowledging without it", entry.id());
+    }
+
+    private boolean awaitProcessed(final long position, final long timeoutMillis) {
+        if (this.processed > position) {
+            return true;
+        }
+        this.waiters.incrementAndGet();
+        try {
+            LockSupport.unpark(this.writer);
+            final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+            synchronized (this.commitMonitor) {
+                while (this.processed <= position) {
+                    final long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    this.commitMonitor.wait(Math.max(1, TimeUnit.NANOSECONDS.toMillis(remaining)));
+                }
+            }
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            this.waiters.decrementAndGet();
+        }
+    }
+
+    private void writeLoop() {
+        final List<Entry> batch = new ArrayList<>(this.batchSize);
+        while (true) {
+            this.ring.drainTo(batch, this.batchSize);
+            if (batch.isEmpty()) {
+                if (!this.running) {
+                    return;
+                }
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                continue;
+            }
+            write(batch);
+            this.batches.increment();
+            batch.clear();
+            this.processed = this.ring.head();
+            if (this.waiters.get() > 0) {
+                synchronized (this.commitMonitor) {
+                    this.commitMonitor.notifyAll();
+                }
+            }
+        }
+    }
+
+    // Marks the entries written on success, before the writer publishes them as processed
+    private boolean write(final List<Entry> entries) {
+        final List<Object[]> entryRows = new ArrayList<>(entries.size());
+        final List<Object[]> fieldRows = new ArrayList<>(entries.size() * 2);
+        for (final Entry entry : entries) {
+            entryRows.add(new Object[]{entry.id(), this.catalogId, entry.productId(), entry.type(), entry.actor(),
+                    entry.timestamp()});
+            for (int i = 0; i < entry.changes().size(); i++) {
+                final ProductFieldChange change = entry.changes().get(i);
+                fieldRows.add(new Object[]{entry.id(), i, change.getField(), change.getPreviousValue(), change.getNewValue()});
+            }
+        }
+        try {
+            this.transactionTemplate.executeWithoutResult(status -> {
+                this.jdbcTemplate.batchUpdate(INSERT_ENTRY, entryRows);
+                if (!fieldRows.isEmpty()) {
+                    this.jdbcTemplate.batchUpdate(INSERT_FIELD, fieldRows);
+                }
+            });
+        } catch (RuntimeException ex) {
+            this.failed.add(entries.size());
+            LOGGER.error("Failed to write {} audit entries", entries.size(), ex);
+            return false;
+        }
+        for (final Entry entry : entries) {
+            entry.markWritten();
+        }
+        this.written.add(entries.size());
+        return true;
+    }
+
+    private String actor() {
+        final String actor = this.actorSupplier.get();
+        if (actor == null || actor.isBlank()) {
+            return ANONYMOUS;
+        }
+        return actor.length() > MAX_ACTOR_LENGTH ? actor.substring(0, MAX_ACTOR_LENGTH) : actor;
+    }
+
+    private static final class Entry {
+        private final long id;
+        private final long productId;
+        private final String type;
+        private final String actor;
+        private final long timestamp;
+        private final List<ProductFieldChange> changes;
+        private volatile boolean written;
+
+        private Entry(final long id, final long productId, final String type, final String actor, final long timestamp,
+                      final List<ProductFieldChange> changes) {
+            this.id = id;
+            this.productId = productId;
+            this.type = type;
+            this.actor = actor;
+            this.timestamp = timestamp;
+            this.changes = changes;
+        }
+
+        long id() {
+            return this.id;
+        }
+
+        long productId() {
+            return this.productId;
+        }
+
+        String type() {
+            return this.type;
+        }
+
+        String actor() {
+            return this.actor;
+        }
+
+        long timestamp() {
+            return this.timestamp;
+        }
+
+        List<ProductFieldChange> changes() {
+            return this.changes;
+        }
+
+        boolean isWritten() {
+            return this.written;
+        }
+
+        void markWritten() {
+            this.written = true;
+        }
+    }
+}
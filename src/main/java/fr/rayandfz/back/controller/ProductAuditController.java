@@ -0,0 +1,45 @@
+package fr.rayandfz.back.controller;
+
+import fr.rayandfz.back.audit.AuditStats;
+import fr.rayandfz.back.audit.ProductAuditLog;
+import fr.rayandfz.back.model.ProductAuditEntry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Controller for the audit log of product changes, available unless {@code catalog.audit.enabled=false}.
+ */
+@RestController
+@ConditionalOnProperty(prefix = "catalog.audit", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ProductAuditController {
+    private final ProductAuditLog auditLog;
+
+    @Autowired
+    public ProductAuditController(final ProductAuditLog auditLog) {
+        this.auditLog = auditLog;
+    }
+
+    /**
+     * Retrieve who created, updated or deleted a product, when, and which fields changed.
+     *
+     * @param id the id of the product, which may have been deleted
+     * @return the audit entries of the product, oldest first
+     */
+    @GetMapping("/products/{id}/audit")
+    public List<ProductAuditEntry> getAuditEntries(@PathVariable final Long id) {
+        return auditLog.getEntries(id);
+    }
+
+    /**
+     * Retrieve the counters of the audit log, such as the entries dropped because the ring buffer was full.
+     *
+     * @return the counters since the application started
+     */
+    @GetMapping("/audit/stats")
+    public AuditStats getStats() {
+        return auditLog.getStats();
+    }
+}
@@ -1,13 +1,21 @@
 package fr.rayandfz.back.controller;
 
+import fr.rayandfz.back.error.BatchSizeExceededException;
+import fr.rayandfz.back.error.NullBatchItemException;
 import fr.rayandfz.back.model.Product;
-import fr.rayandfz.back.service.ProductService;
+import fr.rayandfz.back.model.ProductBatch;
+import fr.rayandfz.back.model.ProductCategory;
+import fr.rayandfz.back.model.ProductField;
+import fr.rayandfz.back.model.ProductInventoryStatus;
+import fr.rayandfz.back.service.IProductService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 
 /**
  * Controller for handling requests related to Products.
@@ -15,11 +23,15 @@ import java.util.Collection;
 @RestController
 @RequestMapping("/products")
 public class ProductController {
-    private final ProductService productService;
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int MAX_BATCH_SIZE = 500;
+
+    private final IProductService productService;
 
     // Use constructor injection for better testability and invesion of control
     @Autowired
-    public ProductController(final ProductService productService) {
+    public ProductController(final IProductService productService) {
         this.productService = productService;
     }
 
@@ -35,27 +47,86 @@ public class ProductController {
     }
 
     /**
-     * Retrieve all products.
+     * Retrieve all products, or a single page of them when paging or filtering parameters are given.
      *
-     * @return a list of all product
+     * @param category        optional category to filter on
+     * @param inventoryStatus optional inventory status to filter on
+     * @param page            optional zero-based page index
+     * @param size            optional page size, capped to {@value #MAX_PAGE_SIZE}
+     * @param fields          optional sparse fieldset, such as {@code id,name,price} or the {@code summary} profile
+     * @return a list of all product, or of the products in the requested page, restricted to the requested fields
      */
     @GetMapping
-    public Collection<Product> getAllProducts() {
-        return productService.getAllProducts();
+    public Collection<?> getAllProducts(@RequestParam(required = false) final ProductCategory category,
+                                        @RequestParam(required = false) final ProductInventoryStatus inventoryStatus,
+                                        @RequestParam(required = false) final Integer page,
+                                        @RequestParam(required = false) final Integer size,
+                                        @RequestParam(required = false) final String fields) {
+        final Set<ProductField> selectedFields = fields == null ? null : ProductField.parse(fields);
+        if (category == null && inventoryStatus == null && page == null && size == null) {
+            return selectedFields == null
+                    ? productService.getAllProducts()
+                    : productService.getAllProductViews(selectedFields);
+        }
+        final int pageIndex = page == null ? 0 : Math.max(0, page);
+        final int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.min(Math.max(1, size), MAX_PAGE_SIZE);
+        return selectedFields == null
+                ? productService.getProducts(category, inventoryStatus, pageIndex, pageSize)
+                : productService.getProductViews(selectedFields, category, inventoryStatus, pageIndex, pageSize);
     }
 
     /**
      * Retrieve details for a single product by its id.
      *
-     * @param id the id of the product to retrieve
-     * @return the requested product
+     * @param id     the id of the product to retrieve
+     * @param fields optional sparse fieldset, such as {@code id,name,price} or the {@code summary} profile
+     * @return the requested product, restricted to the requested fields
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getProductById(@PathVariable final Long id) {
+    public ResponseEntity<?> getProductById(@PathVariable final Long id, @RequestParam(required = false) final String fields) {
+        if (fields != null) {
+            return ResponseEntity.ok().body(productService.getProductViewById(id, ProductField.parse(fields)));
+        }
         final Product product = productService.getProductById(id);
         return ResponseEntity.ok().body(product);
     }
 
+    /**
+     * Retrieve several products by their ids in one call.
+     *
+     * @param ids the ids of the products to retrieve, at most {@value #MAX_BATCH_SIZE}, none of them null
+     * @return the products found, in the order of the requested ids, and the ids that were not found
+     */
+    @PostMapping("/batch")
+    public ProductBatch getProductsByIds(@RequestBody final List<Long> ids) {
+        checkBatch(ids);
+        return productService.getProductsByIds(ids);
+    }
+
+    /**
+     * Retrieve details for a single product by its code.
+     *
+     * @param code the code of the product to retrieve
+     * @return the requested product
+     */
+    @GetMapping("/by-code/{code}")
+    public ResponseEntity<Product> getProductByCode(@PathVariable final String code) {
+        final Product product = productService.getProductByCode(code);
+        return ResponseEntity.ok().body(product);
+    }
+
+    /**
+     * Retrieve several products by their codes in one call.
+     *
+     * @param codes the codes of the products to retrieve, at most {@value #MAX_BATCH_SIZE}, none of them null
+     * @return the products found, in the order of the requested codes
+     */
+    @PostMapping("/by-code")
+    public List<Product> getProductsByCodes(@RequestBody final List<String> codes) {
+        checkBatch(codes);
+        return productService.getProductsByCodes(codes);
+    }
+
     /**
      * Update details of a product
      *
@@ -80,4 +151,15 @@ public class ProductController {
         productService.deleteProduct(id);
         return ResponseEntity.ok().build();
     }
+
+    private static void checkBatch(final List<?> items) {
+        if (items.size() > MAX_BATCH_SIZE) {
+            throw new BatchSizeExceededException(items.size(), MAX_BATCH_SIZE);
+        }
+        for (int i = 0; i < items.size(); i++) {
+            if (items.get(i) == null) {
+                throw new NullBatchItemException(i);
+            }
+        }
+    }
 }
@@ -0,0 +1,85 @@
+package fr.rayandfz.back.controller;
+
+import fr.rayandfz.back.error.InvalidHistoryQueryException;
+import fr.rayandfz.back.history.ProductHistoryStore;
+import fr.rayandfz.back.model.ProductHistory;
+import fr.rayandfz.back.model.ProductHistoryAggregate;
+import fr.rayandfz.back.service.IProductService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Controller for the price and stock history of products, available unless {@code catalog.history.enabled=false}.
+ * <p>
+ * Time ranges are given as ISO-8601 instants, such as {@code 2024-03-01T00:00:00Z}; the start is inclusive,
+ * the end exclusive. Without a start, the range begins at the epoch; without an end, it runs until now.
+ * The product must exist: the history of an unknown or deleted product is a 404.
+ * </p>
+ */
+@RestController
+@RequestMapping("/products/{id}/history")
+@ConditionalOnProperty(prefix = "catalog.history", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ProductHistoryController {
+    private final ProductHistoryStore historyStore;
+    private final IProductService productService;
+
+    @Autowired
+    public ProductHistoryController(final ProductHistoryStore historyStore, final IProductService productService) {
+        this.historyStore = historyStore;
+        this.productService = productService;
+    }
+
+    /**
+     * Retrieve every price, quantity and status change of a product in a time range.
+     *
+     * @param id   the id of the product
+     * @param from optional start of the range
+     * @param to   optional end of the range
+     * @return the change points, ordered by time
+     */
+    @GetMapping
+    public ProductHistory getHistory(@PathVariable final Long id,
+                                     @RequestParam(required = false) final Instant from,
+                                     @RequestParam(required = false) final Instant to) {
+        productService.getProductById(id);
+        return historyStore.getHistory(id, startOf(from), endOf(to));
+    }
+
+    /**
+     * Retrieve the changes of a product in a time range, downsampled into buckets of equal duration.
+     *
+     * @param id     the id of the product
+     * @param bucket the duration of a bucket, as an ISO-8601 duration such as {@code PT1H} or {@code P1D}
+     * @param from   optional start of the range, on which buckets are aligned
+     * @param to     optional end of the range
+     * @return the minimum, maximum, average and last values of each bucket holding changes
+     */
+    @GetMapping("/aggregate")
+    public ProductHistoryAggregate getAggregate(@PathVariable final Long id,
+                                                @RequestParam final String bucket,
+                                                @RequestParam(required = false) final Instant from,
+                                                @RequestParam(required = false) final Instant to) {
+        productService.getProductById(id);
+        final long bucketMillis;
+        try {
+            bucketMillis = Duration.parse(bucket).toMillis();
+        } catch (DateTimeParseException | ArithmeticException ex) {
+            throw new InvalidHistoryQueryException("Invalid bucket duration: " + bucket + ". Expected an ISO-8601 duration such as PT1H");
+        }
+        return historyStore.getAggregate(id, startOf(from), endOf(to), bucketMillis);
+    }
+
+    private static long startOf(final Instant from) {
+        return from == null ? 0 : from.toEpochMilli();
+    }
+
+    // Changes recorded during the current millisecond are included
+    private static long endOf(final Instant to) {
+        return to == null ? System.currentTimeMillis() + 1 : to.toEpochMilli();
+    }
+}
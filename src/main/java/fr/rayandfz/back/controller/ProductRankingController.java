@@ -0,0 +1,64 @@
+package fr.rayandfz.back.controller;
+
+import fr.rayandfz.back.model.Product;
+import fr.rayandfz.back.model.ProductCategory;
+import fr.rayandfz.back.ranking.ProductRankings;
+import fr.rayandfz.back.service.IProductService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Controller for the per-category rankings shown on the home page of the storefront.
+ */
+@RestController
+@RequestMapping("/products/rankings")
+public class ProductRankingController {
+    private static final int DEFAULT_LIMIT = 10;
+    private static final int MAX_LIMIT = 100;
+
+    private final ProductRankings rankings;
+    private final IProductService productService;
+
+    @Autowired
+    public ProductRankingController(final ProductRankings rankings, final IProductService productService) {
+        this.rankings = rankings;
+        this.productService = productService;
+    }
+
+    /**
+     * Retrieve the best rated products of a category.
+     *
+     * @param category the category of the products
+     * @param limit    optional number of products, capped to {@value #MAX_LIMIT}
+     * @return the products with the highest ratings, best first
+     */
+    @GetMapping("/top-rated")
+    public List<Product> getTopRated(@RequestParam final ProductCategory category,
+                                     @RequestParam(required = false) final Integer limit) {
+        return productsOf(rankings.getTopRated(category, limitOf(limit)));
+    }
+
+    /**
+     * Retrieve the cheapest products of a category that are in stock or low on stock.
+     *
+     * @param category the category of the products
+     * @param limit    optional number of products, capped to {@value #MAX_LIMIT}
+     * @return the available products with the lowest prices, cheapest first
+     */
+    @GetMapping("/cheapest-in-stock")
+    public List<Product> getCheapestInStock(@RequestParam final ProductCategory category,
+                                            @RequestParam(required = false) final Integer limit) {
+        return productsOf(rankings.getCheapestInStock(category, limitOf(limit)));
+    }
+
+    // Products deleted since they were ranked are missing from the batch, and left out
+    private List<Product> productsOf(final List<Long> ids) {
+        return ids.isEmpty() ? List.of() : productService.getProductsByIds(ids).getProducts();
+    }
+
+    private static int limitOf(final Integer limit) {
+        return limit == null ? DEFAULT_LIMIT : Math.min(Math.max(1, limit), MAX_LIMIT);
+    }
+}
@@ -0,0 +1,62 @@
+package fr.rayandfz.back.error;
+
+import org.springframework.http.HttpStatus;
+
+import java.net.URI;
+
+/**
+ * Base class of the exceptions that are expected outcomes of a request, such as a missing product or a
+ * conflicting write, rather than server failures.
+ * <p>
+ * These exceptions are stackless: they are thrown on hot paths (crawlers and stale clients asking for
+ * missing products) and are fully described by their type and message, so filling in a stack trace
+ * would only burn CPU. They are rendered as RFC 7807 problem details by {@link GlobalExceptionHandler}.
+ * </p>
+ */
+public abstract class ApiException extends RuntimeException {
+    private final HttpStatus status;
+    private final URI type;
+    private final String title;
+
+    /**
+     * Constructs a stackless exception.
+     *
+     * @param status the HTTP status of the response
+     * @param type   the URI identifying the problem type
+     * @param title  the short, human-readable summary of the problem type
+     * @param detail the explanation specific to this occurrence of the problem
+     */
+    protected ApiException(final HttpStatus status, final URI type, final String title, final String detail) {
+        super(detail, null, false, false);
+        this.status = status;
+        this.type = type;
+        this.title = title;
+    }
+
+    /**
+     * Gets the HTTP status of the response.
+     *
+     * @return the HTTP status
+     */
+    public HttpStatus getStatus() {
+        return this.status;
+    }
+
+    /**
+     * Gets the URI identifying the problem type.
+     *
+     * @return the problem type
+     */
+    public URI getType() {
+        return this.type;
+    }
+
+    /**
+     * Gets the short, human-readable summary of the problem type.
+     *
+     * @return the problem title
+     */
+    public String getTitle() {
+        return this.title;
+    }
+}
@@ -0,0 +1,22 @@
+package fr.rayandfz.back.error;
+
+import org.springframework.http.HttpStatus;
+
+import java.net.URI;
+
+/**
+ * Thrown when the request itself is invalid, mapped to 400 Bad Request.
+ */
+public class BadRequestException extends ApiException {
+    private static final URI TYPE = URI.create("/problems/bad-request");
+
+    /**
+     * Constructs the exception with the given detail.
+     *
+     * @param title  the short, human-readable summary of the problem type
+     * @param detail the explanation specific to this occurrence of the problem
+     */
+    protected BadRequestException(final String title, final String detail) {
+        super(HttpStatus.BAD_REQUEST, TYPE, title, detail);
+    }
+}
@@ -0,0 +1,18 @@
+package fr.rayandfz.back.error;
+
+/**
+ * Thrown when a batched request asks for more items than allowed in a single call.
+ */
+public class BatchSizeExceededException extends BadRequestException {
+    private static final String TITLE = "Batch too large";
+
+    /**
+     * Constructs the exception for the given batch size.
+     *
+     * @param size    the requested batch size
+     * @param maxSize the maximum batch size
+     */
+    public BatchSizeExceededException(final int size, final int maxSize) {
+        super(TITLE, "Batch of " + size + " items exceeds the maximum of " + maxSize);
+    }
+}
@@ -0,0 +1,17 @@
+package fr.rayandfz.back.error;
+
+/**
+ * Thrown when a product keeps being changed by concurrent requests while an update or deletion is retried.
+ */
+public class ConcurrentUpdateException extends ConflictException {
+    private static final String TITLE = "Concurrent update";
+
+    /**
+     * Constructs the exception for the given product.
+     *
+     * @param id the id of the product
+     */
+    public ConcurrentUpdateException(final Long id) {
+        super(TITLE, "Product " + id + " was changed concurrently, retry the request");
+    }
+}
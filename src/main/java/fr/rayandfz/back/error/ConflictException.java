@@ -0,0 +1,22 @@
+package fr.rayandfz.back.error;
+
+import org.springframework.http.HttpStatus;
+
+import java.net.URI;
+
+/**
+ * Thrown when a write conflicts with the current state of a resource, mapped to 409 Conflict.
+ */
+public class ConflictException extends ApiException {
+    private static final URI TYPE = URI.create("/problems/conflict");
+
+    /**
+     * Constructs the exception with the given detail.
+     *
+     * @param title  the short, human-readable summary of the problem type
+     * @param detail the explanation specific to this occurrence of the problem
+     */
+    protected ConflictException(final String title, final String detail) {
+        super(HttpStatus.CONFLICT, TYPE, title, detail);
+    }
+}
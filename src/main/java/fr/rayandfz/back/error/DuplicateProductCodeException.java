@@ -0,0 +1,17 @@
+package fr.rayandfz.back.error;
+
+/**
+ * Thrown when a product is created or updated with a code already used by another product.
+ */
+public class DuplicateProductCodeException extends ConflictException {
+    private static final String TITLE = "Duplicate product code";
+
+    /**
+     * Constructs the exception for the given duplicate code.
+     *
+     * @param code the code already in use
+     */
+    public DuplicateProductCodeException(final String code) {
+        super(TITLE, "Product code already exists: " + code);
+    }
+}
@@ -3,26 +3,64 @@ package fr.rayandfz.back.error;
 import com.fasterxml.jackson.databind.exc.InvalidFormatException;
 import fr.rayandfz.back.model.ProductCategory;
 import fr.rayandfz.back.model.ProductInventoryStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.validation.FieldError;
+import org.springframework.web.ErrorResponse;
 import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
-import java.time.LocalDateTime;
+import java.net.URI;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
  * Controller advice to handle exceptions globally across the whole application.
+ * <p>
+ * Every error is rendered as an RFC 7807 problem detail. The parts of the bodies that never change
+ * (types, titles, lists of valid values) are built once, and Spring fills in the {@code instance}
+ * member with the request path.
+ * </p>
  */
 @ControllerAdvice
 public class GlobalExceptionHandler {
+    private static final Logger LOGGER = LoggerFactory.getLogger(GlobalExceptionHandler.class);
+
+    private static final URI VALIDATION_TYPE = URI.create("/problems/validation");
+    private static final URI BAD_REQUEST_TYPE = URI.create("/problems/bad-request");
+    private static final URI INTERNAL_ERROR_TYPE = URI.create("/problems/internal-error");
+
+    private static final String VALIDATION_TITLE = "Validation failed";
+    private static final String VALIDATION_DETAIL = "One or more fields of the request body are invalid";
+    private static final String BAD_REQUEST_TITLE = "Bad request";
+    private static final String MALFORMED_BODY_DETAIL = "The request body could not be read";
+    private static final String INTERNAL_ERROR_TITLE = "Internal error";
+    private static final String INTERNAL_ERROR_DETAIL = "An unexpected error occurred";
+
+    private static final String VALID_CATEGORIES = ". Valid categories are: " + Arrays.toString(ProductCategory.values());
+    private static final String VALID_STATUSES = ". Valid statuses are: " + Arrays.toString(ProductInventoryStatus.values());
+
+    /**
+     * Handles the expected failures of a request, such as a missing product or a duplicate product code.
+     *
+     * @param ex      the stackless exception describing the problem
+     * @param request the current web request
+     * @return a ResponseEntity containing the problem detail and the status carried by the exception
+     */
+    @ExceptionHandler(ApiException.class)
+    public ResponseEntity<Object> handleApiException(final ApiException ex, final WebRequest request) {
+        return problem(ex.getStatus(), ex.getType(), ex.getTitle(), ex.getMessage());
+    }
+
     /**
      * Handles exceptions thrown by validation failures for request body fields.
      *
@@ -32,12 +70,10 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Object> handleValidationExceptions(final MethodArgumentNotValidException ex, final WebRequest request) {
-        final Map<String, Object> body = new HashMap<>();
-        body.put("timestamp", LocalDateTime.now());
-        body.put("status", HttpStatus.BAD_REQUEST.value());
         final Map<String, String> errors = ex.getBindingResult().getFieldErrors().stream()
-                .collect(Collectors.toMap(FieldError::getField, FieldError::getDefaultMessage));
-        body.put("errors", errors);
+                .collect(Collectors.toMap(FieldError::getField, FieldError::getDefaultMessage, (first, second) -> first));
+        final ProblemDetail body = problemDetail(HttpStatus.BAD_REQUEST, VALIDATION_TYPE, VALIDATION_TITLE, VALIDATION_DETAIL);
+        body.setProperty("errors", errors);
         return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
     }
 
@@ -52,13 +88,11 @@ public class GlobalExceptionHandler {
      * @param request the current web request that resulted in the exception. This is not
      *                directly used in the method but is required for matching the method
      *                signature for exception handlers.
-     * @return a {@link ResponseEntity<Object>} containing a detailed error message
-     * with the timestamp, HTTP status code, and a message indicating the cause
-     * of the error. For errors related to deserialization of {@code ProductCategory}
-     * and {@code ProductInventoryStatus}, it provides a message detailing the
-     * invalid value and suggesting the valid enum values. For other causes of
-     * {@code HttpMessageNotReadableException}, it delegates to a generic error
-     * handler method.
+     * @return a {@link ResponseEntity<Object>} containing a problem detail with the BAD_REQUEST
+     * status. For errors related to deserialization of {@code ProductCategory}
+     * and {@code ProductInventoryStatus}, the detail names the invalid value and lists the
+     * valid enum values. For other causes of {@code HttpMessageNotReadableException}, such as
+     * malformed JSON, it uses a generic detail.
      */
     @ExceptionHandler(HttpMessageNotReadableException.class)
     public ResponseEntity<Object> handleHttpMessageNotReadable(final HttpMessageNotReadableException ex, final WebRequest request) {
@@ -67,26 +101,54 @@ public class GlobalExceptionHandler {
         if (cause instanceof InvalidFormatException) {
             final InvalidFormatException ife = (InvalidFormatException) cause;
 
-            final Map<String, Object> body = new HashMap<>();
-            body.put("timestamp", LocalDateTime.now());
-            body.put("status", HttpStatus.BAD_REQUEST.value());
-
             if (ProductCategory.class.isAssignableFrom(ife.getTargetType())) {
                 final String invalidValue = ife.getValue().toString();
-                body.put("message", "Invalid category: " + invalidValue + ". Valid categories are: " + Arrays.toString(ProductCategory.values()));
+                return problem(HttpStatus.BAD_REQUEST, BAD_REQUEST_TYPE, BAD_REQUEST_TITLE,
+                        "Invalid category: " + invalidValue + VALID_CATEGORIES);
             } else if (ProductInventoryStatus.class.isAssignableFrom(ife.getTargetType())) {
                 final String invalidValue = ife.getValue().toString();
-                body.put("message", "Invalid inventory status: " + invalidValue + ". Valid statuses are: " + Arrays.toString(ProductInventoryStatus.values()));
-            } else {
-                return handleAllExceptions(ex, request);
+                return problem(HttpStatus.BAD_REQUEST, BAD_REQUEST_TYPE, BAD_REQUEST_TITLE,
+                        "Invalid inventory status: " + invalidValue + VALID_STATUSES);
             }
-            return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
         }
-        return handleAllExceptions(ex, request);
+        return problem(HttpStatus.BAD_REQUEST, BAD_REQUEST_TYPE, BAD_REQUEST_TITLE, MALFORMED_BODY_DETAIL);
+    }
+
+    /**
+     * Handles path variables and request parameters that cannot be converted to their expected type,
+     * such as a non-numeric product id or an unknown category filter.
+     *
+     * @param ex      the exception thrown when the conversion fails
+     * @param request the current web request
+     * @return a ResponseEntity containing the problem detail and the BAD_REQUEST status
+     */
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<Object> handleTypeMismatch(final MethodArgumentTypeMismatchException ex, final WebRequest request) {
+        return problem(HttpStatus.BAD_REQUEST, BAD_REQUEST_TYPE, BAD_REQUEST_TITLE,
+                "Invalid value for parameter '" + ex.getName() + "': " + ex.getValue());
+    }
+
+    /**
+     * Handles required request parameters that are missing, such as the bucket of a history aggregate.
+     *
+     * @param ex      the exception thrown when the parameter is missing
+     * @param request the current web request
+     * @return a ResponseEntity containing the problem detail and the BAD_REQUEST status
+     */
+    @ExceptionHandler(MissingServletRequestParameterException.class)
+    public ResponseEntity<Object> handleMissingParameter(final MissingServletRequestParameterException ex,
+                                                         final WebRequest request) {
+        return problem(HttpStatus.BAD_REQUEST, BAD_REQUEST_TYPE, BAD_REQUEST_TITLE,
+                "Missing required parameter '" + ex.getParameterName() + "'");
     }
 
     /**
      * Handles all other exceptions that do not have specific handlers.
+     * <p>
+     * Spring MVC exceptions that already describe their own status, such as unknown paths or unsupported
+     * methods, keep that status and detail; the bad requests among them get the same type and title as the
+     * ones reported by this handler. Anything else is an unexpected failure, logged before it is answered.
+     * </p>
      *
      * @param ex      the exception that was thrown
      * @param request the current web request
@@ -94,10 +156,26 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Object> handleAllExceptions(final Exception ex, final WebRequest request) {
-        final Map<String, Object> body = new HashMap<>();
-        body.put("timestamp", LocalDateTime.now());
-        body.put("status", HttpStatus.INTERNAL_SERVER_ERROR.value());
-        body.put("message", "An unexpected error occurred ");
-        return new ResponseEntity<>(body, HttpStatus.INTERNAL_SERVER_ERROR);
+        if (ex instanceof ErrorResponse errorResponse) {
+            if (errorResponse.getStatusCode().value() == HttpStatus.BAD_REQUEST.value()) {
+                return new ResponseEntity<>(problemDetail(HttpStatus.BAD_REQUEST, BAD_REQUEST_TYPE, BAD_REQUEST_TITLE,
+                        errorResponse.getBody().getDetail()), errorResponse.getHeaders(), HttpStatus.BAD_REQUEST);
+            }
+            return new ResponseEntity<>(errorResponse.getBody(), errorResponse.getHeaders(), errorResponse.getStatusCode());
+        }
+        LOGGER.error("Unexpected error handling {}", request == null ? "a request" : request.getDescription(false), ex);
+        return problem(HttpStatus.INTERNAL_SERVER_ERROR, INTERNAL_ERROR_TYPE, INTERNAL_ERROR_TITLE, INTERNAL_ERROR_DETAIL);
+    }
+
+    private static ResponseEntity<Object> problem(final HttpStatus status, final URI type, final String title, final String detail) {
+        return new ResponseEntity<>(problemDetail(status, type, title, detail), status);
+    }
+
+    // A new instance per response, as Spring sets the instance member on the body it is given
+    private static ProblemDetail problemDetail(final HttpStatus status, final URI type, final String title, final String detail) {
+        final ProblemDetail body = ProblemDetail.forStatusAndDetail(status, detail);
+        body.setType(type);
+        body.setTitle(title);
+        return body;
     }
 }
@@ -0,0 +1,17 @@
+package fr.rayandfz.back.error;
+
+/**
+ * Thrown when a history query has an empty time range or an invalid bucket duration.
+ */
+public class InvalidHistoryQueryException extends BadRequestException {
+    private static final String TITLE = "Invalid history query";
+
+    /**
+     * Constructs the exception with the given detail.
+     *
+     * @param detail the reason why the query is invalid
+     */
+    public InvalidHistoryQueryException(final String detail) {
+        super(TITLE, detail);
+    }
+}
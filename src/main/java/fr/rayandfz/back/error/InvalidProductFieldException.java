@@ -0,0 +1,26 @@
+package fr.rayandfz.back.error;
+
+import fr.rayandfz.back.model.ProductField;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Thrown when a sparse fieldset names a field or profile that does not exist.
+ */
+public class InvalidProductFieldException extends BadRequestException {
+    private static final String TITLE = "Invalid field";
+
+    private static final String VALID_FIELDS = ". Valid fields are: "
+            + Arrays.stream(ProductField.values()).map(ProductField::property).collect(Collectors.joining(", "))
+            + ", or the profiles summary and full";
+
+    /**
+     * Constructs the exception for the given invalid field.
+     *
+     * @param field the unknown field or profile name
+     */
+    public InvalidProductFieldException(final String field) {
+        super(TITLE, "Invalid field: " + field + VALID_FIELDS);
+    }
+}
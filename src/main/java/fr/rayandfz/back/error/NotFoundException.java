@@ -0,0 +1,22 @@
+package fr.rayandfz.back.error;
+
+import org.springframework.http.HttpStatus;
+
+import java.net.URI;
+
+/**
+ * Thrown when the requested resource does not exist, mapped to 404 Not Found.
+ */
+public class NotFoundException extends ApiException {
+    private static final URI TYPE = URI.create("/problems/not-found");
+
+    /**
+     * Constructs the exception with the given detail.
+     *
+     * @param title  the short, human-readable summary of the problem type
+     * @param detail the explanation specific to this occurrence of the problem
+     */
+    protected NotFoundException(final String title, final String detail) {
+        super(HttpStatus.NOT_FOUND, TYPE, title, detail);
+    }
+}
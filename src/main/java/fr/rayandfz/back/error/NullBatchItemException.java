@@ -0,0 +1,17 @@
+package fr.rayandfz.back.error;
+
+/**
+ * Thrown when a batched request contains a null id or code.
+ */
+public class NullBatchItemException extends BadRequestException {
+    private static final String TITLE = "Invalid batch item";
+
+    /**
+     * Constructs the exception for the given position in the batch.
+     *
+     * @param index the zero-based position of the null item
+     */
+    public NullBatchItemException(final int index) {
+        super(TITLE, "Batch item at index " + index + " is null");
+    }
+}
@@ -0,0 +1,32 @@
+package fr.rayandfz.back.error;
+
+/**
+ * Thrown when no product matches the requested id or code.
+ */
+public class ProductNotFoundException extends NotFoundException {
+    private static final String TITLE = "Product not found";
+
+    private ProductNotFoundException(final String detail) {
+        super(TITLE, detail);
+    }
+
+    /**
+     * Creates the exception for a missing product id.
+     *
+     * @param id the requested id
+     * @return the exception to throw
+     */
+    public static ProductNotFoundException forId(final Long id) {
+        return new ProductNotFoundException("Product not found with id " + id);
+    }
+
+    /**
+     * Creates the exception for a missing product code.
+     *
+     * @param code the requested code
+     * @return the exception to throw
+     */
+    public static ProductNotFoundException forCode(final String code) {
+        return new ProductNotFoundException("Product not found with code " + code);
+    }
+}
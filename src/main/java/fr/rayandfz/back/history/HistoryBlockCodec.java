@@ -0,0 +1,171 @@
+package fr.rayandfz.back.history;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Columnar encoding of a block of change points of one product.
+ * <p>
+ * Layout, little-endian:
+ * </p>
+ * <pre>
+ *  0  int   magic, written last so that a torn block is never read back
+ *  4  int   length of the whole block, in bytes
+ *  8  long  product id
+ * 16  int   number of points
+ * 20  long  smallest timestamp
+ * 28  long  largest timestamp
+ * 36  timestamps  zigzag varint deltas, the first one from the smallest timestamp
+ *     prices      varints of the bits of each price XOR the bits of the previous one
+ *     quantities  zigzag varint deltas, the first one from 0
+ *     statuses    one byte each, -1 for none
+ * </pre>
+ * Consecutive changes usually touch one attribute, so unchanged prices take one byte, small stock moves
+ * one or two, and timestamps a few: a point takes 6 to 10 bytes instead of 21.
+ */
+final class HistoryBlockCodec {
+    static final int MAGIC = 0x31424850;
+    static final int HEADER_SIZE = 36;
+    private static final int LENGTH_OFFSET = 4;
+    private static final int PRODUCT_OFFSET = 8;
+    private static final int COUNT_OFFSET = 16;
+    private static final int MIN_TIMESTAMP_OFFSET = 20;
+    private static final int MAX_TIMESTAMP_OFFSET = 28;
+    private static final int MAX_POINT_SIZE = 10 + 10 + 5 + 1;
+
+    private HistoryBlockCodec() {
+    }
+
+    static int maxBlockSize(final int points) {
+        return HEADER_SIZE + points * MAX_POINT_SIZE;
+    }
+
+    /**
+     * Encodes the points into {@code out}, from its position, leaving the magic number to zero.
+     *
+     * @return the length of the block
+     */
+    static int encode(final long productId, final PointBuffer points, final ByteBuffer out) {
+        final int start = out.position();
+        final long minTimestamp = points.minTimestamp();
+        out.putInt(0).putInt(0).putLong(productId).putInt(points.size)
+                .putLong(minTimestamp).putLong(points.maxTimestamp());
+
+        long previousTimestamp = minTimestamp;
+        for (int i = 0; i < points.size; i++) {
+            putVarLong(out, zigzag(points.timestamps[i] - previousTimestamp));
+            previousTimestamp = points.timestamps[i];
+        }
+        long previousPrice = 0;
+        for (int i = 0; i < points.size; i++) {
+            final long bits = Double.doubleToRawLongBits(points.prices[i]);
+            putVarLong(out, bits ^ previousPrice);
+            previousPrice = bits;
+        }
+        int previousQuantity = 0;
+        for (int i = 0; i < points.size; i++) {
+            putVarLong(out, zigzag((long) points.quantities[i] - previousQuantity));
+            previousQuantity = points.quantities[i];
+        }
+        out.put(points.statuses, 0, points.size);
+
+        final int length = out.position() - start;
+        out.putInt(start + LENGTH_OFFSET, length);
+        return length;
+    }
+
+    static boolean isBlock(final ByteBuffer segment, final int offset) {
+        return offset + HEADER_SIZE <= segment.limit() && segment.getInt(offset) == MAGIC;
+    }
+
+    static int length(final ByteBuffer segment, final int offset) {
+        return segment.getInt(offset + LENGTH_OFFSET);
+    }
+
+    static long productId(final ByteBuffer segment, final int offset) {
+        return segment.getLong(offset + PRODUCT_OFFSET);
+    }
+
+    static int count(final ByteBuffer segment, final int offset) {
+        return segment.getInt(offset + COUNT_OFFSET);
+    }
+
+    static long minTimestamp(final ByteBuffer segment, final int offset) {
+        return segment.getLong(offset + MIN_TIMESTAMP_OFFSET);
+    }
+
+    static long maxTimestamp(final ByteBuffer segment, final int offset) {
+        return segment.getLong(offset + MAX_TIMESTAMP_OFFSET);
+    }
+
+    /**
+     * Decodes the points of the block at {@code offset} whose timestamp is in {@code [from, to)} into {@code out}.
+     */
+    static void decode(final ByteBuffer segment, final int offset, final long from, final long to, final PointBuffer out) {
+        final int count = segment.getInt(offset + COUNT_OFFSET);
+        final ByteBuffer in = segment.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        in.position(offset + HEADER_SIZE);
+
+        final int base = out.size;
+        if (out.timestamps.length < base + count) {
+            out.grow(base + count);
+        }
+        long timestamp = segment.getLong(offset + MIN_TIMESTAMP_OFFSET);
+        for (int i = 0; i < count; i++) {
+            timestamp += unzigzag(getVarLong(in));
+            out.timestamps[base + i] = timestamp;
+        }
+        long price = 0;
+        for (int i = 0; i < count; i++) {
+            price ^= getVarLong(in);
+            out.prices[base + i] = Double.longBitsToDouble(price);
+        }
+        int quantity = 0;
+        for (int i = 0; i < count; i++) {
+            quantity += (int) unzigzag(getVarLong(in));
+            out.quantities[base + i] = quantity;
+        }
+        in.get(out.statuses, base, count);
+
+        // Compact the points outside the range, in place
+        int kept = base;
+        for (int i = base; i < base + count; i++) {
+            if (out.timestamps[i] >= from && out.timestamps[i] < to) {
+                out.timestamps[kept] = out.timestamps[i];
+                out.prices[kept] = out.prices[i];
+                out.quantities[kept] = out.quantities[i];
+                out.statuses[kept] = out.statuses[i];
+                kept++;
+            }
+        }
+        out.size = kept;
+    }
+
+    private static void putVarLong(final ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    private static long getVarLong(final ByteBuffer in) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    private static long zigzag(final long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(final long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
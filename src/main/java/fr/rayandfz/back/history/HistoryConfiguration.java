@@ -0,0 +1,36 @@
+package fr.rayandfz.back.history;
+
+import fr.rayandfz.back.service.IProductService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Spring configuration for the price and stock history, active unless {@code catalog.history.enabled=false}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "catalog.history", name = "enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(HistoryProperties.class)
+public class HistoryConfiguration {
+
+    /**
+     * Opens the history store described by the history properties, recovering the blocks already written
+     * for the current catalog.
+     *
+     * @param properties     the history properties
+     * @param productService the product service owning the catalog
+     * @return the opened history store
+     * @throws IOException if the segment files cannot be opened
+     */
+    @Bean(destroyMethod = "close")
+    public ProductHistoryStore productHistoryStore(final HistoryProperties properties,
+                                                   final IProductService productService) throws IOException {
+        return ProductHistoryStore.open(Path.of(properties.getDirectory()), properties.getSegmentSize(),
+                properties.getBlockPoints(), properties.getQueueCapacity(), properties.getMaxBufferAgeSeconds() * 1000,
+                productService.getCatalogId());
+    }
+}
@@ -0,0 +1,134 @@
+package fr.rayandfz.back.history;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for the price and stock history, bound from the {@code catalog.history} prefix.
+ * <p>
+ * Change points are written to memory-mapped segment files of {@link #getSegmentSize()} bytes in
+ * {@link #getDirectory()}, in blocks of up to {@link #getBlockPoints()} points per product.
+ * </p>
+ */
+@ConfigurationProperties(prefix = "catalog.history")
+public class HistoryProperties {
+    private boolean enabled = true;
+
+    private String directory = "./data/history";
+
+    private int segmentSize = 64 * 1024 * 1024;
+
+    private int blockPoints = 256;
+
+    private int queueCapacity = 65_536;
+
+    private long maxBufferAgeSeconds = 60;
+
+    /**
+     * Whether the history is recorded and served.
+     *
+     * @return {@code true} if the history is enabled
+     */
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    /**
+     * Enables or disables the history.
+     *
+     * @param enabled the new enabled flag
+     */
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Gets the directory holding the segment files.
+     *
+     * @return the history directory
+     */
+    public String getDirectory() {
+        return this.directory;
+    }
+
+    /**
+     * Sets the directory holding the segment files.
+     *
+     * @param directory the new history directory
+     */
+    public void setDirectory(final String directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Gets the size of a segment file, in bytes.
+     *
+     * @return the segment size
+     */
+    public int getSegmentSize() {
+        return this.segmentSize;
+    }
+
+    /**
+     * Sets the size of a segment file, in bytes.
+     *
+     * @param segmentSize the new segment size
+     */
+    public void setSegmentSize(final int segmentSize) {
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Gets the number of change points of a product buffered in memory before they are encoded as a block.
+     *
+     * @return the maximum number of points per block
+     */
+    public int getBlockPoints() {
+        return this.blockPoints;
+    }
+
+    /**
+     * Sets the number of change points of a product buffered in memory before they are encoded as a block.
+     *
+     * @param blockPoints the new maximum number of points per block
+     */
+    public void setBlockPoints(final int blockPoints) {
+        this.blockPoints = blockPoints;
+    }
+
+    /**
+     * Gets the number of changes that can wait for the writer thread before writers record them themselves.
+     *
+     * @return the queue capacity
+     */
+    public int getQueueCapacity() {
+        return this.queueCapacity;
+    }
+
+    /**
+     * Sets the number of changes that can wait for the writer thread before writers record them themselves.
+     *
+     * @param queueCapacity the new queue capacity
+     */
+    public void setQueueCapacity(final int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Gets the maximum time a change point stays buffered in memory before it is written to a segment,
+     * which bounds what is lost if the process is killed.
+     *
+     * @return the maximum buffer age, in seconds
+     */
+    public long getMaxBufferAgeSeconds() {
+        return this.maxBufferAgeSeconds;
+    }
+
+    /**
+     * Sets the maximum time a change point stays buffered in memory before it is written to a segment.
+     *
+     * @param maxBufferAgeSeconds the new maximum buffer age, in seconds
+     */
+    public void setMaxBufferAgeSeconds(final long maxBufferAgeSeconds) {
+        this.maxBufferAgeSeconds = maxBufferAgeSeconds;
+    }
+}
@@ -0,0 +1,165 @@
+package fr.rayandfz.back.history;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+/**
+ * Append-only sequence of memory-mapped segment files holding history blocks.
+ * <p>
+ * A block is addressed by its segment index in the high 32 bits and its offset in the low 32 bits. Only the
+ * writer thread appends; readers may read any block whose address they obtained from the writer.
+ * </p>
+ */
+final class HistorySegments implements Closeable {
+    private static final String PREFIX = "history-";
+    private static final String SUFFIX = ".seg";
+
+    /**
+     * Receives the blocks found when reopening existing segments.
+     */
+    interface BlockVisitor {
+        void visit(long address, long productId, int count, long minTimestamp, long maxTimestamp);
+    }
+
+    private final Path directory;
+    private final int segmentSize;
+    private final List<MappedByteBuffer> segments = new CopyOnWriteArrayList<>();
+    private int position;
+
+    private HistorySegments(final Path directory, final int segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Opens the segments of a directory, reporting every complete block to the visitor, and positions the
+     * writer after the last one.
+     */
+    static HistorySegments open(final Path directory, final int segmentSize, final BlockVisitor visitor) throws IOException {
+        Files.createDirectories(directory);
+        final HistorySegments segments = new HistorySegments(directory, segmentSize);
+        final List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.filter(path -> path.getFileName().toString().startsWith(PREFIX)).sorted().toList();
+        }
+        for (int index = 0; index < files.size(); index++) {
+            if (!files.get(index).equals(segments.segmentPath(index))) {
+                throw new IOException("Missing history segment " + segments.segmentPath(index));
+            }
+            final MappedByteBuffer segment = map(files.get(index), 0);
+            segments.segments.add(segment);
+            int offset = 0;
+            while (HistoryBlockCodec.isBlock(segment, offset)) {
+                visitor.visit(address(index, offset), HistoryBlockCodec.productId(segment, offset),
+                        HistoryBlockCodec.count(segment, offset), HistoryBlockCodec.minTimestamp(segment, offset), HistoryBlockCodec.maxTimestamp(segment, offset));
+                offset += HistoryBlockCodec.length(segment, offset);
+            }
+            segments.position = offset;
+        }
+        if (segments.segments.isEmpty()) {
+            segments.segments.add(map(segments.segmentPath(0), segmentSize));
+        }
+        return segments;
+    }
+
+    /**
+     * Deletes the segment files of a directory, returning how many there were.
+     */
+    static int delete(final Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        final List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.filter(path -> path.getFileName().toString().startsWith(PREFIX)).toList();
+        }
+        for (final Path file : files) {
+            Files.delete(file);
+        }
+        return files.size();
+    }
+
+    /**
+     * Appends an encoded block, whose magic number is still zero, and returns its address.
+     */
+    long append(final ByteBuffer block) throws IOException {
+        final int length = block.remaining();
+        if (length > this.segmentSize) {
+            throw new IllegalStateException("Block of " + length + " bytes larger than the segment size " + this.segmentSize);
+        }
+        MappedByteBuffer segment = this.segments.get(this.segments.size() - 1);
+        if (this.position + length > segment.capacity()) {
+            segment = map(segmentPath(this.segments.size()), this.segmentSize);
+            this.segments.add(segment);
+            this.position = 0;
+        }
+        final int offset = this.position;
+        segment.put(offset, block, block.position(), length);
+        segment.putInt(offset, HistoryBlockCodec.MAGIC);
+        this.position += length;
+        return address(this.segments.size() - 1, offset);
+    }
+
+    /**
+     * Gets the segment holding the block at the given address.
+     */
+    ByteBuffer segment(final long address) {
+        return this.segments.get((int) (address >>> 32));
+    }
+
+    static int offset(final long address) {
+        return (int) address;
+    }
+
+    /**
+     * Gets the number of bytes used by the blocks.
+     */
+    long usedBytes() {
+        return (long) (this.segments.size() - 1) * this.segmentSize + this.position;
+    }
+
+    /**
+     * Forces the written blocks to the storage device.
+     */
+    void force() {
+        for (final MappedByteBuffer segment : this.segments) {
+            segment.force();
+        }
+    }
+
+    /**
+     * Forces the written blocks to the storage device. The mappings themselves are released by the garbage
+     * collector, as the JDK offers no way to unmap a file explicitly.
+     */
+    @Override
+    public void close() {
+        force();
+    }
+
+    private Path segmentPath(final int index) {
+        return this.directory.resolve(String.format("%s%06d%s", PREFIX, index, SUFFIX));
+    }
+
+    private static long address(final int segment, final int offset) {
+        return (long) segment << 32 | offset;
+    }
+
+    private static MappedByteBuffer map(final Path file, final int size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            final long length = Math.max(size, channel.size());
+            final MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+            segment.order(ByteOrder.LITTLE_ENDIAN);
+            return segment;
+        }
+    }
+}
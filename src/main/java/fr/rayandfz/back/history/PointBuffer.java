@@ -0,0 +1,96 @@
+package fr.rayandfz.back.history;
+
+import java.util.Arrays;
+
+/**
+ * Growable columns of change points: one primitive array per attribute, so that a point costs 21 bytes
+ * instead of an object per point.
+ */
+final class PointBuffer {
+    long[] timestamps;
+    double[] prices;
+    int[] quantities;
+    byte[] statuses;
+    int size;
+
+    PointBuffer(final int capacity) {
+        this.timestamps = new long[capacity];
+        this.prices = new double[capacity];
+        this.quantities = new int[capacity];
+        this.statuses = new byte[capacity];
+    }
+
+    void add(final long timestamp, final double price, final int quantity, final byte status) {
+        if (this.size == this.timestamps.length) {
+            grow(this.size + 1);
+        }
+        this.timestamps[this.size] = timestamp;
+        this.prices[this.size] = price;
+        this.quantities[this.size] = quantity;
+        this.statuses[this.size] = status;
+        this.size++;
+    }
+
+    void addInRange(final PointBuffer other, final long from, final long to) {
+        for (int i = 0; i < other.size; i++) {
+            if (other.timestamps[i] >= from && other.timestamps[i] < to) {
+                add(other.timestamps[i], other.prices[i], other.quantities[i], other.statuses[i]);
+            }
+        }
+    }
+
+    void grow(final int minCapacity) {
+        final int capacity = Math.max(minCapacity, Math.max(8, this.timestamps.length * 2));
+        this.timestamps = Arrays.copyOf(this.timestamps, capacity);
+        this.prices = Arrays.copyOf(this.prices, capacity);
+        this.quantities = Arrays.copyOf(this.quantities, capacity);
+        this.statuses = Arrays.copyOf(this.statuses, capacity);
+    }
+
+    void clear() {
+        this.size = 0;
+    }
+
+    long minTimestamp() {
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < this.size; i++) {
+            min = Math.min(min, this.timestamps[i]);
+        }
+        return min;
+    }
+
+    long maxTimestamp() {
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < this.size; i++) {
+            max = Math.max(max, this.timestamps[i]);
+        }
+        return max;
+    }
+
+    /**
+     * Sorts the points by timestamp, keeping the recording order of equal timestamps. Changes are recorded
+     * in the order they reach the writer, which may differ slightly from the order of their timestamps.
+     */
+    void sortByTimestamp() {
+        boolean sorted = true;
+        for (int i = 1; i < this.size && sorted; i++) {
+            sorted = this.timestamps[i - 1] <= this.timestamps[i];
+        }
+        if (sorted) {
+            return;
+        }
+        final Integer[] order = new Integer[this.size];
+        for (int i = 0; i < this.size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(this.timestamps[a], this.timestamps[b]));
+        final PointBuffer sortedPoints = new PointBuffer(this.size);
+        for (final int i : order) {
+            sortedPoints.add(this.timestamps[i], this.prices[i], this.quantities[i], this.statuses[i]);
+        }
+        this.timestamps = sortedPoints.timestamps;
+        this.prices = sortedPoints.prices;
+        this.quantities = sortedPoints.quantities;
+        this.statuses = sortedPoints.statuses;
+    }
+}
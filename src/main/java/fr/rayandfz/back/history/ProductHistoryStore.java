@@ -0,0 +1,474 @@
+package fr.rayandfz.back.history;
+
+import fr.rayandfz.back.error.InvalidHistoryQueryException;
+import fr.rayandfz.back.model.Product;
+import fr.rayandfz.back.model.ProductHistory;
+import fr.rayandfz.back.model.ProductHistoryAggregate;
+import fr.rayandfz.back.model.ProductInventoryStatus;
+import fr.rayandfz.back.service.ProductChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Append-only history of the price, quantity and inventory status of every product.
+ * <p>
+ * Request threads only put each change in a bounded queue. A single writer thread appends the changes to
+ * per-product buffers of primitive arrays, and encodes each full buffer as a compact columnar block (see
+ * {@link HistoryBlockCodec}) into memory-mapped segment files. Buffers are also sealed once their oldest
+ * point is older than the maximum buffer age, and on shutdown. When the queue is full, the request thread
+ * records its change itself rather than dropping it.
+ * </p>
+ * <p>
+ * Queries read the sealed blocks overlapping the requested range, skipping the others, plus the buffered
+ * points. A change shows up in queries once the writer has taken it from the queue, typically within
+ * milliseconds.
+ * </p>
+ * <p>
+ * The history belongs to one catalog, as product ids are only unique within a catalog: it is discarded when
+ * opened for another catalog, such as after a restart with an in-memory catalog. Deleting a product drops its
+ * history; the deleted ids are kept in a file so that the blocks already written are skipped on recovery.
+ * </p>
+ */
+public class ProductHistoryStore implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProductHistoryStore.class);
+    private static final long POLL_MILLIS = 100;
+    private static final int DRAIN_BATCH = 1024;
+    private static final ProductInventoryStatus[] STATUSES = ProductInventoryStatus.values();
+    private static final String CATALOG_FILE = "catalog.id";
+    private static final String DELETED_FILE = "deleted-products";
+
+    private final HistorySegments segments;
+    private final int blockPoints;
+    private final long maxBufferAgeMillis;
+    private final Map<Long, ProductSeries> series = new ConcurrentHashMap<>();
+    private final Set<Long> deletedIds;
+    private final FileChannel deletedLog;
+    private final BlockingQueue<Change> queue;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    // Series with buffered points, oldest first; guarded by the write lock
+    private final ArrayDeque<Buffered> bufferedSeries = new ArrayDeque<>();
+    private final List<Change> batch = new ArrayList<>(DRAIN_BATCH);
+    private final ByteBuffer scratch;
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong applied = new AtomicLong();
+    private final AtomicLong pointCount = new AtomicLong();
+    private final AtomicLong inlineWrites = new AtomicLong();
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    private ProductHistoryStore(final HistorySegments segments, final Set<Long> deletedIds, final FileChannel deletedLog,
+                                final int blockPoints, final int queueCapacity, final long maxBufferAgeMillis) {
+        this.segments = segments;
+        this.deletedIds = deletedIds;
+        this.deletedLog = deletedLog;
+        this.blockPoints = blockPoints;
+        this.maxBufferAgeMillis = maxBufferAgeMillis;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.scratch = ByteBuffer.allocate(HistoryBlockCodec.maxBlockSize(blockPoints)).order(ByteOrder.LITTLE_ENDIAN);
+        this.writer = new Thread(this::writeLoop, "product-history-writer");
+        this.writer.setDaemon(true);
+    }
+
+    /**
+     * Opens the history of a catalog stored in a directory, creating it if needed, and starts the writer thread.
+     * A history recorded for another catalog is discarded.
+     *
+     * @param directory          the directory holding the segment files
+     * @param segmentSize        the size of a segment file, in bytes
+     * @param blockPoints        the number of points of a product buffered before they are encoded as a block
+     * @param queueCapacity      the number of changes that can wait for the writer thread
+     * @param maxBufferAgeMillis the maximum time a point stays buffered before it is written to a segment
+     * @param catalogId          the identifier of the catalog the products belong to
+     * @return the opened store
+     * @throws IOException if the segment files cannot be opened
+     */
+    public static ProductHistoryStore open(final Path directory, final int segmentSize, final int blockPoints,
+                                           final int queueCapacity, final long maxBufferAgeMillis,
+                                           final String catalogId) throws IOException {
+        Files.createDirectories(directory);
+        final Path catalogFile = directory.resolve(CATALOG_FILE);
+        if (!Files.exists(catalogFile) || !Files.readString(catalogFile).equals(catalogId)) {
+            final int discarded = HistorySegments.delete(directory);
+            Files.deleteIfExists(directory.resolve(DELETED_FILE));
+            if (discarded > 0) {
+                LOGGER.info("Discarded {} history segments recorded for another catalog", discarded);
+            }
+            Files.writeString(catalogFile, catalogId);
+        }
+
+        final Path deletedFile = directory.resolve(DELETED_FILE);
+        final Set<Long> deletedIds = ConcurrentHashMap.newKeySet();
+        final ByteBuffer deleted = ByteBuffer.wrap(Files.exists(deletedFile) ? Files.readAllBytes(deletedFile) : new byte[0])
+                .order(ByteOrder.LITTLE_ENDIAN);
+        while (deleted.remaining() >= Long.BYTES) {
+            deletedIds.add(deleted.getLong());
+        }
+        final FileChannel deletedLog = FileChannel.open(deletedFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        // Drops a partial id left by a crash, so that the next ones stay aligned
+        deletedLog.truncate(deleted.position());
+        deletedLog.position(deleted.position());
+
+        final Map<Long, ProductSeries> recovered = new ConcurrentHashMap<>();
+        final AtomicLong recoveredPoints = new AtomicLong();
+        final HistorySegments segments = HistorySegments.open(directory, segmentSize, (address, productId, count, min, max) -> {
+            if (!deletedIds.contains(productId)) {
+                recovered.computeIfAbsent(productId, ProductSeries::new).addBlock(address, min, max);
+                recoveredPoints.addAndGet(count);
+            }
+        });
+        final ProductHistoryStore store = new ProductHistoryStore(segments, deletedIds, deletedLog, blockPoints,
+                queueCapacity, maxBufferAgeMillis);
+        store.series.putAll(recovered);
+        store.pointCount.set(recoveredPoints.get());
+        store.writer.start();
+        return store;
+    }
+
+    /**
+     * Records the new price, quantity and status of a product when one of them changed, or when it is created.
+     *
+     * @param event the change published by the product service
+     */
+    @EventListener
+    public void onProductChanged(final ProductChangedEvent event) {
+        final Product current = event.getCurrent();
+        final Product previous = event.getPrevious();
+        if (current == null) {
+            delete(previous.getId());
+            return;
+        }
+        if (previous != null && Objects.equals(previous.getPrice(), current.getPrice())
+                && Objects.equals(previous.getQuantity(), current.getQuantity())
+                && previous.getInventoryStatus() == current.getInventoryStatus()) {
+            return;
+        }
+        record(current.getId(), event.getTimestamp(), current.getPrice(), current.getQuantity(), current.getInventoryStatus());
+    }
+
+    /**
+     * Records a change point. Missing values are recorded as a NaN price, a zero quantity and no status.
+     *
+     * @param productId the product id
+     * @param timestamp the time of the change, in milliseconds since the epoch
+     * @param price     the price after the change
+     * @param quantity  the quantity after the change
+     * @param status    the inventory status after the change
+     */
+    public void record(final long productId, final long timestamp, final Double price, final Integer quantity,
+                       final ProductInventoryStatus status) {
+        final Change change = new Change(productId, timestamp, price == null ? Double.NaN : price,
+                quantity == null ? 0 : quantity, status == null ? -1 : (byte) status.ordinal());
+        if (this.queue.offer(change)) {
+            this.enqueued.incrementAndGet();
+            return;
+        }
+        // The writer is behind: record the change on this thread rather than dropping it
+        this.inlineWrites.incrementAndGet();
+        this.writeLock.lock();
+        try {
+            apply(change);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } finally {
+            this.writeLock.unlock();
+        }
+    }
+
+    /**
+     * Drops the history of a deleted product. Its changes still queued are ignored, and its blocks already
+     * written are skipped when the store is reopened.
+     *
+     * @param productId the id of the deleted product
+     */
+    public void delete(final long productId) {
+        if (!this.deletedIds.add(productId)) {
+            return;
+        }
+        this.writeLock.lock();
+        try {
+            final ByteBuffer id = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN).putLong(0, productId);
+            while (id.hasRemaining()) {
+                this.deletedLog.write(id);
+            }
+            this.series.remove(productId);
+            this.bufferedSeries.removeIf(buffered -> buffered.series().productId == productId);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } finally {
+            this.writeLock.unlock();
+        }
+    }
+
+    /**
+     * Gets the change points of a product in a time range, ordered by timestamp.
+     *
+     * @param productId the product id
+     * @param from      the start of the range, in milliseconds since the epoch, inclusive
+     * @param to        the end of the range, in milliseconds since the epoch, exclusive
+     * @return the change points, empty if the product has no history in the range
+     * @throws InvalidHistoryQueryException if the range is empty
+     */
+    public ProductHistory getHistory(final long productId, final long from, final long to) {
+        final PointBuffer points = collect(productId, from, to);
+        final ProductInventoryStatus[] statuses = new ProductInventoryStatus[points.size];
+        for (int i = 0; i < points.size; i++) {
+            statuses[i] = status(points.statuses[i]);
+        }
+        return new ProductHistory(productId, Arrays.copyOf(points.timestamps, points.size),
+                Arrays.copyOf(points.prices, points.size), Arrays.copyOf(points.quantities, points.size), statuses);
+    }
+
+    /**
+     * Downsamples the change points of a product in a time range into buckets of equal duration, aligned on
+     * the start of the range. Only the buckets holding at least one change point are returned.
+     *
+     * @param productId    the product id
+     * @param from         the start of the range, in milliseconds since the epoch, inclusive
+     * @param to           the end of the range, in milliseconds since the epoch, exclusive
+     * @param bucketMillis the duration of a bucket, in milliseconds
+     * @return the aggregates of each non-empty bucket, ordered by time
+     * @throws InvalidHistoryQueryException if the range is empty or the bucket duration is not positive
+     */
+    public ProductHistoryAggregate getAggregate(final long productId, final long from, final long to, final long bucketMillis) {
+        if (bucketMillis <= 0) {
+            throw new InvalidHistoryQueryException("The bucket duration must be positive");
+        }
+        final PointBuffer points = collect(productId, from, to);
+        final int capacity = points.size;
+        final long[] bucketStarts = new long[capacity];
+        final int[] counts = new int[capacity];
+        final double[] minPrices = new double[capacity];
+        final double[] maxPrices = new double[capacity];
+        final double[] averagePrices = new double[capacity];
+        final double[] lastPrices = new double[capacity];
+        final int[] minQuantities = new int[capacity];
+        final int[] maxQuantities = new int[capacity];
+        final int[] lastQuantities = new int[capacity];
+        final ProductInventoryStatus[] lastStatuses = new ProductInventoryStatus[capacity];
+
+        int bucket = -1;
+        for (int i = 0; i < points.size; i++) {
+            final long bucketStart = from + Math.floorDiv(points.timestamps[i] - from, bucketMillis) * bucketMillis;
+            final double price = points.prices[i];
+            final int quantity = points.quantities[i];
+            if (bucket < 0 || bucketStarts[bucket] != bucketStart) {
+                if (bucket >= 0) {
+                    averagePrices[bucket] /= counts[bucket];
+                }
+                bucket++;
+                bucketStarts[bucket] = bucketStart;
+                minPrices[bucket] = price;
+                maxPrices[bucket] = price;
+                minQuantities[bucket] = quantity;
+                maxQuantities[bucket] = quantity;
+            }
+            counts[bucket]++;
+            minPrices[bucket] = Math.min(minPrices[bucket], price);
+            maxPrices[bucket] = Math.max(maxPrices[bucket], price);
+            averagePrices[bucket] += price;
+            lastPrices[bucket] = price;
+            minQuantities[bucket] = Math.min(minQuantities[bucket], quantity);
+            maxQuantities[bucket] = Math.max(maxQuantities[bucket], quantity);
+            lastQuantities[bucket] = quantity;
+            lastStatuses[bucket] = status(points.statuses[i]);
+        }
+        if (bucket >= 0) {
+            averagePrices[bucket] /= counts[bucket];
+        }
+        final int size = bucket + 1;
+        return new ProductHistoryAggregate(productId, bucketMillis, Arrays.copyOf(bucketStarts, size), Arrays.copyOf(counts, size),
+                Arrays.copyOf(minPrices, size), Arrays.copyOf(maxPrices, size), Arrays.copyOf(averagePrices, size),
+                Arrays.copyOf(lastPrices, size), Arrays.copyOf(minQuantities, size), Arrays.copyOf(maxQuantities, size),
+                Arrays.copyOf(lastQuantities, size), Arrays.copyOf(lastStatuses, size));
+    }
+
+    /**
+     * Records the changes still queued, then writes every buffered point to the segments and forces them
+     * to the storage device.
+     *
+     * @throws IOException if a block cannot be written
+     */
+    public void flush() throws IOException {
+        final long target = this.enqueued.get();
+        while (true) {
+            this.writeLock.lock();
+            try {
+                drainQueue();
+                if (this.applied.get() >= target) {
+                    for (final Buffered buffered : this.bufferedSeries) {
+                        buffered.series().seal(this.segments, this.scratch);
+                    }
+                    this.bufferedSeries.clear();
+                    this.segments.force();
+                    this.deletedLog.force(false);
+                    return;
+                }
+            } finally {
+                this.writeLock.unlock();
+            }
+            // The writer thread took a change from the queue but has not recorded it yet
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Gets the number of change points recorded, including those recovered from the segment files.
+     *
+     * @return the number of change points
+     */
+    public long getPointCount() {
+        return this.pointCount.get();
+    }
+
+    /**
+     * Gets the number of bytes used in the segment files.
+     *
+     * @return the bytes used by the sealed blocks
+     */
+    public long getUsedBytes() {
+        return this.segments.usedBytes();
+    }
+
+    /**
+     * Gets the number of changes recorded by request threads because the queue was full.
+     *
+     * @return the number of inline writes
+     */
+    public long getInlineWrites() {
+        return this.inlineWrites.get();
+    }
+
+    /**
+     * Stops the writer thread, then writes the buffered points to the segment files.
+     *
+     * @throws IOException if a block cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        this.running = false;
+        this.writer.interrupt();
+        try {
+            this.writer.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        this.segments.close();
+        this.deletedLog.close();
+    }
+
+    private PointBuffer collect(final long productId, final long from, final long to) {
+        if (from >= to) {
+            throw new InvalidHistoryQueryException("The start of the range must be before its end");
+        }
+        final PointBuffer points = new PointBuffer(0);
+        final ProductSeries productSeries = this.series.get(productId);
+        if (productSeries != null) {
+            productSeries.collect(this.segments, from, to, points);
+            points.sortByTimestamp();
+        }
+        return points;
+    }
+
+    private void writeLoop() {
+        while (this.running) {
+            try {
+                final Change first = this.queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                this.writeLock.lock();
+                try {
+                    if (first != null) {
+                        applyQueued(first);
+                        drainQueue();
+                    }
+                    sealAged(System.currentTimeMillis());
+                } finally {
+                    this.writeLock.unlock();
+                }
+            } catch (InterruptedException ex) {
+                // Interrupted by close(), which records the remaining changes itself
+            } catch (IOException | RuntimeException ex) {
+                LOGGER.error("Failed to write the product history", ex);
+            }
+        }
+    }
+
+    private void drainQueue() throws IOException {
+        while (this.queue.drainTo(this.batch, DRAIN_BATCH) > 0) {
+            try {
+                for (final Change change : this.batch) {
+                    applyQueued(change);
+                }
+            } finally {
+                this.batch.clear();
+            }
+        }
+    }
+
+    private void applyQueued(final Change change) throws IOException {
+        try {
+            apply(change);
+        } finally {
+            this.applied.incrementAndGet();
+        }
+    }
+
+    private void apply(final Change change) throws IOException {
+        if (this.deletedIds.contains(change.productId())) {
+            return;
+        }
+        final ProductSeries productSeries = this.series.computeIfAbsent(change.productId(), ProductSeries::new);
+        final long now = System.currentTimeMillis();
+        final int buffered = productSeries.append(change.timestamp(), change.price(), change.quantity(), change.status(), now);
+        this.pointCount.incrementAndGet();
+        if (buffered == 1) {
+            this.bufferedSeries.add(new Buffered(productSeries, now));
+        }
+        if (buffered >= this.blockPoints) {
+            productSeries.seal(this.segments, this.scratch);
+        }
+    }
+
+    private void sealAged(final long now) throws IOException {
+        while (!this.bufferedSeries.isEmpty() && this.bufferedSeries.peek().since() + this.maxBufferAgeMillis <= now) {
+            final Buffered buffered = this.bufferedSeries.poll();
+            // The series may have been sealed since, when its buffer filled up
+            if (buffered.series().bufferedSince() == buffered.since()) {
+                buffered.series().seal(this.segments, this.scratch);
+            }
+        }
+    }
+
+    private static ProductInventoryStatus status(final byte ordinal) {
+        return ordinal < 0 ? null : STATUSES[ordinal];
+    }
+
+    private record Change(long productId, long timestamp, double price, int quantity, byte status) {
+    }
+
+    private record Buffered(ProductSeries series, long since) {
+    }
+}
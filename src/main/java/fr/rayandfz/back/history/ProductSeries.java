@@ -0,0 +1,95 @@
+package fr.rayandfz.back.history;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * History of one product: the addresses and time spans of its sealed blocks, and the points not yet sealed.
+ * <p>
+ * Sealing encodes the buffered points and publishes the new block under the lock of the series, so that a
+ * reader sees every point exactly once, either in a block or in the buffer.
+ * </p>
+ */
+final class ProductSeries {
+    private static final int INITIAL_BUFFER_CAPACITY = 4;
+
+    final long productId;
+    private long[] blockAddresses = new long[2];
+    private long[] blockMinTimestamps = new long[2];
+    private long[] blockMaxTimestamps = new long[2];
+    private int blockCount;
+    private final PointBuffer buffer = new PointBuffer(INITIAL_BUFFER_CAPACITY);
+    private long bufferedSince;
+
+    ProductSeries(final long productId) {
+        this.productId = productId;
+    }
+
+    synchronized void addBlock(final long address, final long minTimestamp, final long maxTimestamp) {
+        if (this.blockCount == this.blockAddresses.length) {
+            this.blockAddresses = Arrays.copyOf(this.blockAddresses, this.blockCount * 2);
+            this.blockMinTimestamps = Arrays.copyOf(this.blockMinTimestamps, this.blockCount * 2);
+            this.blockMaxTimestamps = Arrays.copyOf(this.blockMaxTimestamps, this.blockCount * 2);
+        }
+        this.blockAddresses[this.blockCount] = address;
+        this.blockMinTimestamps[this.blockCount] = minTimestamp;
+        this.blockMaxTimestamps[this.blockCount] = maxTimestamp;
+        this.blockCount++;
+    }
+
+    /**
+     * Buffers a point.
+     *
+     * @return the number of buffered points
+     */
+    synchronized int append(final long timestamp, final double price, final int quantity, final byte status, final long now) {
+        if (this.buffer.size == 0) {
+            this.bufferedSince = now;
+        }
+        this.buffer.add(timestamp, price, quantity, status);
+        return this.buffer.size;
+    }
+
+    synchronized long bufferedSince() {
+        return this.buffer.size == 0 ? Long.MAX_VALUE : this.bufferedSince;
+    }
+
+    /**
+     * Encodes the buffered points, if any, into a new block of the segments.
+     */
+    synchronized void seal(final HistorySegments segments, final ByteBuffer scratch) throws IOException {
+        if (this.buffer.size == 0) {
+            return;
+        }
+        scratch.clear();
+        HistoryBlockCodec.encode(this.productId, this.buffer, scratch);
+        scratch.flip();
+        final long address = segments.append(scratch);
+        addBlock(address, this.buffer.minTimestamp(), this.buffer.maxTimestamp());
+        this.buffer.clear();
+    }
+
+    /**
+     * Collects the points in {@code [from, to)} into {@code out}, in recording order.
+     */
+    void collect(final HistorySegments segments, final long from, final long to, final PointBuffer out) {
+        final long[] addresses;
+        int count = 0;
+        final PointBuffer recent = new PointBuffer(0);
+        synchronized (this) {
+            addresses = new long[this.blockCount];
+            for (int i = 0; i < this.blockCount; i++) {
+                if (this.blockMaxTimestamps[i] >= from && this.blockMinTimestamps[i] < to) {
+                    addresses[count++] = this.blockAddresses[i];
+                }
+            }
+            recent.addInRange(this.buffer, from, to);
+        }
+        // Sealed blocks are immutable, so they are decoded outside the lock
+        for (int i = 0; i < count; i++) {
+            HistoryBlockCodec.decode(segments.segment(addresses[i]), HistorySegments.offset(addresses[i]), from, to, out);
+        }
+        out.addInRange(recent, from, to);
+    }
+}
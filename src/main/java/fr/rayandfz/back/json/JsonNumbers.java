@@ -0,0 +1,95 @@
+package fr.rayandfz.back.json;
+
+/**
+ * Formats doubles into a caller-provided buffer, for the JSON serializers.
+ * <p>
+ * Values in the range where {@link Double#toString(double)} uses the plain notation, and that are exactly
+ * represented with at most {@value #MAX_FRACTION_DIGITS} fraction digits, such as prices and ratings, are
+ * written without allocating: the fewest fraction digits that read back to the same double are found by
+ * scaling by powers of ten. Other values are left to the caller.
+ * </p>
+ */
+final class JsonNumbers {
+    /**
+     * Size of a buffer large enough for any value formatted by {@link #formatDouble}.
+     */
+    static final int BUFFER_SIZE = 32;
+
+    private static final int MAX_FRACTION_DIGITS = 8;
+    private static final double MIN_PLAIN = 1e-3;
+    private static final double MAX_PLAIN = 1e7;
+
+    private static final double[] POWERS_OF_TEN = new double[MAX_FRACTION_DIGITS + 1];
+    private static final long[] LONG_POWERS_OF_TEN = new long[MAX_FRACTION_DIGITS + 1];
+
+    static {
+        long power = 1;
+        for (int i = 0; i <= MAX_FRACTION_DIGITS; i++) {
+            POWERS_OF_TEN[i] = power;
+            LONG_POWERS_OF_TEN[i] = power;
+            power *= 10;
+        }
+    }
+
+    private JsonNumbers() {
+    }
+
+    /**
+     * Formats a double the way {@link Double#toString(double)} does, if it can be done without allocating.
+     *
+     * @param value  the value to format
+     * @param buffer the buffer to write to, of at least {@value #BUFFER_SIZE} chars
+     * @return the number of chars written, or -1 if the value must be formatted by the caller
+     */
+    static int formatDouble(final double value, final char[] buffer) {
+        final double magnitude = Math.abs(value);
+        int position = 0;
+        if (magnitude == 0) {
+            if (Double.doubleToRawLongBits(value) != 0) {
+                buffer[position++] = '-';
+            }
+            buffer[position++] = '0';
+            buffer[position++] = '.';
+            buffer[position++] = '0';
+            return position;
+        }
+        if (!(magnitude >= MIN_PLAIN && magnitude < MAX_PLAIN)) {
+            return -1;
+        }
+        for (int digits = 0; digits <= MAX_FRACTION_DIGITS; digits++) {
+            final double scaled = Math.rint(magnitude * POWERS_OF_TEN[digits]);
+            // Both operands are exact, so the division rounds like parsing the decimal would
+            if (scaled / POWERS_OF_TEN[digits] == magnitude) {
+                final long unscaled = (long) scaled;
+                if (value < 0) {
+                    buffer[position++] = '-';
+                }
+                position = writeDigits(unscaled / LONG_POWERS_OF_TEN[digits], buffer, position);
+                buffer[position++] = '.';
+                if (digits == 0) {
+                    buffer[position++] = '0';
+                    return position;
+                }
+                final long fraction = unscaled % LONG_POWERS_OF_TEN[digits];
+                for (int i = digits - 1; i >= 0; i--) {
+                    buffer[position++] = (char) ('0' + fraction / LONG_POWERS_OF_TEN[i] % 10);
+                }
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    private static int writeDigits(final long value, final char[] buffer, final int position) {
+        int length = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            length++;
+        }
+        long rest = value;
+        for (int i = position + length - 1; i >= position; i--) {
+            buffer[i] = (char) ('0' + rest % 10);
+            rest /= 10;
+        }
+        return position + length;
+    }
+}
@@ -0,0 +1,148 @@
+package fr.rayandfz.back.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import fr.rayandfz.back.model.Product;
+import fr.rayandfz.back.model.ProductCategory;
+import fr.rayandfz.back.model.ProductInventoryStatus;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+
+/**
+ * Deserializes a {@link Product} request body field by field, in place of the generic bean deserializer of
+ * Jackson.
+ * <p>
+ * Values of the expected JSON type are read straight from the parser; enum values are matched against
+ * their names without building a string. Anything else, such as a number given as a string or an unknown
+ * enum value, is handed to the standard deserializer of the property type, so coercions and errors stay
+ * those of Jackson: an unknown category is still an {@link com.fasterxml.jackson.databind.exc.InvalidFormatException}
+ * targeting {@link ProductCategory}, as expected by the exception handler. Validation runs on the result as before.
+ * </p>
+ */
+@JsonComponent
+public class ProductJsonDeserializer extends StdDeserializer<Product> {
+    private static final ProductInventoryStatus[] STATUSES = ProductInventoryStatus.values();
+    private static final ProductCategory[] CATEGORIES = ProductCategory.values();
+    private static final char[][] STATUS_NAMES = names(STATUSES);
+    private static final char[][] CATEGORY_NAMES = names(CATEGORIES);
+
+    /**
+     * Constructs the deserializer.
+     */
+    public ProductJsonDeserializer() {
+        super(Product.class);
+    }
+
+    /**
+     * Reads a product from a JSON object.
+     *
+     * @param parser  the parser, positioned on the start of the object
+     * @param context the deserialization context
+     * @return the product
+     * @throws IOException if the input cannot be read or does not describe a product
+     */
+    @Override
+    public Product deserialize(final JsonParser parser, final DeserializationContext context) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.START_OBJECT) {
+            token = parser.nextToken();
+        } else if (token != JsonToken.FIELD_NAME && token != JsonToken.END_OBJECT) {
+            return (Product) context.handleUnexpectedToken(Product.class, parser);
+        }
+        final Product product = new Product();
+        for (; token == JsonToken.FIELD_NAME; token = parser.nextToken()) {
+            final String name = parser.currentName();
+            parser.nextToken();
+            switch (name) {
+                case "id" -> product.setId(readLong(parser, context));
+                case "code" -> product.setCode(readString(parser, context));
+                case "name" -> product.setName(readString(parser, context));
+                case "description" -> product.setDescription(readString(parser, context));
+                case "price" -> product.setPrice(readDouble(parser, context));
+                case "quantity" -> product.setQuantity(readInteger(parser, context));
+                case "inventoryStatus" -> product.setInventoryStatus(
+                        readEnum(parser, context, ProductInventoryStatus.class, STATUSES, STATUS_NAMES));
+                case "category" -> product.setCategory(
+                        readEnum(parser, context, ProductCategory.class, CATEGORIES, CATEGORY_NAMES));
+                case "image" -> product.setImage(readString(parser, context));
+                case "rating" -> product.setRating(readDouble(parser, context));
+                default -> handleUnknownProperty(parser, context, product, name);
+            }
+        }
+        return product;
+    }
+
+    private static Long readLong(final JsonParser parser, final DeserializationContext context) throws IOException {
+        return switch (parser.currentToken()) {
+            case VALUE_NUMBER_INT -> parser.getLongValue();
+            case VALUE_NULL -> null;
+            default -> context.readValue(parser, Long.class);
+        };
+    }
+
+    private static Integer readInteger(final JsonParser parser, final DeserializationContext context) throws IOException {
+        return switch (parser.currentToken()) {
+            case VALUE_NUMBER_INT -> parser.getIntValue();
+            case VALUE_NULL -> null;
+            default -> context.readValue(parser, Integer.class);
+        };
+    }
+
+    private static Double readDouble(final JsonParser parser, final DeserializationContext context) throws IOException {
+        return switch (parser.currentToken()) {
+            case VALUE_NUMBER_FLOAT, VALUE_NUMBER_INT -> parser.getDoubleValue();
+            case VALUE_NULL -> null;
+            default -> context.readValue(parser, Double.class);
+        };
+    }
+
+    private static String readString(final JsonParser parser, final DeserializationContext context) throws IOException {
+        return switch (parser.currentToken()) {
+            case VALUE_STRING -> parser.getText();
+            case VALUE_NULL -> null;
+            default -> context.readValue(parser, String.class);
+        };
+    }
+
+    private static <E extends Enum<E>> E readEnum(final JsonParser parser, final DeserializationContext context,
+                                                  final Class<E> type, final E[] values, final char[][] names) throws IOException {
+        final JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token == JsonToken.VALUE_STRING) {
+            final char[] text = parser.getTextCharacters();
+            final int offset = parser.getTextOffset();
+            final int length = parser.getTextLength();
+            for (int i = 0; i < names.length; i++) {
+                if (matches(names[i], text, offset, length)) {
+                    return values[i];
+                }
+            }
+        }
+        return context.readValue(parser, type);
+    }
+
+    private static boolean matches(final char[] name, final char[] text, final int offset, final int length) {
+        if (name.length != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (name[i] != text[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static char[][] names(final Enum<?>[] constants) {
+        final char[][] names = new char[constants.length][];
+        for (final Enum<?> constant : constants) {
+            names[constant.ordinal()] = constant.name().toCharArray();
+        }
+        return names;
+    }
+}
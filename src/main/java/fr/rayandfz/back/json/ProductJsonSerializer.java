@@ -0,0 +1,134 @@
+package fr.rayandfz.back.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import fr.rayandfz.back.model.Product;
+import fr.rayandfz.back.model.ProductCategory;
+import fr.rayandfz.back.model.ProductField;
+import fr.rayandfz.back.model.ProductInventoryStatus;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+
+/**
+ * Serializes a {@link Product} field by field, in place of the generic bean serializer of Jackson.
+ * <p>
+ * Property names and enum values are encoded once, and written as is into the output buffer of the
+ * generator, which Jackson recycles across responses. Numbers are written without going through a
+ * {@link String}, see {@link JsonNumbers}. The output is the same as the bean serializer's: every property,
+ * nulls included, in declaration order. Lists of products, such as {@code GET /products}, use this serializer
+ * for each element.
+ * </p>
+ */
+@JsonComponent
+public class ProductJsonSerializer extends StdSerializer<Product> {
+    private static final SerializableString ID = name(ProductField.ID);
+    private static final SerializableString CODE = name(ProductField.CODE);
+    private static final SerializableString NAME = name(ProductField.NAME);
+    private static final SerializableString DESCRIPTION = name(ProductField.DESCRIPTION);
+    private static final SerializableString PRICE = name(ProductField.PRICE);
+    private static final SerializableString QUANTITY = name(ProductField.QUANTITY);
+    private static final SerializableString INVENTORY_STATUS = name(ProductField.INVENTORY_STATUS);
+    private static final SerializableString CATEGORY = name(ProductField.CATEGORY);
+    private static final SerializableString IMAGE = name(ProductField.IMAGE);
+    private static final SerializableString RATING = name(ProductField.RATING);
+
+    private static final SerializableString[] STATUSES = values(ProductInventoryStatus.values());
+    private static final SerializableString[] CATEGORIES = values(ProductCategory.values());
+
+    private static final ThreadLocal<char[]> NUMBER_BUFFER = ThreadLocal.withInitial(() -> new char[JsonNumbers.BUFFER_SIZE]);
+
+    /**
+     * Constructs the serializer.
+     */
+    public ProductJsonSerializer() {
+        super(Product.class);
+    }
+
+    /**
+     * Writes the product as a JSON object.
+     *
+     * @param product   the product to write
+     * @param generator the generator to write to
+     * @param provider  the serializer provider, not used
+     * @throws IOException if the output cannot be written
+     */
+    @Override
+    public void serialize(final Product product, final JsonGenerator generator, final SerializerProvider provider) throws IOException {
+        generator.writeStartObject(product);
+        generator.writeFieldName(ID);
+        writeLong(generator, product.getId());
+        generator.writeFieldName(CODE);
+        generator.writeString(product.getCode());
+        generator.writeFieldName(NAME);
+        generator.writeString(product.getName());
+        generator.writeFieldName(DESCRIPTION);
+        generator.writeString(product.getDescription());
+        generator.writeFieldName(PRICE);
+        writeDouble(generator, product.getPrice());
+        generator.writeFieldName(QUANTITY);
+        writeInteger(generator, product.getQuantity());
+        generator.writeFieldName(INVENTORY_STATUS);
+        writeEnum(generator, STATUSES, product.getInventoryStatus());
+        generator.writeFieldName(CATEGORY);
+        writeEnum(generator, CATEGORIES, product.getCategory());
+        generator.writeFieldName(IMAGE);
+        generator.writeString(product.getImage());
+        generator.writeFieldName(RATING);
+        writeDouble(generator, product.getRating());
+        generator.writeEndObject();
+    }
+
+    private static void writeLong(final JsonGenerator generator, final Long value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(value.longValue());
+        }
+    }
+
+    private static void writeInteger(final JsonGenerator generator, final Integer value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(value.intValue());
+        }
+    }
+
+    private static void writeDouble(final JsonGenerator generator, final Double value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+            return;
+        }
+        final char[] buffer = NUMBER_BUFFER.get();
+        final int length = JsonNumbers.formatDouble(value, buffer);
+        if (length < 0) {
+            generator.writeNumber(value.doubleValue());
+        } else {
+            generator.writeNumber(buffer, 0, length);
+        }
+    }
+
+    private static void writeEnum(final JsonGenerator generator, final SerializableString[] values, final Enum<?> value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeString(values[value.ordinal()]);
+        }
+    }
+
+    private static SerializableString name(final ProductField field) {
+        return new SerializedString(field.property());
+    }
+
+    private static SerializableString[] values(final Enum<?>[] constants) {
+        final SerializableString[] values = new SerializableString[constants.length];
+        for (final Enum<?> constant : constants) {
+            values[constant.ordinal()] = new SerializedString(constant.name());
+        }
+        return values;
+    }
+}
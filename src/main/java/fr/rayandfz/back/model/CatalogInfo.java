@@ -0,0 +1,43 @@
+package fr.rayandfz.back.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Represents the single row identifying a catalog.
+ * <p>
+ * The row is created with the catalog, so its identifier changes whenever the catalog starts over empty and its
+ * product ids start over with it.
+ * </p>
+ */
+@Entity
+@Table(name = "catalog_info")
+public class CatalogInfo {
+    @Id
+    private String id;
+
+    /**
+     * Constructs an empty catalog info, as required by JPA.
+     */
+    protected CatalogInfo() {
+    }
+
+    /**
+     * Constructs the catalog info with the given identifier.
+     *
+     * @param id the catalog identifier
+     */
+    public CatalogInfo(final String id) {
+        this.id = id;
+    }
+
+    /**
+     * Gets the catalog identifier.
+     *
+     * @return the catalog identifier
+     */
+    public String getId() {
+        return this.id;
+    }
+}
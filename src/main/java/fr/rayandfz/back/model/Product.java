@@ -1,5 +1,6 @@
 package fr.rayandfz.back.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 
@@ -11,8 +12,13 @@ import jakarta.validation.constraints.*;
  * </p>
  */
 @Entity
-@Table(name = "products")
+@Table(name = "products", uniqueConstraints = @UniqueConstraint(name = Product.CODE_CONSTRAINT, columnNames = "code"))
 public class Product {
+    /**
+     * Name of the unique constraint (and index) on the product code.
+     */
+    public static final String CODE_CONSTRAINT = "uk_products_code";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -46,6 +52,35 @@ public class Product {
     @Max(value = 5, message = "Rating must be between 0 and 5")
     private Double rating;
 
+    @Version
+    @JsonIgnore
+    private Long version;
+
+    /**
+     * Constructs an empty product.
+     */
+    public Product() {
+    }
+
+    /**
+     * Constructs a copy of the given product, such as a snapshot taken before an update.
+     *
+     * @param other the product to copy
+     */
+    public Product(final Product other) {
+        this.id = other.getId();
+        this.code = other.getCode();
+        this.name = other.getName();
+        this.description = other.getDescription();
+        this.price = other.getPrice();
+        this.quantity = other.getQuantity();
+        this.inventoryStatus = other.getInventoryStatus();
+        this.category = other.getCategory();
+        this.image = other.getImage();
+        this.rating = other.getRating();
+        this.version = other.getVersion();
+    }
+
     /**
      * Gets the product's ID.
      *
@@ -225,4 +260,23 @@ public class Product {
     public void setRating(final Double rating) {
         this.rating = rating;
     }
-}
\ No newline at end of file
+
+    /**
+     * Gets the version of the product, incremented by every update. It orders the changes of a product and is
+     * not part of its JSON representation.
+     *
+     * @return the version of the product, or null if it was never stored
+     */
+    public Long getVersion() {
+        return this.version;
+    }
+
+    /**
+     * Sets the version of the product.
+     *
+     * @param version the new version of the product
+     */
+    public void setVersion(final Long version) {
+        this.version = version;
+    }
+}
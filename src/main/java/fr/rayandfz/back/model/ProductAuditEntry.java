@@ -0,0 +1,95 @@
+package fr.rayandfz.back.model;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * An entry of the audit log: who created, updated or deleted a product, when, and which fields changed.
+ */
+public class ProductAuditEntry {
+    private final long id;
+
+    private final long productId;
+
+    private final String type;
+
+    private final String actor;
+
+    private final Instant timestamp;
+
+    private final List<ProductFieldChange> changes;
+
+    /**
+     * Constructs an audit entry.
+     *
+     * @param id        the sequence number of the entry, increasing with the time of the change
+     * @param productId the id of the changed product
+     * @param type      the kind of change: CREATED, UPDATED or DELETED
+     * @param actor     the user who made the change
+     * @param timestamp the time of the change
+     * @param changes   the changed fields, with their values before and after the change
+     */
+    public ProductAuditEntry(final long id, final long productId, final String type, final String actor,
+                             final Instant timestamp, final List<ProductFieldChange> changes) {
+        this.id = id;
+        this.productId = productId;
+        this.type = type;
+        this.actor = actor;
+        this.timestamp = timestamp;
+        this.changes = changes;
+    }
+
+    /**
+     * Gets the sequence number of the entry.
+     *
+     * @return the entry id
+     */
+    public long getId() {
+        return this.id;
+    }
+
+    /**
+     * Gets the id of the changed product.
+     *
+     * @return the product id
+     */
+    public long getProductId() {
+        return this.productId;
+    }
+
+    /**
+     * Gets the kind of change.
+     *
+     * @return CREATED, UPDATED or DELETED
+     */
+    public String getType() {
+        return this.type;
+    }
+
+    /**
+     * Gets the user who made the change.
+     *
+     * @return the actor
+     */
+    public String getActor() {
+        return this.actor;
+    }
+
+    /**
+     * Gets the time of the change.
+     *
+     * @return the timestamp
+     */
+    public Instant getTimestamp() {
+        return this.timestamp;
+    }
+
+    /**
+     * Gets the changed fields.
+     *
+     * @return the field changes, with their values before and after the change
+     */
+    public List<ProductFieldChange> getChanges() {
+        return this.changes;
+    }
+}
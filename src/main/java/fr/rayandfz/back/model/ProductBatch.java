@@ -0,0 +1,45 @@
+package fr.rayandfz.back.model;
+
+import java.util.List;
+
+/**
+ * Result of a batched lookup of products by id.
+ * <p>
+ * Found products are listed in the order of the requested ids, and ids that do not match any product
+ * are reported in {@link #getMissingIds()} instead of failing the whole batch.
+ * </p>
+ */
+public class ProductBatch {
+    private final List<Product> products;
+
+    private final List<Long> missingIds;
+
+    /**
+     * Constructs a batch result.
+     *
+     * @param products   the products found, in request order
+     * @param missingIds the requested ids that do not match any product, in request order
+     */
+    public ProductBatch(final List<Product> products, final List<Long> missingIds) {
+        this.products = products;
+        this.missingIds = missingIds;
+    }
+
+    /**
+     * Gets the products found, in request order.
+     *
+     * @return the products found
+     */
+    public List<Product> getProducts() {
+        return this.products;
+    }
+
+    /**
+     * Gets the requested ids that do not match any product.
+     *
+     * @return the missing ids
+     */
+    public List<Long> getMissingIds() {
+        return this.missingIds;
+    }
+}
@@ -0,0 +1,103 @@
+package fr.rayandfz.back.model;
+
+import fr.rayandfz.back.error.InvalidProductFieldException;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Enum representing the fields of a {@link Product} that can be selected in a sparse fieldset.
+ * <p>
+ * Each field knows its JSON/JPA property name and the column it is stored in, so that a projection
+ * only reads the selected columns. Besides individual fields, a fieldset may name a profile:
+ * </p>
+ * <ul>
+ *     <li>{@code summary} - The fields shown on listing pages: id, name, price, image and inventory status.</li>
+ *     <li>{@code full} - Every field of the product.</li>
+ * </ul>
+ */
+public enum ProductField {
+    ID("id", "id"),
+    CODE("code", "code"),
+    NAME("name", "name"),
+    DESCRIPTION("description", "description"),
+    PRICE("price", "price"),
+    QUANTITY("quantity", "quantity"),
+    INVENTORY_STATUS("inventoryStatus", "inventory_status"),
+    CATEGORY("category", "category"),
+    IMAGE("image", "image"),
+    RATING("rating", "rating");
+
+    /**
+     * The fields shown on listing pages.
+     */
+    public static final Set<ProductField> SUMMARY = Collections.unmodifiableSet(EnumSet.of(ID, NAME, PRICE, IMAGE, INVENTORY_STATUS));
+
+    private static final Map<String, Set<ProductField>> PROFILES = Map.of(
+            "summary", SUMMARY,
+            "full", Collections.unmodifiableSet(EnumSet.allOf(ProductField.class)));
+
+    private final String property;
+    private final String column;
+
+    ProductField(final String property, final String column) {
+        this.property = property;
+        this.column = column;
+    }
+
+    /**
+     * Gets the property name of the field, as used in JSON and JPA queries.
+     *
+     * @return the property name
+     */
+    public String property() {
+        return this.property;
+    }
+
+    /**
+     * Gets the name of the column the field is stored in.
+     *
+     * @return the column name
+     */
+    public String column() {
+        return this.column;
+    }
+
+    /**
+     * Parses a comma-separated list of property names and profile names into a fieldset.
+     *
+     * @param fields the requested fields, for example {@code "id,name,price"} or {@code "summary,code"}
+     * @return the selected fields, in declaration order
+     * @throws InvalidProductFieldException if a name is neither a field nor a profile
+     */
+    public static Set<ProductField> parse(final String fields) {
+        final EnumSet<ProductField> selected = EnumSet.noneOf(ProductField.class);
+        for (final String token : fields.split(",")) {
+            final String name = token.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            final Set<ProductField> profile = PROFILES.get(name);
+            if (profile != null) {
+                selected.addAll(profile);
+                continue;
+            }
+            selected.add(fromProperty(name));
+        }
+        if (selected.isEmpty()) {
+            throw new InvalidProductFieldException(fields);
+        }
+        return selected;
+    }
+
+    private static ProductField fromProperty(final String property) {
+        for (final ProductField field : values()) {
+            if (field.property.equals(property)) {
+                return field;
+            }
+        }
+        throw new InvalidProductFieldException(property);
+    }
+}
@@ -0,0 +1,103 @@
+package fr.rayandfz.back.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A change of one field of a product, with the values before and after the change in their JSON form.
+ */
+public class ProductFieldChange {
+    private final String field;
+
+    private final String previousValue;
+
+    private final String newValue;
+
+    /**
+     * Constructs a field change.
+     *
+     * @param field         the property name of the field
+     * @param previousValue the value before the change, or null
+     * @param newValue      the value after the change, or null
+     */
+    public ProductFieldChange(final String field, final String previousValue, final String newValue) {
+        this.field = field;
+        this.previousValue = previousValue;
+        this.newValue = newValue;
+    }
+
+    /**
+     * Constructs a field change from the values of the field.
+     *
+     * @param field         the property name of the field
+     * @param previousValue the value before the change, or null
+     * @param newValue      the value after the change, or null
+     * @return the field change
+     */
+    public static ProductFieldChange of(final String field, final Object previousValue, final Object newValue) {
+        return new ProductFieldChange(field, textOf(previousValue), textOf(newValue));
+    }
+
+    /**
+     * Lists the fields that differ between two states of a product, in declaration order. The id identifies
+     * the product rather than being one of its fields, so it is not listed.
+     *
+     * @param previous the product before the change, or null for a creation
+     * @param current  the product after the change, or null for a deletion
+     * @return the changed fields
+     */
+    public static List<ProductFieldChange> diff(final Product previous, final Product current) {
+        final Product before = previous == null ? new Product() : previous;
+        final Product after = current == null ? new Product() : current;
+        final List<ProductFieldChange> changes = new ArrayList<>();
+        add(changes, ProductField.CODE, before.getCode(), after.getCode());
+        add(changes, ProductField.NAME, before.getName(), after.getName());
+        add(changes, ProductField.DESCRIPTION, before.getDescription(), after.getDescription());
+        add(changes, ProductField.PRICE, before.getPrice(), after.getPrice());
+        add(changes, ProductField.QUANTITY, before.getQuantity(), after.getQuantity());
+        add(changes, ProductField.INVENTORY_STATUS, before.getInventoryStatus(), after.getInventoryStatus());
+        add(changes, ProductField.CATEGORY, before.getCategory(), after.getCategory());
+        add(changes, ProductField.IMAGE, before.getImage(), after.getImage());
+        add(changes, ProductField.RATING, before.getRating(), after.getRating());
+        return changes;
+    }
+
+    /**
+     * Gets the property name of the changed field.
+     *
+     * @return the field name
+     */
+    public String getField() {
+        return this.field;
+    }
+
+    /**
+     * Gets the value of the field before the change.
+     *
+     * @return the previous value, or null
+     */
+    public String getPreviousValue() {
+        return this.previousValue;
+    }
+
+    /**
+     * Gets the value of the field after the change.
+     *
+     * @return the new value, or null
+     */
+    public String getNewValue() {
+        return this.newValue;
+    }
+
+    private static void add(final List<ProductFieldChange> changes, final ProductField field,
+                            final Object previousValue, final Object newValue) {
+        if (!Objects.equals(previousValue, newValue)) {
+            changes.add(of(field.property(), previousValue, newValue));
+        }
+    }
+
+    private static String textOf(final Object value) {
+        return value == null ? null : value.toString();
+    }
+}
@@ -0,0 +1,84 @@
+package fr.rayandfz.back.model;
+
+/**
+ * Price, quantity and inventory status changes of a product over a time range.
+ * <p>
+ * Change points are returned as parallel arrays, one per attribute: the {@code i}-th change happened at
+ * {@code timestamps[i]} and left the product with {@code prices[i]}, {@code quantities[i]} and
+ * {@code statuses[i]}. This is both compact and what charting libraries expect.
+ * </p>
+ */
+public class ProductHistory {
+    private final long productId;
+
+    private final long[] timestamps;
+
+    private final double[] prices;
+
+    private final int[] quantities;
+
+    private final ProductInventoryStatus[] statuses;
+
+    /**
+     * Constructs a history.
+     *
+     * @param productId  the product id
+     * @param timestamps the times of the changes, in milliseconds since the epoch, in ascending order
+     * @param prices     the price after each change
+     * @param quantities the quantity after each change
+     * @param statuses   the inventory status after each change
+     */
+    public ProductHistory(final long productId, final long[] timestamps, final double[] prices, final int[] quantities,
+                          final ProductInventoryStatus[] statuses) {
+        this.productId = productId;
+        this.timestamps = timestamps;
+        this.prices = prices;
+        this.quantities = quantities;
+        this.statuses = statuses;
+    }
+
+    /**
+     * Gets the product id.
+     *
+     * @return the product id
+     */
+    public long getProductId() {
+        return this.productId;
+    }
+
+    /**
+     * Gets the times of the changes.
+     *
+     * @return the timestamps, in milliseconds since the epoch, in ascending order
+     */
+    public long[] getTimestamps() {
+        return this.timestamps;
+    }
+
+    /**
+     * Gets the price after each change.
+     *
+     * @return the prices
+     */
+    public double[] getPrices() {
+        return this.prices;
+    }
+
+    /**
+     * Gets the quantity after each change.
+     *
+     * @return the quantities
+     */
+    public int[] getQuantities() {
+        return this.quantities;
+    }
+
+    /**
+     * Gets the inventory status after each change.
+     *
+     * @return the inventory statuses
+     */
+    public ProductInventoryStatus[] getStatuses() {
+        return this.statuses;
+    }
+}
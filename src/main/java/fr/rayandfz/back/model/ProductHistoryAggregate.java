@@ -0,0 +1,177 @@
+package fr.rayandfz.back.model;
+
+/**
+ * Price and quantity changes of a product downsampled into buckets of equal duration.
+ * <p>
+ * Like {@link ProductHistory}, buckets are returned as parallel arrays, one per aggregate. Only the buckets
+ * holding at least one change are listed; between two listed buckets, the product kept the last values of
+ * the first one.
+ * </p>
+ */
+public class ProductHistoryAggregate {
+    private final long productId;
+
+    private final long bucketMillis;
+
+    private final long[] bucketStarts;
+
+    private final int[] counts;
+
+    private final double[] minPrices;
+
+    private final double[] maxPrices;
+
+    private final double[] averagePrices;
+
+    private final double[] lastPrices;
+
+    private final int[] minQuantities;
+
+    private final int[] maxQuantities;
+
+    private final int[] lastQuantities;
+
+    private final ProductInventoryStatus[] lastStatuses;
+
+    /**
+     * Constructs an aggregate.
+     *
+     * @param productId      the product id
+     * @param bucketMillis   the duration of a bucket, in milliseconds
+     * @param bucketStarts   the start of each bucket, in milliseconds since the epoch
+     * @param counts         the number of changes in each bucket
+     * @param minPrices      the lowest price set in each bucket
+     * @param maxPrices      the highest price set in each bucket
+     * @param averagePrices  the average of the prices set in each bucket
+     * @param lastPrices     the price at the end of each bucket
+     * @param minQuantities  the lowest quantity set in each bucket
+     * @param maxQuantities  the highest quantity set in each bucket
+     * @param lastQuantities the quantity at the end of each bucket
+     * @param lastStatuses   the inventory status at the end of each bucket
+     */
+    public ProductHistoryAggregate(final long productId, final long bucketMillis, final long[] bucketStarts, final int[] counts,
+                                   final double[] minPrices, final double[] maxPrices, final double[] averagePrices,
+                                   final double[] lastPrices, final int[] minQuantities, final int[] maxQuantities,
+                                   final int[] lastQuantities, final ProductInventoryStatus[] lastStatuses) {
+        this.productId = productId;
+        this.bucketMillis = bucketMillis;
+        this.bucketStarts = bucketStarts;
+        this.counts = counts;
+        this.minPrices = minPrices;
+        this.maxPrices = maxPrices;
+        this.averagePrices = averagePrices;
+        this.lastPrices = lastPrices;
+        this.minQuantities = minQuantities;
+        this.maxQuantities = maxQuantities;
+        this.lastQuantities = lastQuantities;
+        this.lastStatuses = lastStatuses;
+    }
+
+    /**
+     * Gets the product id.
+     *
+     * @return the product id
+     */
+    public long getProductId() {
+        return this.productId;
+    }
+
+    /**
+     * Gets the duration of a bucket.
+     *
+     * @return the bucket duration, in milliseconds
+     */
+    public long getBucketMillis() {
+        return this.bucketMillis;
+    }
+
+    /**
+     * Gets the start of each bucket.
+     *
+     * @return the bucket starts, in milliseconds since the epoch, in ascending order
+     */
+    public long[] getBucketStarts() {
+        return this.bucketStarts;
+    }
+
+    /**
+     * Gets the number of changes in each bucket.
+     *
+     * @return the change counts
+     */
+    public int[] getCounts() {
+        return this.counts;
+    }
+
+    /**
+     * Gets the lowest price set in each bucket.
+     *
+     * @return the minimum prices
+     */
+    public double[] getMinPrices() {
+        return this.minPrices;
+    }
+
+    /**
+     * Gets the highest price set in each bucket.
+     *
+     * @return the maximum prices
+     */
+    public double[] getMaxPrices() {
+        return this.maxPrices;
+    }
+
+    /**
+     * Gets the average of the prices set in each bucket.
+     *
+     * @return the average prices
+     */
+    public double[] getAveragePrices() {
+        return this.averagePrices;
+    }
+
+    /**
+     * Gets the price at the end of each bucket.
+     *
+     * @return the last prices
+     */
+    public double[] getLastPrices() {
+        return this.lastPrices;
+    }
+
+    /**
+     * Gets the lowest quantity set in each bucket.
+     *
+     * @return the minimum quantities
+     */
+    public int[] getMinQuantities() {
+        return this.minQuantities;
+    }
+
+    /**
+     * Gets the highest quantity set in each bucket.
+     *
+     * @return the maximum quantities
+     */
+    public int[] getMaxQuantities() {
+        return this.maxQuantities;
+    }
+
+    /**
+     * Gets the quantity at the end of each bucket.
+     *
+     * @return the last quantities
+     */
+    public int[] getLastQuantities() {
+        return this.lastQuantities;
+    }
+
+    /**
+     * Gets the inventory status at the end of each bucket.
+     *
+     * @return the last inventory statuses
+     */
+    public ProductInventoryStatus[] getLastStatuses() {
+        return this.lastStatuses;
+    }
+}
@@ -0,0 +1,184 @@
+package fr.rayandfz.back.ranking;
+
+import fr.rayandfz.back.model.Product;
+import fr.rayandfz.back.model.ProductCategory;
+import fr.rayandfz.back.model.ProductInventoryStatus;
+import fr.rayandfz.back.service.IProductService;
+import fr.rayandfz.back.service.ProductChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Per-category rankings of the products, kept up to date with every write of the product services.
+ * <p>
+ * Each category has two concurrent skip lists: products by descending rating, and products in stock or low
+ * on stock by ascending price, ties broken by id. A change removes the previous entry of the product and
+ * inserts the new one, in O(log n). Reading the top N products walks the head of a list, in O(log n + N),
+ * without locking: readers may miss a product being moved, or meet it at both its previous and its new
+ * position, so the head is deduplicated by id. Changes to the same product are applied one at a time through
+ * the map of ranked products, and changes to different products run concurrently.
+ * </p>
+ * <p>
+ * Entries only hold the ranking key and the id of the product, so the rankings cost a few dozen bytes per
+ * product whatever the size of its description; the products of a head are then read in one batch from the
+ * catalog. Products without a category, or without a rating or price, are left out of the corresponding ranking.
+ * </p>
+ * <p>
+ * Changes can be delivered out of order by concurrent writes, so the version last applied to each product is
+ * kept, including for deleted products, and a change whose version is not newer is ignored: an older update
+ * cannot move a product back, nor a late one bring a deleted product back into the rankings.
+ * </p>
+ */
+@Component
+public class ProductRankings {
+    private static final Comparator<Entry> BY_RATING = Comparator.comparingDouble(Entry::key).reversed()
+            .thenComparingLong(Entry::id);
+    private static final Comparator<Entry> BY_PRICE = Comparator.comparingDouble(Entry::key)
+            .thenComparingLong(Entry::id);
+
+    private final Map<ProductCategory, NavigableSet<Entry>> byRating = new EnumMap<>(ProductCategory.class);
+    private final Map<ProductCategory, NavigableSet<Entry>> byPrice = new EnumMap<>(ProductCategory.class);
+    private final ConcurrentHashMap<Long, Ranked> ranked = new ConcurrentHashMap<>();
+    // Only updated while the product is locked by the compute of the map of ranked products
+    private final ConcurrentHashMap<Long, Long> versions = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs the rankings of the products of the catalog.
+     *
+     * @param productService the product service, read once to rank the existing products
+     */
+    @Autowired
+    public ProductRankings(final IProductService productService) {
+        this(productService.getAllProducts());
+    }
+
+    /**
+     * Constructs the rankings of the given products.
+     *
+     * @param products the products to rank
+     */
+    public ProductRankings(final Collection<Product> products) {
+        for (final ProductCategory category : ProductCategory.values()) {
+            this.byRating.put(category, new ConcurrentSkipListSet<>(BY_RATING));
+            this.byPrice.put(category, new ConcurrentSkipListSet<>(BY_PRICE));
+        }
+        for (final Product product : products) {
+            update(product.getId(), product, product.getVersion());
+        }
+    }
+
+    /**
+     * Moves a product in the rankings after it was created, updated or deleted, unless a newer version of
+     * the product was already applied. Changes without a version are always applied.
+     *
+     * @param event the change published by the product service
+     */
+    @EventListener
+    public void onProductChanged(final ProductChangedEvent event) {
+        update(event.getId(), event.getCurrent(), event.getVersion());
+    }
+
+    /**
+     * Gets the best rated products of a category, best first.
+     *
+     * @param category the category
+     * @param limit    the maximum number of products
+     * @return the ids of the products with the highest ratings, ties in id order
+     */
+    public List<Long> getTopRated(final ProductCategory category, final int limit) {
+        return head(this.byRating.get(category), limit);
+    }
+
+    /**
+     * Gets the cheapest products of a category among those in stock or low on stock, cheapest first.
+     *
+     * @param category the category
+     * @param limit    the maximum number of products
+     * @return the ids of the available products with the lowest prices, ties in id order
+     */
+    public List<Long> getCheapestInStock(final ProductCategory category, final int limit) {
+        return head(this.byPrice.get(category), limit);
+    }
+
+    /**
+     * Gets the number of ranked products.
+     *
+     * @return the number of products in at least one ranking
+     */
+    public int size() {
+        return this.ranked.size();
+    }
+
+    private void update(final long id, final Product current, final Long version) {
+        this.ranked.compute(id, (key, previous) -> {
+            if (version != null) {
+                final Long applied = this.versions.get(id);
+                if (applied != null && version <= applied) {
+                    return previous;
+                }
+                this.versions.put(id, version);
+            }
+            if (previous != null) {
+                if (previous.byRating() != null) {
+                    this.byRating.get(previous.category()).remove(previous.byRating());
+                }
+                if (previous.byPrice() != null) {
+                    this.byPrice.get(previous.category()).remove(previous.byPrice());
+                }
+            }
+            return current == null ? null : rank(id, current);
+        });
+    }
+
+    private Ranked rank(final long id, final Product current) {
+        final ProductCategory category = current.getCategory();
+        if (category == null) {
+            return null;
+        }
+        Entry rating = null;
+        if (current.getRating() != null) {
+            rating = new Entry(current.getRating(), id);
+            this.byRating.get(category).add(rating);
+        }
+        Entry price = null;
+        if (current.getPrice() != null && isAvailable(current.getInventoryStatus())) {
+            price = new Entry(current.getPrice(), id);
+            this.byPrice.get(category).add(price);
+        }
+        return rating == null && price == null ? null : new Ranked(category, rating, price);
+    }
+
+    private static boolean isAvailable(final ProductInventoryStatus status) {
+        return status == ProductInventoryStatus.INSTOCK || status == ProductInventoryStatus.LOWSTOCK;
+    }
+
+    private static List<Long> head(final NavigableSet<Entry> ranking, final int limit) {
+        // A product being moved can be met at both its positions, and is listed at the first one
+        final Set<Long> ids = new LinkedHashSet<>();
+        final Iterator<Entry> entries = ranking.iterator();
+        while (ids.size() < limit && entries.hasNext()) {
+            ids.add(entries.next().id());
+        }
+        return new ArrayList<>(ids);
+    }
+
+    private record Entry(double key, long id) {
+    }
+
+    private record Ranked(ProductCategory category, Entry byRating, Entry byPrice) {
+    }
+}
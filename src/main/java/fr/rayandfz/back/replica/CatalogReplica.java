@@ -0,0 +1,492 @@
+package fr.rayandfz.back.replica;
+
+import fr.rayandfz.back.model.Product;
+import fr.rayandfz.back.model.ProductCategory;
+import fr.rayandfz.back.model.ProductInventoryStatus;
+import fr.rayandfz.back.service.ProductChangedEvent;
+import org.springframework.context.event.EventListener;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Off-heap replica of the catalog, serving reads without materializing entities on the heap.
+ * <p>
+ * Each product is a fixed-layout record of {@value #RECORD_SIZE} bytes in a memory-mapped file. Its strings
+ * are stored in UTF-8 in a second memory-mapped file, an append-only arena, and referenced from the record
+ * by offset and length. The only heap structures are two primitive arrays sorted by id, mapping each id to
+ * its record slot: they serve both lookups by id, by binary search, and listings in id order.
+ * </p>
+ * <p>
+ * Reads return flyweight views that decode a field from the mapped files when its getter is called.
+ * Records are never modified once published: an update writes a new record and swaps the slot in the index,
+ * and the old slot is only reused after a grace period, so a view stays consistent while a request holds
+ * it. Unchanged strings are shared by the new record; replaced ones are left in the arena until the
+ * replica is rebuilt, at the next startup.
+ * </p>
+ * <p>
+ * Writes are serialized. Lookups by id use an optimistic read of the index and never block; listings hold
+ * the read lock of the index while they collect their page.
+ * </p>
+ * <p>
+ * Changes can be delivered out of order by concurrent writes, so the replica keeps the version of each
+ * product next to its id, and ignores a product whose version is not newer than the one it holds. The
+ * version of deleted products is kept until the replica is rebuilt, so that a late update cannot bring one
+ * back.
+ * </p>
+ */
+public class CatalogReplica implements Closeable {
+    /**
+     * Size of a product record, in bytes.
+     */
+    static final int RECORD_SIZE = 64;
+
+    private static final int ID = 0;
+    private static final int PRICE = 8;
+    private static final int RATING = 16;
+    private static final int QUANTITY = 24;
+    private static final int STATUS = 28;
+    private static final int CATEGORY = 29;
+    private static final int NULLS = 30;
+    static final int CODE = 32;
+    static final int NAME = 40;
+    static final int DESCRIPTION = 48;
+    static final int IMAGE = 56;
+
+    private static final int PRICE_NULL = 1;
+    private static final int RATING_NULL = 2;
+    private static final int QUANTITY_NULL = 4;
+    private static final long NULL_STRING = -1;
+    private static final long NO_VERSION = -1;
+    private static final int LENGTH_BITS = 24;
+    private static final long LENGTH_MASK = (1L << LENGTH_BITS) - 1;
+
+    private static final ProductCategory[] CATEGORIES = ProductCategory.values();
+    private static final ProductInventoryStatus[] STATUSES = ProductInventoryStatus.values();
+
+    private final MappedRegions records;
+    private final MappedRegions strings;
+    private final int chunkShift;
+    private final int chunkMask;
+    private final long recycleGraceMillis;
+    private final SlotRecycler recycler = new SlotRecycler();
+    private int nextSlot;
+    private long stringPosition;
+
+    private final StampedLock indexLock = new StampedLock();
+    private long[] ids = new long[1024];
+    private int[] slots = new int[1024];
+    private long[] versions = new long[1024];
+    private int count;
+    private final Map<Long, Long> deletedVersions = new HashMap<>();
+
+    private CatalogReplica(final MappedRegions records, final MappedRegions strings, final int chunkRecords,
+                           final long recycleGraceMillis) {
+        this.records = records;
+        this.strings = strings;
+        this.chunkShift = Integer.numberOfTrailingZeros(chunkRecords);
+        this.chunkMask = chunkRecords - 1;
+        this.recycleGraceMillis = recycleGraceMillis;
+    }
+
+    /**
+     * Creates an empty replica in a directory, replacing the files of a previous one.
+     *
+     * @param directory          the directory holding the replica files
+     * @param chunkRecords       the number of records mapped at once, a power of two
+     * @param stringChunkSize    the size of a chunk of the string arena, which bounds the size of a string
+     * @param recycleGraceMillis the time a replaced record is kept before its slot is reused
+     * @return the empty replica
+     * @throws IOException if the files cannot be created
+     */
+    public static CatalogReplica create(final Path directory, final int chunkRecords, final int stringChunkSize,
+                                        final long recycleGraceMillis) throws IOException {
+        if (Integer.bitCount(chunkRecords) != 1) {
+            throw new IllegalArgumentException("The number of records per chunk must be a power of two, got " + chunkRecords);
+        }
+        Files.createDirectories(directory);
+        return new CatalogReplica(new MappedRegions(directory.resolve("records.dat"), chunkRecords * RECORD_SIZE),
+                new MappedRegions(directory.resolve("strings.dat"), stringChunkSize), chunkRecords, recycleGraceMillis);
+    }
+
+    /**
+     * Applies a change of the write path to the replica.
+     *
+     * @param event the change published by the product service
+     */
+    @EventListener
+    public void onProductChanged(final ProductChangedEvent event) {
+        if (event.getCurrent() == null) {
+            remove(event.getId(), event.getVersion());
+        } else {
+            put(event.getCurrent());
+        }
+    }
+
+    /**
+     * Adds products to the replica, such as the whole catalog at startup.
+     *
+     * @param products the products to add
+     */
+    public void load(final Collection<Product> products) {
+        for (final Product product : products) {
+            put(product);
+        }
+    }
+
+    /**
+     * Adds a product, or replaces the product with the same id, unless the replica already holds a newer
+     * version of it. Products without a version always replace the previous one.
+     *
+     * @param product the product, whose id must be set
+     * @return {@code false} if the product was older than the one in the replica, and ignored
+     */
+    public synchronized boolean put(final Product product) {
+        final long id = product.getId();
+        final long version = product.getVersion() == null ? NO_VERSION : product.getVersion();
+        final int position = Arrays.binarySearch(this.ids, 0, this.count, id);
+        if (version != NO_VERSION && version <= (position >= 0
+                ? this.versions[position] : this.deletedVersions.getOrDefault(id, NO_VERSION))) {
+            return false;
+        }
+        final int previousSlot = position >= 0 ? this.slots[position] : -1;
+        final long code = string(previousSlot, CODE, product.getCode());
+        final long name = string(previousSlot, NAME, product.getName());
+        final long description = string(previousSlot, DESCRIPTION, product.getDescription());
+        final long image = string(previousSlot, IMAGE, product.getImage());
+        final long now = System.currentTimeMillis();
+        final int slot = allocateSlot(now);
+
+        final ByteBuffer chunk = recordChunk(slot);
+        final int base = recordOffset(slot);
+        int nulls = 0;
+        chunk.putLong(base + ID, id);
+        if (product.getPrice() == null) {
+            nulls |= PRICE_NULL;
+        } else {
+            chunk.putDouble(base + PRICE, product.getPrice());
+        }
+        if (product.getRating() == null) {
+            nulls |= RATING_NULL;
+        } else {
+            chunk.putDouble(base + RATING, product.getRating());
+        }
+        if (product.getQuantity() == null) {
+            nulls |= QUANTITY_NULL;
+        } else {
+            chunk.putInt(base + QUANTITY, product.getQuantity());
+        }
+        chunk.put(base + STATUS, ordinal(product.getInventoryStatus()));
+        chunk.put(base + CATEGORY, ordinal(product.getCategory()));
+        chunk.put(base + NULLS, (byte) nulls);
+        chunk.putLong(base + CODE, code);
+        chunk.putLong(base + NAME, name);
+        chunk.putLong(base + DESCRIPTION, description);
+        chunk.putLong(base + IMAGE, image);
+
+        final long stamp = this.indexLock.writeLock();
+        try {
+            if (position >= 0) {
+                this.slots[position] = slot;
+                this.versions[position] = version;
+            } else {
+                insert(-position - 1, id, slot, version);
+            }
+        } finally {
+            this.indexLock.unlockWrite(stamp);
+        }
+        if (previousSlot >= 0) {
+            this.recycler.release(previousSlot, now);
+        }
+        return true;
+    }
+
+    /**
+     * Removes a product.
+     *
+     * @param id the product id
+     * @return {@code true} if the product was in the replica
+     */
+    public boolean remove(final long id) {
+        return remove(id, null);
+    }
+
+    /**
+     * Removes a product, and ignores its versions up to the deleted one from then on.
+     *
+     * @param id      the product id
+     * @param version the version of the deleted product, or null if unknown
+     * @return {@code true} if the product was in the replica
+     */
+    public synchronized boolean remove(final long id, final Long version) {
+        if (version != null) {
+            this.deletedVersions.merge(id, version, Math::max);
+        }
+        final int position = Arrays.binarySearch(this.ids, 0, this.count, id);
+        if (position < 0) {
+            return false;
+        }
+        final int slot = this.slots[position];
+        final long stamp = this.indexLock.writeLock();
+        try {
+            System.arraycopy(this.ids, position + 1, this.ids, position, this.count - position - 1);
+            System.arraycopy(this.slots, position + 1, this.slots, position, this.count - position - 1);
+            System.arraycopy(this.versions, position + 1, this.versions, position, this.count - position - 1);
+            this.count--;
+        } finally {
+            this.indexLock.unlockWrite(stamp);
+        }
+        this.recycler.release(slot, System.currentTimeMillis());
+        return true;
+    }
+
+    /**
+     * Gets a view of a product.
+     *
+     * @param id the product id
+     * @return a flyweight view of the product, or null if it is not in the replica
+     */
+    public Product get(final long id) {
+        long stamp = this.indexLock.tryOptimisticRead();
+        int slot = find(id);
+        if (!this.indexLock.validate(stamp)) {
+            stamp = this.indexLock.readLock();
+            try {
+                slot = find(id);
+            } finally {
+                this.indexLock.unlockRead(stamp);
+            }
+        }
+        return slot < 0 ? null : new ReplicaProduct(this, slot);
+    }
+
+    /**
+     * Gets views of a page of the products matching the filters, in id order.
+     *
+     * @param category        the category to filter on, or null
+     * @param inventoryStatus the inventory status to filter on, or null
+     * @param offset          the number of matching products to skip
+     * @param limit           the maximum number of products to return
+     * @return flyweight views of the products in the page
+     */
+    public List<Product> list(final ProductCategory category, final ProductInventoryStatus inventoryStatus,
+                              final long offset, final int limit) {
+        final byte categoryOrdinal = ordinal(category);
+        final byte statusOrdinal = ordinal(inventoryStatus);
+        final long stamp = this.indexLock.readLock();
+        try {
+            final List<Product> page = new ArrayList<>((int) Math.max(0, Math.min(limit, this.count - offset)));
+            if (category == null && inventoryStatus == null) {
+                for (long i = offset; i < this.count && page.size() < limit; i++) {
+                    page.add(new ReplicaProduct(this, this.slots[(int) i]));
+                }
+                return page;
+            }
+            long skipped = 0;
+            for (int i = 0; i < this.count && page.size() < limit; i++) {
+                final int slot = this.slots[i];
+                final ByteBuffer chunk = recordChunk(slot);
+                final int base = recordOffset(slot);
+                if ((category == null || chunk.get(base + CATEGORY) == categoryOrdinal)
+                        && (inventoryStatus == null || chunk.get(base + STATUS) == statusOrdinal)) {
+                    if (skipped < offset) {
+                        skipped++;
+                    } else {
+                        page.add(new ReplicaProduct(this, slot));
+                    }
+                }
+            }
+            return page;
+        } finally {
+            this.indexLock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Gets views of all products, in id order.
+     *
+     * @return flyweight views of all products
+     */
+    public List<Product> getAll() {
+        return list(null, null, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Gets the number of products.
+     *
+     * @return the number of products in the replica
+     */
+    public int size() {
+        return this.count;
+    }
+
+    /**
+     * Gets the size of the mapped files, most of which is only reserved until it is written.
+     *
+     * @return the mapped bytes
+     */
+    public long getMappedBytes() {
+        return this.records.mappedBytes() + this.strings.mappedBytes();
+    }
+
+    /**
+     * Gets the number of bytes written to the string arena, including the replaced strings.
+     *
+     * @return the bytes used by strings
+     */
+    public long getStringBytes() {
+        return this.stringPosition;
+    }
+
+    /**
+     * Closes the replica files.
+     *
+     * @throws IOException if a file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        this.records.close();
+        this.strings.close();
+    }
+
+    long id(final int slot) {
+        return recordChunk(slot).getLong(recordOffset(slot) + ID);
+    }
+
+    Double price(final int slot) {
+        return isNull(slot, PRICE_NULL) ? null : recordChunk(slot).getDouble(recordOffset(slot) + PRICE);
+    }
+
+    Double rating(final int slot) {
+        return isNull(slot, RATING_NULL) ? null : recordChunk(slot).getDouble(recordOffset(slot) + RATING);
+    }
+
+    Integer quantity(final int slot) {
+        return isNull(slot, QUANTITY_NULL) ? null : recordChunk(slot).getInt(recordOffset(slot) + QUANTITY);
+    }
+
+    ProductInventoryStatus inventoryStatus(final int slot) {
+        final byte ordinal = recordChunk(slot).get(recordOffset(slot) + STATUS);
+        return ordinal < 0 ? null : STATUSES[ordinal];
+    }
+
+    ProductCategory category(final int slot) {
+        final byte ordinal = recordChunk(slot).get(recordOffset(slot) + CATEGORY);
+        return ordinal < 0 ? null : CATEGORIES[ordinal];
+    }
+
+    String string(final int slot, final int field) {
+        return readString(recordChunk(slot).getLong(recordOffset(slot) + field));
+    }
+
+    private boolean isNull(final int slot, final int flag) {
+        return (recordChunk(slot).get(recordOffset(slot) + NULLS) & flag) != 0;
+    }
+
+    private int find(final long id) {
+        // Read without lock: the bounds guard against arrays swapped by a concurrent write, whose result is discarded
+        final long[] currentIds = this.ids;
+        final int[] currentSlots = this.slots;
+        final int n = Math.min(this.count, Math.min(currentIds.length, currentSlots.length));
+        final int position = Arrays.binarySearch(currentIds, 0, n, id);
+        return position >= 0 ? currentSlots[position] : -1;
+    }
+
+    private void insert(final int position, final long id, final int slot, final long version) {
+        if (this.count == this.ids.length) {
+            this.slots = Arrays.copyOf(this.slots, this.count * 2);
+            this.ids = Arrays.copyOf(this.ids, this.count * 2);
+            this.versions = Arrays.copyOf(this.versions, this.count * 2);
+        }
+        System.arraycopy(this.ids, position, this.ids, position + 1, this.count - position);
+        System.arraycopy(this.slots, position, this.slots, position + 1, this.count - position);
+        System.arraycopy(this.versions, position, this.versions, position + 1, this.count - position);
+        this.ids[position] = id;
+        this.slots[position] = slot;
+        this.versions[position] = version;
+        this.count++;
+    }
+
+    private int allocateSlot(final long now) {
+        final int recycled = this.recycler.reuse(now, this.recycleGraceMillis);
+        if (recycled >= 0) {
+            return recycled;
+        }
+        final int slot = this.nextSlot++;
+        try {
+            this.records.ensureChunks((slot >>> this.chunkShift) + 1);
+        } catch (IOException ex) {
+            this.nextSlot--;
+            throw new IllegalStateException("Cannot grow the replica records", ex);
+        }
+        return slot;
+    }
+
+    private long string(final int previousSlot, final int field, final String value) {
+        if (previousSlot >= 0) {
+            final long previous = recordChunk(previousSlot).getLong(recordOffset(previousSlot) + field);
+            if (Objects.equals(readString(previous), value)) {
+                return previous;
+            }
+        }
+        return writeString(value);
+    }
+
+    private long writeString(final String value) {
+        if (value == null) {
+            return NULL_STRING;
+        }
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        final int chunkSize = this.strings.chunkSize();
+        if (bytes.length > Math.min(chunkSize, LENGTH_MASK)) {
+            throw new IllegalArgumentException("String of " + bytes.length + " bytes too large for the replica");
+        }
+        long position = this.stringPosition;
+        if (position % chunkSize + bytes.length > chunkSize) {
+            position = (position / chunkSize + 1) * chunkSize;
+        }
+        try {
+            this.strings.ensureChunks((int) (position / chunkSize) + 1);
+        } catch (IOException ex) {
+            throw new IllegalStateException("Cannot grow the replica strings", ex);
+        }
+        this.strings.chunk((int) (position / chunkSize)).put((int) (position % chunkSize), bytes);
+        this.stringPosition = position + bytes.length;
+        return position << LENGTH_BITS | bytes.length;
+    }
+
+    private String readString(final long reference) {
+        if (reference == NULL_STRING) {
+            return null;
+        }
+        final long position = reference >>> LENGTH_BITS;
+        final byte[] bytes = new byte[(int) (reference & LENGTH_MASK)];
+        final int chunkSize = this.strings.chunkSize();
+        this.strings.chunk((int) (position / chunkSize)).get((int) (position % chunkSize), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private ByteBuffer recordChunk(final int slot) {
+        return this.records.chunk(slot >>> this.chunkShift);
+    }
+
+    private int recordOffset(final int slot) {
+        return (slot & this.chunkMask) * RECORD_SIZE;
+    }
+
+    private static byte ordinal(final Enum<?> value) {
+        return value == null ? -1 : (byte) value.ordinal();
+    }
+}
@@ -0,0 +1,70 @@
+package fr.rayandfz.back.replica;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A file mapped in chunks of equal size, added as the file grows.
+ * <p>
+ * Only the writer maps new chunks; readers see the chunk array published through a volatile field.
+ * </p>
+ */
+final class MappedRegions implements Closeable {
+    private final FileChannel channel;
+    private final int chunkSize;
+    private volatile ByteBuffer[] chunks = new ByteBuffer[0];
+
+    /**
+     * Creates the file, truncating any previous content.
+     */
+    MappedRegions(final Path file, final int chunkSize) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.chunkSize = chunkSize;
+    }
+
+    ByteBuffer chunk(final int index) {
+        return this.chunks[index];
+    }
+
+    int chunkCount() {
+        return this.chunks.length;
+    }
+
+    int chunkSize() {
+        return this.chunkSize;
+    }
+
+    /**
+     * Maps chunks until at least {@code count} are mapped.
+     */
+    void ensureChunks(final int count) throws IOException {
+        ByteBuffer[] current = this.chunks;
+        while (current.length < count) {
+            final ByteBuffer chunk = this.channel.map(FileChannel.MapMode.READ_WRITE, (long) current.length * this.chunkSize, this.chunkSize)
+                    .order(ByteOrder.nativeOrder());
+            current = Arrays.copyOf(current, current.length + 1);
+            current[current.length - 1] = chunk;
+            this.chunks = current;
+        }
+    }
+
+    long mappedBytes() {
+        return (long) this.chunks.length * this.chunkSize;
+    }
+
+    /**
+     * Closes the file. The mappings themselves are released by the garbage collector, as the JDK offers no way
+     * to unmap a file explicitly.
+     */
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+}
@@ -0,0 +1,31 @@
+package fr.rayandfz.back.replica;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Spring configuration for the off-heap read replica, active when {@code catalog.replica.enabled=true}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "catalog.replica", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(ReplicaProperties.class)
+public class ReplicaConfiguration {
+
+    /**
+     * Creates an empty replica described by the replica properties.
+     *
+     * @param properties the replica properties
+     * @return the replica, to be loaded by the product service
+     * @throws IOException if the replica files cannot be created
+     */
+    @Bean(destroyMethod = "close")
+    public CatalogReplica catalogReplica(final ReplicaProperties properties) throws IOException {
+        return CatalogReplica.create(Path.of(properties.getDirectory()), properties.getChunkRecords(),
+                properties.getStringChunkSize(), properties.getRecycleGraceMillis());
+    }
+}
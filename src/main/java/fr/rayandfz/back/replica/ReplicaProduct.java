@@ -0,0 +1,127 @@
+package fr.rayandfz.back.replica;
+
+import fr.rayandfz.back.model.Product;
+import fr.rayandfz.back.model.ProductCategory;
+import fr.rayandfz.back.model.ProductInventoryStatus;
+
+/**
+ * Read-only flyweight view of a product record of a {@link CatalogReplica}.
+ * <p>
+ * The view only holds the slot of the record: every getter decodes its field from the mapped files, and
+ * the fields inherited from {@link Product} stay empty. Setters throw, as the replica is only changed
+ * through the write path.
+ * </p>
+ */
+final class ReplicaProduct extends Product {
+    private final CatalogReplica replica;
+    private final int slot;
+
+    ReplicaProduct(final CatalogReplica replica, final int slot) {
+        this.replica = replica;
+        this.slot = slot;
+    }
+
+    @Override
+    public Long getId() {
+        return this.replica.id(this.slot);
+    }
+
+    @Override
+    public String getCode() {
+        return this.replica.string(this.slot, CatalogReplica.CODE);
+    }
+
+    @Override
+    public String getName() {
+        return this.replica.string(this.slot, CatalogReplica.NAME);
+    }
+
+    @Override
+    public String getDescription() {
+        return this.replica.string(this.slot, CatalogReplica.DESCRIPTION);
+    }
+
+    @Override
+    public Double getPrice() {
+        return this.replica.price(this.slot);
+    }
+
+    @Override
+    public Integer getQuantity() {
+        return this.replica.quantity(this.slot);
+    }
+
+    @Override
+    public ProductInventoryStatus getInventoryStatus() {
+        return this.replica.inventoryStatus(this.slot);
+    }
+
+    @Override
+    public ProductCategory getCategory() {
+        return this.replica.category(this.slot);
+    }
+
+    @Override
+    public String getImage() {
+        return this.replica.string(this.slot, CatalogReplica.IMAGE);
+    }
+
+    @Override
+    public Double getRating() {
+        return this.replica.rating(this.slot);
+    }
+
+    @Override
+    public void setId(final Long id) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setCode(final String code) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setName(final String name) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setDescription(final String description) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setPrice(final Double price) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setQuantity(final Integer quantity) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setInventoryStatus(final ProductInventoryStatus inventoryStatus) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setCategory(final ProductCategory category) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setImage(final String image) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setRating(final Double rating) {
+        throw readOnly();
+    }
+
+    private static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("Products of the read replica are read-only, update them through the product service");
+    }
+}
@@ -0,0 +1,114 @@
+package fr.rayandfz.back.replica;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for the off-heap read replica, bound from the {@code catalog.replica} prefix.
+ * <p>
+ * When {@code catalog.replica.enabled} is {@code true}, reads by id and list reads are served from
+ * memory-mapped files in {@link #getDirectory()}, rebuilt from the database at startup.
+ * </p>
+ */
+@ConfigurationProperties(prefix = "catalog.replica")
+public class ReplicaProperties {
+    private boolean enabled = false;
+
+    private String directory = "./data/replica";
+
+    private int chunkRecords = 65_536;
+
+    private int stringChunkSize = 16 * 1024 * 1024;
+
+    private long recycleGraceMillis = 60_000;
+
+    /**
+     * Whether reads are served from the replica.
+     *
+     * @return {@code true} if the replica is enabled
+     */
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    /**
+     * Enables or disables the replica.
+     *
+     * @param enabled the new enabled flag
+     */
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Gets the directory holding the replica files.
+     *
+     * @return the replica directory
+     */
+    public String getDirectory() {
+        return this.directory;
+    }
+
+    /**
+     * Sets the directory holding the replica files.
+     *
+     * @param directory the new replica directory
+     */
+    public void setDirectory(final String directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Gets the number of product records mapped at once, a power of two.
+     *
+     * @return the number of records per chunk
+     */
+    public int getChunkRecords() {
+        return this.chunkRecords;
+    }
+
+    /**
+     * Sets the number of product records mapped at once, a power of two.
+     *
+     * @param chunkRecords the new number of records per chunk
+     */
+    public void setChunkRecords(final int chunkRecords) {
+        this.chunkRecords = chunkRecords;
+    }
+
+    /**
+     * Gets the size of a chunk of the string arena, in bytes, which is also the maximum size of a string.
+     *
+     * @return the string chunk size
+     */
+    public int getStringChunkSize() {
+        return this.stringChunkSize;
+    }
+
+    /**
+     * Sets the size of a chunk of the string arena, in bytes.
+     *
+     * @param stringChunkSize the new string chunk size
+     */
+    public void setStringChunkSize(final int stringChunkSize) {
+        this.stringChunkSize = stringChunkSize;
+    }
+
+    /**
+     * Gets the time a replaced record is kept before its slot is reused, which must exceed the time a request
+     * may hold a view on it.
+     *
+     * @return the recycle grace period, in milliseconds
+     */
+    public long getRecycleGraceMillis() {
+        return this.recycleGraceMillis;
+    }
+
+    /**
+     * Sets the time a replaced record is kept before its slot is reused.
+     *
+     * @param recycleGraceMillis the new recycle grace period, in milliseconds
+     */
+    public void setRecycleGraceMillis(final long recycleGraceMillis) {
+        this.recycleGraceMillis = recycleGraceMillis;
+    }
+}
@@ -0,0 +1,49 @@
+package fr.rayandfz.back.replica;
+
+/**
+ * FIFO of the record slots released by updates and deletions, each reusable once a grace period has elapsed
+ * since its release, so that views handed out before the release never see the slot overwritten.
+ */
+final class SlotRecycler {
+    private int[] slots = new int[64];
+    private long[] releasedAt = new long[64];
+    private int head;
+    private int size;
+
+    void release(final int slot, final long now) {
+        if (this.size == this.slots.length) {
+            final int[] newSlots = new int[this.size * 2];
+            final long[] newReleasedAt = new long[this.size * 2];
+            for (int i = 0; i < this.size; i++) {
+                newSlots[i] = this.slots[(this.head + i) % this.slots.length];
+                newReleasedAt[i] = this.releasedAt[(this.head + i) % this.slots.length];
+            }
+            this.slots = newSlots;
+            this.releasedAt = newReleasedAt;
+            this.head = 0;
+        }
+        final int tail = (this.head + this.size) % this.slots.length;
+        this.slots[tail] = slot;
+        this.releasedAt[tail] = now;
+        this.size++;
+    }
+
+    /**
+     * Takes the oldest released slot if its grace period has elapsed.
+     *
+     * @return the slot, or -1 if none can be reused yet
+     */
+    int reuse(final long now, final long graceMillis) {
+        if (this.size == 0 || this.releasedAt[this.head] + graceMillis > now) {
+            return -1;
+        }
+        final int slot = this.slots[this.head];
+        this.head = (this.head + 1) % this.slots.length;
+        this.size--;
+        return slot;
+    }
+
+    int size() {
+        return this.size;
+    }
+}
@@ -0,0 +1,10 @@
+package fr.rayandfz.back.repository;
+
+import fr.rayandfz.back.model.CatalogInfo;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * CatalogInfoRepository stores the row identifying the catalog, see {@link CatalogInfo}.
+ */
+public interface ICatalogInfoRepository extends JpaRepository<CatalogInfo, String> {
+}
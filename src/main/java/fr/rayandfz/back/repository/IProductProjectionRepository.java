@@ -0,0 +1,32 @@
+package fr.rayandfz.back.repository;
+
+import fr.rayandfz.back.model.ProductCategory;
+import fr.rayandfz.back.model.ProductField;
+import fr.rayandfz.back.model.ProductInventoryStatus;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Repository fragment reading only a subset of the product columns.
+ *
+ * The selected fields are turned into a JPA tuple query, so unselected columns are never read
+ * from the database nor hydrated into entities.
+ */
+public interface IProductProjectionRepository {
+
+    /**
+     * Finds products ordered by id, reading only the given fields.
+     *
+     * @param fields          the fields to read
+     * @param id              the id to filter on, or {@code null} for any id
+     * @param category        the category to filter on, or {@code null} for any category
+     * @param inventoryStatus the inventory status to filter on, or {@code null} for any status
+     * @param firstResult     the index of the first product to return
+     * @param maxResults      the maximum number of products to return, or a negative value for no limit
+     * @return one map per product, from property name to value, in the declaration order of the fields
+     */
+    List<Map<String, Object>> findViews(final Set<ProductField> fields, final Long id, final ProductCategory category,
+                                        final ProductInventoryStatus inventoryStatus, final int firstResult, final int maxResults);
+}
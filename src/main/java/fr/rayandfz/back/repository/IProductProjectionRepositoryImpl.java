@@ -0,0 +1,79 @@
+package fr.rayandfz.back.repository;
+
+import fr.rayandfz.back.model.Product;
+import fr.rayandfz.back.model.ProductCategory;
+import fr.rayandfz.back.model.ProductField;
+import fr.rayandfz.back.model.ProductInventoryStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Criteria API implementation of {@link IProductProjectionRepository}, picked up by Spring Data
+ * as a fragment of {@link IProductRepository}.
+ */
+class IProductProjectionRepositoryImpl implements IProductProjectionRepository {
+    private final EntityManager entityManager;
+
+    IProductProjectionRepositoryImpl(final EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Map<String, Object>> findViews(final Set<ProductField> fields, final Long id, final ProductCategory category,
+                                               final ProductInventoryStatus inventoryStatus, final int firstResult, final int maxResults) {
+        final CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        final CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        final Root<Product> product = query.from(Product.class);
+
+        final List<Selection<?>> selections = new ArrayList<>(fields.size());
+        for (final ProductField field : fields) {
+            selections.add(product.get(field.property()));
+        }
+        query.multiselect(selections);
+
+        final List<Predicate> predicates = new ArrayList<>(3);
+        if (id != null) {
+            predicates.add(cb.equal(product.get("id"), id));
+        }
+        if (category != null) {
+            predicates.add(cb.equal(product.get("category"), category));
+        }
+        if (inventoryStatus != null) {
+            predicates.add(cb.equal(product.get("inventoryStatus"), inventoryStatus));
+        }
+        query.where(predicates.toArray(new Predicate[0]));
+        query.orderBy(cb.asc(product.get("id")));
+
+        final TypedQuery<Tuple> typedQuery = entityManager.createQuery(query).setFirstResult(firstResult);
+        if (maxResults >= 0) {
+            typedQuery.setMaxResults(maxResults);
+        }
+
+        final List<Tuple> rows = typedQuery.getResultList();
+        final List<Map<String, Object>> views = new ArrayList<>(rows.size());
+        for (final Tuple row : rows) {
+            final Map<String, Object> view = new LinkedHashMap<>();
+            int column = 0;
+            for (final ProductField field : fields) {
+                view.put(field.property(), row.get(column++));
+            }
+            views.add(view);
+        }
+        return views;
+    }
+}
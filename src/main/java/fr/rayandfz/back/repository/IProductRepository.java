@@ -2,11 +2,40 @@ package fr.rayandfz.back.repository;
 
 import fr.rayandfz.back.model.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
 
 /**
  * ProductRepository provides the mechanism for storage, retrieval, update,
  * delete and search operation on Product entities.
  *
- * Inherits standard CRUD operations from JpaRepository.
+ * Inherits standard CRUD operations from JpaRepository, and column projections
+ * from IProductProjectionRepository.
  */
-public interface IProductRepository extends JpaRepository<Product, Long> {}
\ No newline at end of file
+public interface IProductRepository extends JpaRepository<Product, Long>, IProductProjectionRepository {
+
+    /**
+     * Lists the code and id of every product, without hydrating the entities.
+     *
+     * @return one {@code [code, id]} pair per product
+     */
+    @Query("select p.code, p.id from Product p")
+    List<Object[]> findAllCodesAndIds();
+
+    /**
+     * Deletes a product if it is still at the given version. The persistence context is cleared afterwards,
+     * so that the product is read again from the database.
+     *
+     * @param id      the product id
+     * @param version the version of the product to delete
+     * @return 1 if the product was deleted, 0 if it was changed or deleted since that version was read
+     */
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("delete from Product p where p.id = :id and p.version = :version")
+    int deleteByIdAndVersion(@Param("id") Long id, @Param("version") Long version);
+}
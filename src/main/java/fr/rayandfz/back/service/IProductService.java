@@ -1,8 +1,15 @@
 package fr.rayandfz.back.service;
 
 import fr.rayandfz.back.model.Product;
+import fr.rayandfz.back.model.ProductBatch;
+import fr.rayandfz.back.model.ProductCategory;
+import fr.rayandfz.back.model.ProductField;
+import fr.rayandfz.back.model.ProductInventoryStatus;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Interface for product-related operations.
@@ -17,6 +24,7 @@ public interface IProductService {
      *
      * @param product The product to be created.
      * @return The created product, including its generated ID.
+     * @throws fr.rayandfz.back.error.DuplicateProductCodeException If another product already has the same code.
      */
     Product createProduct(final Product product);
 
@@ -27,22 +35,91 @@ public interface IProductService {
      */
     Collection<Product> getAllProducts();
 
+    /**
+     * Retrieves one page of products, ordered by ID, optionally filtered by category and inventory status.
+     *
+     * @param category The category to filter on, or {@code null} for any category.
+     * @param inventoryStatus The inventory status to filter on, or {@code null} for any status.
+     * @param page The zero-based page index.
+     * @param size The maximum number of products in the page.
+     * @return The products of the requested page.
+     */
+    Collection<Product> getProducts(final ProductCategory category, final ProductInventoryStatus inventoryStatus,
+                                    final int page, final int size);
+
+    /**
+     * Retrieves all products, reading only the given fields.
+     *
+     * @param fields The fields to read.
+     * @return One map per product, from property name to value.
+     */
+    Collection<Map<String, Object>> getAllProductViews(final Set<ProductField> fields);
+
+    /**
+     * Retrieves one page of products like {@link #getProducts}, reading only the given fields.
+     *
+     * @param fields The fields to read.
+     * @param category The category to filter on, or {@code null} for any category.
+     * @param inventoryStatus The inventory status to filter on, or {@code null} for any status.
+     * @param page The zero-based page index.
+     * @param size The maximum number of products in the page.
+     * @return One map per product of the requested page, from property name to value.
+     */
+    Collection<Map<String, Object>> getProductViews(final Set<ProductField> fields, final ProductCategory category,
+                                                    final ProductInventoryStatus inventoryStatus, final int page, final int size);
+
+    /**
+     * Retrieves a single product by its ID, reading only the given fields.
+     *
+     * @param id The ID of the product to retrieve.
+     * @param fields The fields to read.
+     * @return A map from property name to value.
+     * @throws fr.rayandfz.back.error.ProductNotFoundException If no product is found with the given ID.
+     */
+    Map<String, Object> getProductViewById(final Long id, final Set<ProductField> fields);
+
     /**
      * Retrieves a single product by its ID.
      *
      * @param id The ID of the product to retrieve.
      * @return The requested product.
-     * @throws RuntimeException If no product is found with the given ID.
+     * @throws fr.rayandfz.back.error.ProductNotFoundException If no product is found with the given ID.
      */
     Product getProductById(final Long id);
 
+    /**
+     * Retrieves the products having the given IDs in one call.
+     *
+     * @param ids The IDs of the products to retrieve.
+     * @return The products found, in the order of the requested IDs, along with the IDs that were not found.
+     */
+    ProductBatch getProductsByIds(final List<Long> ids);
+
+    /**
+     * Retrieves a single product by its code.
+     *
+     * @param code The code of the product to retrieve.
+     * @return The requested product.
+     * @throws fr.rayandfz.back.error.ProductNotFoundException If no product is found with the given code.
+     */
+    Product getProductByCode(final String code);
+
+    /**
+     * Retrieves the products having the given codes in one call.
+     *
+     * @param codes The codes of the products to retrieve.
+     * @return The products found, in the order of the requested codes. Unknown codes are skipped.
+     */
+    List<Product> getProductsByCodes(final List<String> codes);
+
     /**
      * Updates an existing product's details.
      *
      * @param id The ID of the product to update.
      * @param productDetails A product object containing the updated details.
      * @return The updated product.
-     * @throws RuntimeException If no product is found with the given ID.
+     * @throws fr.rayandfz.back.error.ProductNotFoundException If no product is found with the given ID.
+     * @throws fr.rayandfz.back.error.DuplicateProductCodeException If the new code is already used by another product.
      */
     Product updateProduct(final Long id, final Product productDetails);
 
@@ -50,7 +127,16 @@ public interface IProductService {
      * Deletes a product by its ID.
      *
      * @param id The ID of the product to delete.
-     * @throws RuntimeException If no product is found with the given ID.
+     * @throws fr.rayandfz.back.error.ProductNotFoundException If no product is found with the given ID.
      */
     void deleteProduct(final Long id);
+
+    /**
+     * Gets the identifier of the catalog, which changes whenever the catalog starts over empty, such as on every
+     * start with an in-memory database. Product ids are only unique within one catalog, so data kept outside of
+     * it and keyed by product id must be tied to this identifier.
+     *
+     * @return The identifier of the catalog.
+     */
+    String getCatalogId();
 }
@@ -0,0 +1,141 @@
+package fr.rayandfz.back.service;
+
+import fr.rayandfz.back.model.Product;
+import fr.rayandfz.back.model.ProductFieldChange;
+
+import java.util.List;
+
+/**
+ * Application event published by the product services once a product has been created, updated or deleted.
+ * <p>
+ * Listeners run synchronously on the thread of the request that made the change, so they must hand any
+ * costly work over to another thread. The products carried by the event must not be modified.
+ * </p>
+ */
+public final class ProductChangedEvent {
+    /**
+     * The kind of change.
+     */
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    private final Product previous;
+    private final Product current;
+    private final long timestamp;
+    private final List<ProductFieldChange> changes;
+
+    /**
+     * Constructs an event, timestamped with the current time.
+     *
+     * @param previous the product before the change, or null for a creation
+     * @param current  the product after the change, or null for a deletion
+     */
+    public ProductChangedEvent(final Product previous, final Product current) {
+        this(previous, current, System.currentTimeMillis());
+    }
+
+    /**
+     * Constructs an event with the given timestamp.
+     *
+     * @param previous  the product before the change, or null for a creation
+     * @param current   the product after the change, or null for a deletion
+     * @param timestamp the time of the change, in milliseconds since the epoch
+     */
+    public ProductChangedEvent(final Product previous, final Product current, final long timestamp) {
+        this(previous, current, timestamp, null);
+    }
+
+    /**
+     * Constructs an event, timestamped with the current time, with the changed fields found while applying
+     * the change.
+     *
+     * @param previous the product before the change, or null for a creation
+     * @param current  the product after the change, or null for a deletion
+     * @param changes  the changed fields
+     */
+    public ProductChangedEvent(final Product previous, final Product current, final List<ProductFieldChange> changes) {
+        this(previous, current, System.currentTimeMillis(), changes);
+    }
+
+    private ProductChangedEvent(final Product previous, final Product current, final long timestamp,
+                                final List<ProductFieldChange> changes) {
+        if (previous == null && current == null) {
+            throw new IllegalArgumentException("A change needs a previous or a current product");
+        }
+        this.previous = previous;
+        this.current = current;
+        this.timestamp = timestamp;
+        this.changes = changes;
+    }
+
+    /**
+     * Gets the kind of change.
+     *
+     * @return the type of the change
+     */
+    public Type getType() {
+        if (this.previous == null) {
+            return Type.CREATED;
+        }
+        return this.current == null ? Type.DELETED : Type.UPDATED;
+    }
+
+    /**
+     * Gets the id of the changed product.
+     *
+     * @return the product id
+     */
+    public Long getId() {
+        return this.current != null ? this.current.getId() : this.previous.getId();
+    }
+
+    /**
+     * Gets the version of the product the change produced, or for a deletion the version that was deleted.
+     * Changes of a product may be delivered out of order; a higher version is a later change.
+     *
+     * @return the product version, or null if the product has none
+     */
+    public Long getVersion() {
+        return this.current != null ? this.current.getVersion() : this.previous.getVersion();
+    }
+
+    /**
+     * Gets the product before the change.
+     *
+     * @return the previous state, or null for a creation
+     */
+    public Product getPrevious() {
+        return this.previous;
+    }
+
+    /**
+     * Gets the product after the change.
+     *
+     * @return the current state, or null for a deletion
+     */
+    public Product getCurrent() {
+        return this.current;
+    }
+
+    /**
+     * Gets the time of the change.
+     *
+     * @return the timestamp, in milliseconds since the epoch
+     */
+    public long getTimestamp() {
+        return this.timestamp;
+    }
+
+    /**
+     * Gets the changed fields, as found while applying the change or, when the publisher did not give them,
+     * by comparing the previous and current products.
+     *
+     * @return the changed fields, with their values before and after the change
+     */
+    public List<ProductFieldChange> getChanges() {
+        return this.changes != null ? this.changes : ProductFieldChange.diff(this.previous, this.current);
+    }
+}
@@ -0,0 +1,61 @@
+package fr.rayandfz.back.service;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory mapping from product code to product ID.
+ * <p>
+ * Lookups by code cost a single hash probe, after which the product is read through the normal ID path.
+ * The index also acts as the first line of defence against duplicate codes: {@link #reserve(String, long)}
+ * atomically claims a code for an ID.
+ * </p>
+ */
+public final class ProductCodeIndex {
+    private final ConcurrentHashMap<String, Long> idsByCode = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the ID of the product having the given code.
+     *
+     * @param code the product code
+     * @return the product ID, or {@code null} if no product has this code
+     */
+    public Long idFor(final String code) {
+        return code == null ? null : idsByCode.get(code);
+    }
+
+    /**
+     * Atomically claims a code for a product ID.
+     *
+     * @param code the product code
+     * @param id   the product ID
+     * @return {@code true} if the code was free or already belonged to this ID, {@code false} if another product owns it
+     */
+    public boolean reserve(final String code, final long id) {
+        if (code == null) {
+            return true;
+        }
+        final Long owner = idsByCode.putIfAbsent(code, id);
+        return owner == null || owner == id;
+    }
+
+    /**
+     * Releases a code, but only if it still belongs to the given product ID.
+     *
+     * @param code the product code
+     * @param id   the product ID
+     */
+    public void release(final String code, final long id) {
+        if (code != null) {
+            idsByCode.remove(code, id);
+        }
+    }
+
+    /**
+     * Gets the number of indexed codes.
+     *
+     * @return the number of indexed codes
+     */
+    public int size() {
+        return idsByCode.size();
+    }
+}
@@ -1,12 +1,39 @@
 package fr.rayandfz.back.service;
 
+import fr.rayandfz.back.error.ConcurrentUpdateException;
+import fr.rayandfz.back.error.DuplicateProductCodeException;
+import fr.rayandfz.back.error.ProductNotFoundException;
+import fr.rayandfz.back.model.CatalogInfo;
 import fr.rayandfz.back.model.Product;
+import fr.rayandfz.back.model.ProductBatch;
+import fr.rayandfz.back.model.ProductCategory;
+import fr.rayandfz.back.model.ProductField;
+import fr.rayandfz.back.model.ProductFieldChange;
+import fr.rayandfz.back.model.ProductInventoryStatus;
+import fr.rayandfz.back.repository.ICatalogInfoRepository;
 import fr.rayandfz.back.repository.IProductRepository;
 import fr.rayandfz.back.utils.Utils;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
 
 
 /**
@@ -15,19 +42,53 @@ import java.util.Collection;
  * This class provides service-layer functionalities for handling
  * CRUD operations related to products. It uses the {@link IProductRepository}
  * for database interactions.
+ *
+ * Lookups by code go through an in-memory {@link ProductCodeIndex}, while uniqueness of codes
+ * is enforced by the unique constraint on the {@code code} column.
+ *
+ * Every successful write publishes a {@link ProductChangedEvent}. Updates and deletions are checked against the
+ * version of the product, and applied again to its new state when another write got there first.
+ *
+ * This is the default implementation, used unless the sharded catalog is enabled
+ * with {@code catalog.sharding.enabled=true}.
  */
 @Service
+@ConditionalOnProperty(prefix = "catalog.sharding", name = "enabled", havingValue = "false", matchIfMissing = true)
 public class ProductService implements IProductService {
+    // Number of ids per IN query, so that large batches do not produce unbounded statements
+    static final int BATCH_CHUNK_SIZE = 100;
+    // Attempts of an update or deletion racing with other writes to the same product
+    static final int MAX_WRITE_ATTEMPTS = 10;
+
     private final IProductRepository productRepository;
+    private final ICatalogInfoRepository catalogInfoRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductCodeIndex codeIndex = new ProductCodeIndex();
+    private String catalogId;
 
     /**
      * Constructs a ProductService with the necessary repository.
      *
-     * @param productRepository The repository used for product data operations.
+     * @param productRepository     The repository used for product data operations.
+     * @param catalogInfoRepository The repository holding the identifier of the catalog.
+     * @param eventPublisher        The publisher of the {@link ProductChangedEvent}s.
      */
     @Autowired
-    public ProductService(final IProductRepository productRepository) {
+    public ProductService(final IProductRepository productRepository, final ICatalogInfoRepository catalogInfoRepository,
+                          final ApplicationEventPublisher eventPublisher) {
         this.productRepository = productRepository;
+        this.catalogInfoRepository = catalogInfoRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Loads the code index from the codes already stored in the database.
+     */
+    @PostConstruct
+    void loadCodeIndex() {
+        for (final Object[] codeAndId : productRepository.findAllCodesAndIds()) {
+            codeIndex.reserve((String) codeAndId[0], (Long) codeAndId[1]);
+        }
     }
 
     /**
@@ -35,7 +96,15 @@ public class ProductService implements IProductService {
      */
     @Override
     public Product createProduct(final Product product) {
-        return productRepository.save(product);
+        if (codeIndex.idFor(product.getCode()) != null) {
+            throw new DuplicateProductCodeException(product.getCode());
+        }
+        final Product created = save(product);
+        if (created.getId() != null) {
+            codeIndex.reserve(created.getCode(), created.getId());
+        }
+        eventPublisher.publishEvent(new ProductChangedEvent(null, created));
+        return created;
     }
 
     /**
@@ -46,13 +115,117 @@ public class ProductService implements IProductService {
         return productRepository.findAll();
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Collection<Product> getProducts(final ProductCategory category, final ProductInventoryStatus inventoryStatus,
+                                           final int page, final int size) {
+        if (isBeyondAddressableRows(page, size)) {
+            return List.of();
+        }
+        final Product probe = new Product();
+        probe.setCategory(category);
+        probe.setInventoryStatus(inventoryStatus);
+        return productRepository.findAll(Example.of(probe), PageRequest.of(page, size, Sort.by("id"))).getContent();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Collection<Map<String, Object>> getAllProductViews(final Set<ProductField> fields) {
+        return productRepository.findViews(fields, null, null, null, 0, -1);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Collection<Map<String, Object>> getProductViews(final Set<ProductField> fields, final ProductCategory category,
+                                                           final ProductInventoryStatus inventoryStatus, final int page, final int size) {
+        if (isBeyondAddressableRows(page, size)) {
+            return List.of();
+        }
+        return productRepository.findViews(fields, null, category, inventoryStatus, page * size, size);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, Object> getProductViewById(final Long id, final Set<ProductField> fields) {
+        final List<Map<String, Object>> views = productRepository.findViews(fields, id, null, null, 0, 1);
+        if (views.isEmpty()) {
+            throw ProductNotFoundException.forId(id);
+        }
+        return views.get(0);
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public Product getProductById(final Long id) {
         return productRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Product not found with id " + id));
+                .orElseThrow(() -> ProductNotFoundException.forId(id));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Product getProductByCode(final String code) {
+        final Long id = codeIndex.idFor(code);
+        if (id == null) {
+            throw ProductNotFoundException.forCode(code);
+        }
+        return getProductById(id);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Product> getProductsByCodes(final List<String> codes) {
+        final List<Long> ids = new ArrayList<>(codes.size());
+        for (final String code : new LinkedHashSet<>(codes)) {
+            final Long id = codeIndex.idFor(code);
+            if (id != null) {
+                ids.add(id);
+            }
+        }
+        return getProductsByIds(ids).getProducts();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * IDs are looked up with one {@code IN} query per chunk of {@value #BATCH_CHUNK_SIZE} IDs.
+     * </p>
+     */
+    @Override
+    public ProductBatch getProductsByIds(final List<Long> ids) {
+        final List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        final Map<Long, Product> productsById = new HashMap<>(distinctIds.size() * 2);
+        for (int from = 0; from < distinctIds.size(); from += BATCH_CHUNK_SIZE) {
+            final List<Long> chunk = distinctIds.subList(from, Math.min(from + BATCH_CHUNK_SIZE, distinctIds.size()));
+            for (final Product product : productRepository.findAllById(chunk)) {
+                productsById.put(product.getId(), product);
+            }
+        }
+
+        final List<Product> products = new ArrayList<>(productsById.size());
+        final List<Long> missingIds = new ArrayList<>();
+        for (final Long id : distinctIds) {
+            final Product product = productsById.get(id);
+            if (product != null) {
+                products.add(product);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return new ProductBatch(products, missingIds);
     }
 
     /**
@@ -60,9 +233,15 @@ public class ProductService implements IProductService {
      */
     @Override
     public Product updateProduct(final Long id, final Product productDetails) {
-        Product existingProduct = getProductById(id);
-        Utils.copyNonNullProperties(productDetails, existingProduct);
-        return productRepository.save(existingProduct);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return applyUpdate(id, productDetails);
+            } catch (OptimisticLockingFailureException ex) {
+                if (attempt == MAX_WRITE_ATTEMPTS) {
+                    throw new ConcurrentUpdateException(id);
+                }
+            }
+        }
     }
 
     /**
@@ -70,7 +249,77 @@ public class ProductService implements IProductService {
      */
     @Override
     public void deleteProduct(final Long id) {
-        Product product = getProductById(id);
-        productRepository.delete(product);
+        for (int attempt = 1; attempt <= MAX_WRITE_ATTEMPTS; attempt++) {
+            // Only the delete that removed the row publishes it: a concurrent one finds it gone and fails with a 404
+            final Product product = getProductById(id);
+            if (productRepository.deleteByIdAndVersion(id, product.getVersion()) == 1) {
+                codeIndex.release(product.getCode(), id);
+                eventPublisher.publishEvent(new ProductChangedEvent(product, null));
+                return;
+            }
+        }
+        throw new ConcurrentUpdateException(id);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The identifier is stored in the database, and created with the first call on an empty catalog.
+     * </p>
+     */
+    @Override
+    public synchronized String getCatalogId() {
+        if (catalogId == null) {
+            catalogId = catalogInfoRepository.findAll().stream().findFirst()
+                    .orElseGet(() -> catalogInfoRepository.save(new CatalogInfo(UUID.randomUUID().toString())))
+                    .getId();
+        }
+        return catalogId;
+    }
+
+    // Applies the update to the current version of the product, failing if another write stored a newer one first
+    private Product applyUpdate(final Long id, final Product productDetails) {
+        Product existingProduct = getProductById(id);
+        final Product previous = new Product(existingProduct);
+        final String previousCode = existingProduct.getCode();
+        final List<ProductFieldChange> changes = new ArrayList<>();
+        Utils.copyNonNullProperties(productDetails, existingProduct, change -> changes.add(
+                ProductFieldChange.of(change.getPropertyName(), change.getOldValue(), change.getNewValue())));
+        // The id designates the row being updated, so it cannot be changed by an update
+        existingProduct.setId(id);
+        changes.removeIf(change -> ProductField.ID.property().equals(change.getField()));
+        final String newCode = existingProduct.getCode();
+        final boolean codeChanged = !Objects.equals(previousCode, newCode);
+        if (codeChanged) {
+            final Long owner = codeIndex.idFor(newCode);
+            if (owner != null && !owner.equals(id)) {
+                throw new DuplicateProductCodeException(newCode);
+            }
+        }
+        final Product updatedProduct = save(existingProduct);
+        if (codeChanged) {
+            codeIndex.release(previousCode, id);
+            codeIndex.reserve(newCode, id);
+        }
+        eventPublisher.publishEvent(new ProductChangedEvent(previous, updatedProduct, changes));
+        return updatedProduct;
+    }
+
+    // The code index is only a fast path: concurrent writers are arbitrated by the unique constraint
+    private Product save(final Product product) {
+        try {
+            return productRepository.save(product);
+        } catch (DataIntegrityViolationException ex) {
+            final String cause = String.valueOf(ex.getMostSpecificCause().getMessage()).toLowerCase(Locale.ROOT);
+            if (cause.contains(Product.CODE_CONSTRAINT)) {
+                throw new DuplicateProductCodeException(product.getCode());
+            }
+            throw ex;
+        }
+    }
+
+    // JPA takes the first row as an int: a page starting further than that lies past the end of any catalog
+    private static boolean isBeyondAddressableRows(final int page, final int size) {
+        return (long) page * size > Integer.MAX_VALUE;
     }
 }
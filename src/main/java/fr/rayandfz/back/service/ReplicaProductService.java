@@ -0,0 +1,170 @@
+package fr.rayandfz.back.service;
+
+import fr.rayandfz.back.error.ProductNotFoundException;
+import fr.rayandfz.back.model.Product;
+import fr.rayandfz.back.model.ProductBatch;
+import fr.rayandfz.back.model.ProductCategory;
+import fr.rayandfz.back.model.ProductField;
+import fr.rayandfz.back.model.ProductInventoryStatus;
+import fr.rayandfz.back.replica.CatalogReplica;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Product service serving full-entity reads from the off-heap {@link CatalogReplica}.
+ *
+ * Writes, sparse fieldsets and lookups by code go to the underlying product service, whether backed by
+ * JPA or sharded, whose {@link ProductChangedEvent}s keep the replica up to date. The replica is loaded from
+ * the underlying service at startup.
+ *
+ * Products returned by this service are read-only views of the replica.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(prefix = "catalog.replica", name = "enabled", havingValue = "true")
+public class ReplicaProductService implements IProductService {
+    private final IProductService delegate;
+    private final CatalogReplica replica;
+
+    /**
+     * Constructs a ReplicaProductService and loads the replica.
+     *
+     * @param delegate The product service owning the catalog, which handles the writes.
+     * @param replica  The replica serving the reads.
+     */
+    @Autowired
+    public ReplicaProductService(final IProductService delegate, final CatalogReplica replica) {
+        this.delegate = delegate;
+        this.replica = replica;
+        replica.load(delegate.getAllProducts());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Product createProduct(final Product product) {
+        return delegate.createProduct(product);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Collection<Product> getAllProducts() {
+        return replica.getAll();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Collection<Product> getProducts(final ProductCategory category, final ProductInventoryStatus inventoryStatus,
+                                           final int page, final int size) {
+        return replica.list(category, inventoryStatus, (long) page * size, size);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Collection<Map<String, Object>> getAllProductViews(final Set<ProductField> fields) {
+        return delegate.getAllProductViews(fields);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Collection<Map<String, Object>> getProductViews(final Set<ProductField> fields, final ProductCategory category,
+                                                           final ProductInventoryStatus inventoryStatus, final int page, final int size) {
+        return delegate.getProductViews(fields, category, inventoryStatus, page, size);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, Object> getProductViewById(final Long id, final Set<ProductField> fields) {
+        return delegate.getProductViewById(id, fields);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Product getProductById(final Long id) {
+        final Product product = replica.get(id);
+        if (product == null) {
+            throw ProductNotFoundException.forId(id);
+        }
+        return product;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ProductBatch getProductsByIds(final List<Long> ids) {
+        final List<Product> products = new ArrayList<>(ids.size());
+        final List<Long> missingIds = new ArrayList<>();
+        for (final Long id : new LinkedHashSet<>(ids)) {
+            final Product product = replica.get(id);
+            if (product != null) {
+                products.add(product);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return new ProductBatch(products, missingIds);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Product getProductByCode(final String code) {
+        return delegate.getProductByCode(code);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Product> getProductsByCodes(final List<String> codes) {
+        return delegate.getProductsByCodes(codes);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Product updateProduct(final Long id, final Product productDetails) {
+        return delegate.updateProduct(id, productDetails);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void deleteProduct(final Long id) {
+        delegate.deleteProduct(id);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getCatalogId() {
+        return delegate.getCatalogId();
+    }
+}
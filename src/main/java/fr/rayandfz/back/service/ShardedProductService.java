@@ -0,0 +1,445 @@
+package fr.rayandfz.back.service;
+
+import fr.rayandfz.back.error.ConcurrentUpdateException;
+import fr.rayandfz.back.error.DuplicateProductCodeException;
+import fr.rayandfz.back.error.ProductNotFoundException;
+import fr.rayandfz.back.model.Product;
+import fr.rayandfz.back.model.ProductBatch;
+import fr.rayandfz.back.model.ProductCategory;
+import fr.rayandfz.back.model.ProductField;
+import fr.rayandfz.back.model.ProductFieldChange;
+import fr.rayandfz.back.model.ProductInventoryStatus;
+import fr.rayandfz.back.shard.ProductShards;
+import fr.rayandfz.back.shard.ShardIdAllocator;
+import fr.rayandfz.back.shard.ShardMerge;
+import fr.rayandfz.back.utils.Utils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Service class for managing products stored in a hash-partitioned catalog.
+ *
+ * Products are partitioned by a hash of their ID across the {@link ProductShards}. Point operations are
+ * routed to the owning shard, while collection queries are run on every shard in parallel and the sorted
+ * per-shard results are merged by ID.
+ *
+ * Codes are unique per shard thanks to a unique index, and across shards thanks to the in-memory
+ * {@link ProductCodeIndex}, which atomically reserves a code before the row is written.
+ *
+ * Every successful write publishes a {@link ProductChangedEvent}. Updates and deletions only apply to the
+ * version of the row they were computed from, and are computed again from its new state when another write
+ * got there first.
+ */
+@Service
+@ConditionalOnProperty(prefix = "catalog.sharding", name = "enabled", havingValue = "true")
+public class ShardedProductService implements IProductService {
+    private static final String COLUMNS =
+            "id, code, name, description, price, quantity, inventory_status, category, image, rating, version";
+
+    private static final String INSERT = "INSERT INTO products (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    // Only applied to the version the update was computed from
+    private static final String UPDATE = "UPDATE products SET code = ?, name = ?, description = ?, price = ?, "
+            + "quantity = ?, inventory_status = ?, category = ?, image = ?, rating = ?, version = version + 1 "
+            + "WHERE id = ? AND version = ?";
+
+    private static final String DELETE = "DELETE FROM products WHERE id = ? AND version = ?";
+
+    // Attempts of an update or deletion racing with other writes to the same product
+    private static final int MAX_WRITE_ATTEMPTS = 10;
+
+    // Number of ids per IN query, so that large batches do not produce unbounded statements
+    private static final int BATCH_CHUNK_SIZE = 100;
+
+    private static final RowMapper<Product> PRODUCT_MAPPER = ShardedProductService::mapProduct;
+
+    private static final Comparator<Product> BY_ID = Comparator.comparing(Product::getId);
+
+    private static final Comparator<Map<String, Object>> VIEW_BY_ID =
+            Comparator.comparing(view -> (Long) view.get(ProductField.ID.property()));
+
+    private final ProductShards shards;
+    private final ShardIdAllocator idAllocator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductCodeIndex codeIndex = new ProductCodeIndex();
+
+    /**
+     * Constructs a ShardedProductService over the given shards.
+     *
+     * @param shards         The shards the catalog is partitioned across.
+     * @param idAllocator    The allocator handing out globally unique product IDs.
+     * @param eventPublisher The publisher of the {@link ProductChangedEvent}s.
+     */
+    @Autowired
+    public ShardedProductService(final ProductShards shards, final ShardIdAllocator idAllocator,
+                                 final ApplicationEventPublisher eventPublisher) {
+        this.shards = shards;
+        this.idAllocator = idAllocator;
+        this.eventPublisher = eventPublisher;
+        shards.scatter(shard -> {
+            shard.query("SELECT code, id FROM products", rs -> {
+                codeIndex.reserve(rs.getString(1), rs.getLong(2));
+            });
+            return null;
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Product createProduct(final Product product) {
+        final long id = idAllocator.nextId();
+        if (!codeIndex.reserve(product.getCode(), id)) {
+            throw new DuplicateProductCodeException(product.getCode());
+        }
+        product.setId(id);
+        product.setVersion(0L);
+        try {
+            shards.shardForId(id).update(INSERT,
+                    id, product.getCode(), product.getName(), product.getDescription(), product.getPrice(),
+                    product.getQuantity(), nameOf(product.getInventoryStatus()), nameOf(product.getCategory()),
+                    product.getImage(), product.getRating());
+        } catch (RuntimeException ex) {
+            codeIndex.release(product.getCode(), id);
+            throw ex instanceof DuplicateKeyException ? new DuplicateProductCodeException(product.getCode()) : ex;
+        }
+        eventPublisher.publishEvent(new ProductChangedEvent(null, product));
+        return product;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Collection<Product> getAllProducts() {
+        final List<List<Product>> perShard = shards.scatter(shard ->
+                shard.query("SELECT " + COLUMNS + " FROM products ORDER BY id", PRODUCT_MAPPER));
+        return ShardMerge.mergeSorted(perShard, BY_ID, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Each shard returns at most its first {@code (page + 1) * size} matching rows, which is enough for the
+     * merged window to be exact.
+     * </p>
+     */
+    @Override
+    public Collection<Product> getProducts(final ProductCategory category, final ProductInventoryStatus inventoryStatus,
+                                           final int page, final int size) {
+        final long offset = (long) page * size;
+        final List<Object> args = new ArrayList<>(3);
+        final String query = "SELECT " + COLUMNS + " FROM products" + filter(category, inventoryStatus, args)
+                + " ORDER BY id LIMIT ?";
+        args.add(offset + size);
+
+        final Object[] queryArgs = args.toArray();
+        final List<List<Product>> perShard = shards.scatter(shard -> shard.query(query, PRODUCT_MAPPER, queryArgs));
+        return ShardMerge.mergeSorted(perShard, BY_ID, offset, size);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Collection<Map<String, Object>> getAllProductViews(final Set<ProductField> fields) {
+        final String query = "SELECT " + viewColumns(fields) + " FROM products ORDER BY id";
+        final List<List<Map<String, Object>>> perShard = shards.scatter(shard ->
+                shard.query(query, (rs, rowNum) -> mapView(rs, fields)));
+        return stripIds(ShardMerge.mergeSorted(perShard, VIEW_BY_ID, 0, Integer.MAX_VALUE), fields);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The ID column is always read, as the per-shard results are merged by ID, but is only returned if selected.
+     * </p>
+     */
+    @Override
+    public Collection<Map<String, Object>> getProductViews(final Set<ProductField> fields, final ProductCategory category,
+                                                           final ProductInventoryStatus inventoryStatus, final int page, final int size) {
+        final long offset = (long) page * size;
+        final List<Object> args = new ArrayList<>(3);
+        final String query = "SELECT " + viewColumns(fields) + " FROM products" + filter(category, inventoryStatus, args)
+                + " ORDER BY id LIMIT ?";
+        args.add(offset + size);
+
+        final Object[] queryArgs = args.toArray();
+        final List<List<Map<String, Object>>> perShard = shards.scatter(shard ->
+                shard.query(query, (rs, rowNum) -> mapView(rs, fields), queryArgs));
+        return stripIds(ShardMerge.mergeSorted(perShard, VIEW_BY_ID, offset, size), fields);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, Object> getProductViewById(final Long id, final Set<ProductField> fields) {
+        final List<Map<String, Object>> found = shards.shardForId(id).query(
+                "SELECT " + viewColumns(fields) + " FROM products WHERE id = ?", (rs, rowNum) -> mapView(rs, fields), id);
+        if (found.isEmpty()) {
+            throw ProductNotFoundException.forId(id);
+        }
+        return stripIds(found, fields).get(0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Product getProductById(final Long id) {
+        final List<Product> found = shards.shardForId(id)
+                .query("SELECT " + COLUMNS + " FROM products WHERE id = ?", PRODUCT_MAPPER, id);
+        if (found.isEmpty()) {
+            throw ProductNotFoundException.forId(id);
+        }
+        return found.get(0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Product getProductByCode(final String code) {
+        final Long id = codeIndex.idFor(code);
+        if (id == null) {
+            throw ProductNotFoundException.forCode(code);
+        }
+        return getProductById(id);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Product> getProductsByCodes(final List<String> codes) {
+        final List<Long> ids = new ArrayList<>(codes.size());
+        for (final String code : new LinkedHashSet<>(codes)) {
+            final Long id = codeIndex.idFor(code);
+            if (id != null) {
+                ids.add(id);
+            }
+        }
+        return getProductsByIds(ids).getProducts();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Only the shards owning at least one of the requested products are queried, in parallel, each with
+     * one {@code IN} query per chunk of {@value #BATCH_CHUNK_SIZE} IDs.
+     * </p>
+     */
+    @Override
+    public ProductBatch getProductsByIds(final List<Long> ids) {
+        final List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        final Map<Long, Product> productsById = findByIds(distinctIds);
+
+        final List<Product> products = new ArrayList<>(productsById.size());
+        final List<Long> missingIds = new ArrayList<>();
+        for (final Long id : distinctIds) {
+            final Product product = productsById.get(id);
+            if (product != null) {
+                products.add(product);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return new ProductBatch(products, missingIds);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Product updateProduct(final Long id, final Product productDetails) {
+        for (int attempt = 1; attempt <= MAX_WRITE_ATTEMPTS; attempt++) {
+            final Product updated = tryUpdate(id, productDetails);
+            if (updated != null) {
+                return updated;
+            }
+        }
+        throw new ConcurrentUpdateException(id);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void deleteProduct(final Long id) {
+        for (int attempt = 1; attempt <= MAX_WRITE_ATTEMPTS; attempt++) {
+            final Product product = getProductById(id);
+            if (shards.shardForId(id).update(DELETE, id, product.getVersion()) == 1) {
+                codeIndex.release(product.getCode(), id);
+                eventPublisher.publishEvent(new ProductChangedEvent(product, null));
+                return;
+            }
+        }
+        throw new ConcurrentUpdateException(id);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The identifier is stored in the first shard, and created with it.
+     * </p>
+     */
+    @Override
+    public String getCatalogId() {
+        return shards.catalogId();
+    }
+
+    // Returns null when another write changed or deleted the product since it was read
+    private Product tryUpdate(final Long id, final Product productDetails) {
+        final Product existingProduct = getProductById(id);
+        final Product previous = new Product(existingProduct);
+        final String previousCode = existingProduct.getCode();
+        final long version = existingProduct.getVersion();
+        final List<ProductFieldChange> changes = new ArrayList<>();
+        Utils.copyNonNullProperties(productDetails, existingProduct, change -> changes.add(
+                ProductFieldChange.of(change.getPropertyName(), change.getOldValue(), change.getNewValue())));
+        // The id decides which shard owns the row, so it cannot be changed by an update
+        existingProduct.setId(id);
+        existingProduct.setVersion(version + 1);
+        changes.removeIf(change -> ProductField.ID.property().equals(change.getField()));
+        final String newCode = existingProduct.getCode();
+        final boolean codeChanged = !Objects.equals(previousCode, newCode);
+        if (codeChanged && !codeIndex.reserve(newCode, id)) {
+            throw new DuplicateProductCodeException(newCode);
+        }
+        final int updated;
+        try {
+            updated = shards.shardForId(id).update(UPDATE,
+                    newCode, existingProduct.getName(), existingProduct.getDescription(),
+                    existingProduct.getPrice(), existingProduct.getQuantity(), nameOf(existingProduct.getInventoryStatus()),
+                    nameOf(existingProduct.getCategory()), existingProduct.getImage(), existingProduct.getRating(), id, version);
+        } catch (RuntimeException ex) {
+            if (codeChanged) {
+                codeIndex.release(newCode, id);
+            }
+            throw ex;
+        }
+        if (updated == 0) {
+            if (codeChanged) {
+                codeIndex.release(newCode, id);
+            }
+            return null;
+        }
+        if (codeChanged) {
+            codeIndex.release(previousCode, id);
+        }
+        eventPublisher.publishEvent(new ProductChangedEvent(previous, existingProduct, changes));
+        return existingProduct;
+    }
+
+    private Map<Long, Product> findByIds(final List<Long> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        final Map<Integer, List<Long>> idsByShard = new TreeMap<>();
+        for (final Long id : ids) {
+            idsByShard.computeIfAbsent(shards.shardIndexFor(id), index -> new ArrayList<>()).add(id);
+        }
+        final Map<Long, Product> productsById = new ConcurrentHashMap<>(ids.size() * 2);
+        shards.scatter(idsByShard.keySet(), index -> {
+            final List<Long> shardIds = idsByShard.get(index);
+            for (int from = 0; from < shardIds.size(); from += BATCH_CHUNK_SIZE) {
+                final List<Long> chunk = shardIds.subList(from, Math.min(from + BATCH_CHUNK_SIZE, shardIds.size()));
+                final String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+                for (final Product product : shards.shard(index).query(
+                        "SELECT " + COLUMNS + " FROM products WHERE id IN (" + placeholders + ")", PRODUCT_MAPPER, chunk.toArray())) {
+                    productsById.put(product.getId(), product);
+                }
+            }
+            return null;
+        });
+        return productsById;
+    }
+
+    private static Product mapProduct(final ResultSet rs, final int rowNum) throws SQLException {
+        final Product product = new Product();
+        product.setId(rs.getLong("id"));
+        product.setCode(rs.getString("code"));
+        product.setName(rs.getString("name"));
+        product.setDescription(rs.getString("description"));
+        product.setPrice(rs.getDouble("price"));
+        product.setQuantity(rs.getInt("quantity"));
+        product.setInventoryStatus(ProductInventoryStatus.valueOf(rs.getString("inventory_status")));
+        product.setCategory(ProductCategory.valueOf(rs.getString("category")));
+        product.setImage(rs.getString("image"));
+        final double rating = rs.getDouble("rating");
+        product.setRating(rs.wasNull() ? null : rating);
+        product.setVersion(rs.getLong("version"));
+        return product;
+    }
+
+    private static String filter(final ProductCategory category, final ProductInventoryStatus inventoryStatus,
+                                 final List<Object> args) {
+        final StringBuilder where = new StringBuilder(" WHERE 1 = 1");
+        if (category != null) {
+            where.append(" AND category = ?");
+            args.add(category.name());
+        }
+        if (inventoryStatus != null) {
+            where.append(" AND inventory_status = ?");
+            args.add(inventoryStatus.name());
+        }
+        return where.toString();
+    }
+
+    private static String viewColumns(final Set<ProductField> fields) {
+        final StringBuilder columns = new StringBuilder(ProductField.ID.column());
+        for (final ProductField field : fields) {
+            if (field != ProductField.ID) {
+                columns.append(", ").append(field.column());
+            }
+        }
+        return columns.toString();
+    }
+
+    private static Map<String, Object> mapView(final ResultSet rs, final Set<ProductField> fields) throws SQLException {
+        final Map<String, Object> view = new LinkedHashMap<>();
+        view.put(ProductField.ID.property(), rs.getLong(ProductField.ID.column()));
+        for (final ProductField field : fields) {
+            switch (field) {
+                case ID -> { }
+                case PRICE, QUANTITY, RATING -> view.put(field.property(), rs.getObject(field.column()));
+                default -> view.put(field.property(), rs.getString(field.column()));
+            }
+        }
+        return view;
+    }
+
+    private static List<Map<String, Object>> stripIds(final List<Map<String, Object>> views, final Set<ProductField> fields) {
+        if (!fields.contains(ProductField.ID)) {
+            for (final Map<String, Object> view : views) {
+                view.remove(ProductField.ID.property());
+            }
+        }
+        return views;
+    }
+
+    private static String nameOf(final Enum<?> value) {
+        return value == null ? null : value.name();
+    }
+}
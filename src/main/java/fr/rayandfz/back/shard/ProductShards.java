@@ -0,0 +1,222 @@
+package fr.rayandfz.back.shard;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Set of file-backed H2 databases the catalog is partitioned across.
+ * <p>
+ * Products are routed to a shard by a hash of their id. Point operations go to a single shard through
+ * {@link #shardForId(long)}, while collection queries are fanned out in parallel to every shard through
+ * {@link #scatter(Function)} and merged by the caller.
+ * </p>
+ */
+public class ProductShards implements AutoCloseable {
+    private static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS products ("
+            + "id BIGINT PRIMARY KEY, "
+            + "code VARCHAR(255) NOT NULL, "
+            + "name VARCHAR(255) NOT NULL, "
+            + "description CLOB NOT NULL, "
+            + "price DOUBLE PRECISION NOT NULL, "
+            + "quantity INT NOT NULL, "
+            + "inventory_status VARCHAR(32) NOT NULL, "
+            + "category VARCHAR(32) NOT NULL, "
+            + "image VARCHAR(1024), "
+            + "rating DOUBLE PRECISION, "
+            + "version BIGINT NOT NULL DEFAULT 0)";
+
+    // Shards created before products were versioned
+    private static final String ADD_VERSION = "ALTER TABLE products ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0";
+
+    private static final String CREATE_CATEGORY_INDEX =
+            "CREATE INDEX IF NOT EXISTS products_category_id ON products (category, id)";
+
+    private static final String CREATE_CODE_INDEX =
+            "CREATE UNIQUE INDEX IF NOT EXISTS products_code ON products (code)";
+
+    private static final String CREATE_CATALOG_INFO = "CREATE TABLE IF NOT EXISTS catalog_info (id VARCHAR(36) PRIMARY KEY)";
+
+    private final List<HikariDataSource> dataSources;
+    private final List<JdbcTemplate> templates;
+    private final List<Integer> allShardIndexes;
+    private final ExecutorService fanOutExecutor;
+    private String catalogId;
+
+    private ProductShards(final List<HikariDataSource> dataSources) {
+        this.dataSources = dataSources;
+        final List<JdbcTemplate> jdbcTemplates = new ArrayList<>(dataSources.size());
+        for (final HikariDataSource dataSource : dataSources) {
+            jdbcTemplates.add(new JdbcTemplate(dataSource));
+        }
+        this.templates = Collections.unmodifiableList(jdbcTemplates);
+        this.allShardIndexes = IntStream.range(0, jdbcTemplates.size()).boxed().toList();
+
+        final AtomicInteger threadIndex = new AtomicInteger();
+        this.fanOutExecutor = Executors.newFixedThreadPool(dataSources.size(), runnable -> {
+            final Thread thread = new Thread(runnable, "shard-fanout-" + threadIndex.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Opens (and creates if needed) {@code count} file-backed H2 shards in the given directory.
+     *
+     * @param directory the directory holding the shard database files
+     * @param count     the number of shards
+     * @param poolSize  the maximum number of pooled connections per shard
+     * @return the opened shards, with their schema initialized
+     */
+    public static ProductShards open(final Path directory, final int count, final int poolSize) {
+        if (count < 1) {
+            throw new IllegalArgumentException("Shard count must be at least 1, got " + count);
+        }
+        final Path root = directory.toAbsolutePath();
+        final List<HikariDataSource> dataSources = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            final HikariConfig config = new HikariConfig();
+            config.setPoolName("catalog-shard-" + i);
+            config.setJdbcUrl("jdbc:h2:file:" + root.resolve("catalog-shard-" + i) + ";DB_CLOSE_ON_EXIT=FALSE");
+            config.setUsername("sa");
+            config.setPassword("");
+            config.setMaximumPoolSize(poolSize);
+            dataSources.add(new HikariDataSource(config));
+        }
+
+        final ProductShards shards = new ProductShards(dataSources);
+        for (final JdbcTemplate template : shards.templates) {
+            template.execute(CREATE_TABLE);
+            template.execute(ADD_VERSION);
+            template.execute(CREATE_CATEGORY_INDEX);
+            template.execute(CREATE_CODE_INDEX);
+        }
+        final JdbcTemplate first = shards.shard(0);
+        first.execute(CREATE_CATALOG_INFO);
+        final List<String> catalogIds = first.queryForList("SELECT id FROM catalog_info", String.class);
+        if (catalogIds.isEmpty()) {
+            shards.catalogId = UUID.randomUUID().toString();
+            first.update("INSERT INTO catalog_info (id) VALUES (?)", shards.catalogId);
+        } else {
+            shards.catalogId = catalogIds.get(0);
+        }
+        return shards;
+    }
+
+    /**
+     * Gets the identifier of the catalog stored in the shards, created with the first shard.
+     *
+     * @return the catalog identifier
+     */
+    public String catalogId() {
+        return this.catalogId;
+    }
+
+    /**
+     * Gets the number of shards.
+     *
+     * @return the number of shards
+     */
+    public int count() {
+        return this.templates.size();
+    }
+
+    /**
+     * Computes the shard owning the given product id.
+     *
+     * @param id the product id
+     * @return the index of the owning shard
+     */
+    public int shardIndexFor(final long id) {
+        return Math.floorMod(mix(id), this.templates.size());
+    }
+
+    /**
+     * Gets the shard at the given index.
+     *
+     * @param index the shard index
+     * @return the template bound to that shard
+     */
+    public JdbcTemplate shard(final int index) {
+        return this.templates.get(index);
+    }
+
+    /**
+     * Gets the shard owning the given product id.
+     *
+     * @param id the product id
+     * @return the template bound to the owning shard
+     */
+    public JdbcTemplate shardForId(final long id) {
+        return this.templates.get(shardIndexFor(id));
+    }
+
+    /**
+     * Runs the same query against every shard in parallel.
+     *
+     * @param query the query to run against each shard
+     * @param <T>   the per-shard result type
+     * @return the per-shard results, in shard order
+     */
+    public <T> List<T> scatter(final Function<JdbcTemplate, T> query) {
+        return scatter(this.allShardIndexes, index -> query.apply(this.templates.get(index)));
+    }
+
+    /**
+     * Runs a query against a subset of the shards in parallel.
+     *
+     * @param shardIndexes the indexes of the shards to query
+     * @param query        the query to run, given the index of the shard it runs against
+     * @param <T>          the per-shard result type
+     * @return the per-shard results, in the iteration order of {@code shardIndexes}
+     */
+    public <T> List<T> scatter(final Collection<Integer> shardIndexes, final IntFunction<T> query) {
+        if (shardIndexes.size() == 1) {
+            // Queries run for their side effects return null, which List.of refuses
+            return Collections.singletonList(query.apply(shardIndexes.iterator().next()));
+        }
+        final List<CompletableFuture<T>> futures = new ArrayList<>(shardIndexes.size());
+        for (final Integer index : shardIndexes) {
+            futures.add(CompletableFuture.supplyAsync(() -> query.apply(index), this.fanOutExecutor));
+        }
+        final List<T> results = new ArrayList<>(futures.size());
+        for (final CompletableFuture<T> future : futures) {
+            results.add(future.join());
+        }
+        return results;
+    }
+
+    /**
+     * Closes the fan-out executor and every shard connection pool.
+     */
+    @Override
+    public void close() {
+        this.fanOutExecutor.shutdownNow();
+        for (final HikariDataSource dataSource : this.dataSources) {
+            dataSource.close();
+        }
+    }
+
+    // Stafford variant 13 of the MurmurHash3 finalizer, so that any id pattern spreads evenly
+    private static int mix(final long id) {
+        long z = id;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        z = z ^ (z >>> 31);
+        return (int) (z ^ (z >>> 32));
+    }
+}
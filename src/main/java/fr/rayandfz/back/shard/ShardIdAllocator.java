@@ -0,0 +1,58 @@
+package fr.rayandfz.back.shard;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Allocates globally unique product ids for the sharded catalog.
+ * <p>
+ * Ids are handed out using a hi/lo scheme: a sequence stored in the first shard reserves blocks of
+ * {@code blockSize} ids, which are then allocated locally without touching the database. Ids are unique
+ * across shards and restarts, but a restart may leave gaps. The block size may change between restarts: the
+ * step of the sequence is adjusted to it at startup.
+ * </p>
+ */
+public class ShardIdAllocator {
+    private static final String SELECT_INCREMENT = "SELECT INCREMENT FROM INFORMATION_SCHEMA.SEQUENCES "
+            + "WHERE SEQUENCE_SCHEMA = SCHEMA() AND SEQUENCE_NAME = 'PRODUCT_ID_SEQ'";
+
+    private final JdbcTemplate sequenceShard;
+    private final int blockSize;
+
+    private long next;
+    private long limit;
+
+    /**
+     * Constructs an allocator reserving id blocks from the first shard.
+     *
+     * @param shards    the shards of the catalog
+     * @param blockSize the number of ids reserved per database round-trip
+     */
+    public ShardIdAllocator(final ProductShards shards, final int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Id block size must be at least 1, got " + blockSize);
+        }
+        this.sequenceShard = shards.shard(0);
+        this.blockSize = blockSize;
+        this.sequenceShard.execute("CREATE SEQUENCE IF NOT EXISTS product_id_seq START WITH 1 INCREMENT BY " + blockSize);
+        // A sequence created with another block size would hand out overlapping blocks. Changing the step keeps
+        // the next value, which is past every block reserved so far.
+        final Long increment = this.sequenceShard.queryForObject(SELECT_INCREMENT, Long.class);
+        if (increment == null || increment != blockSize) {
+            this.sequenceShard.execute("ALTER SEQUENCE product_id_seq INCREMENT BY " + blockSize);
+        }
+    }
+
+    /**
+     * Returns the next unused product id.
+     *
+     * @return a globally unique product id
+     */
+    public synchronized long nextId() {
+        if (this.next == this.limit) {
+            final Long blockStart = this.sequenceShard.queryForObject("SELECT NEXT VALUE FOR product_id_seq", Long.class);
+            this.next = blockStart;
+            this.limit = blockStart + this.blockSize;
+        }
+        return this.next++;
+    }
+}
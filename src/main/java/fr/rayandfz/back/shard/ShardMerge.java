@@ -0,0 +1,70 @@
+package fr.rayandfz.back.shard;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Utility class for merging per-shard query results.
+ */
+public final class ShardMerge {
+
+    private ShardMerge() {
+    }
+
+    /**
+     * Merges lists that are each sorted by {@code comparator} into a single sorted window.
+     * <p>
+     * This is a k-way merge: only the head of each list is compared, so building a window of
+     * {@code offset + limit} elements costs {@code O((offset + limit) log k)} for {@code k} lists.
+     * </p>
+     *
+     * @param sortedLists the per-shard results, each sorted by {@code comparator}
+     * @param comparator  the ordering shared by every list
+     * @param offset      the number of leading merged elements to skip
+     * @param limit       the maximum number of elements to return
+     * @param <T>         the element type
+     * @return the merged elements in {@code [offset, offset + limit)}
+     */
+    public static <T> List<T> mergeSorted(final List<? extends List<T>> sortedLists, final Comparator<? super T> comparator,
+                                          final long offset, final int limit) {
+        final PriorityQueue<Head<T>> heads = new PriorityQueue<>(Math.max(1, sortedLists.size()),
+                (a, b) -> comparator.compare(a.value, b.value));
+        int total = 0;
+        for (final List<T> list : sortedLists) {
+            total += list.size();
+            final Iterator<T> iterator = list.iterator();
+            if (iterator.hasNext()) {
+                heads.add(new Head<>(iterator.next(), iterator));
+            }
+        }
+
+        final List<T> window = new ArrayList<>((int) Math.max(0, Math.min(limit, total - offset)));
+        long skipped = 0;
+        while (!heads.isEmpty() && window.size() < limit) {
+            final Head<T> head = heads.poll();
+            if (skipped < offset) {
+                skipped++;
+            } else {
+                window.add(head.value);
+            }
+            if (head.rest.hasNext()) {
+                head.value = head.rest.next();
+                heads.add(head);
+            }
+        }
+        return window;
+    }
+
+    private static final class Head<T> {
+        private T value;
+        private final Iterator<T> rest;
+
+        private Head(final T value, final Iterator<T> rest) {
+            this.value = value;
+            this.rest = rest;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package fr.rayandfz.back.shard;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+/**
+ * Spring configuration for the sharded catalog, active when {@code catalog.sharding.enabled=true}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "catalog.sharding", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfiguration {
+
+    /**
+     * Opens the catalog shards described by the sharding properties.
+     *
+     * @param properties the sharding properties
+     * @return the opened shards
+     */
+    @Bean(destroyMethod = "close")
+    public ProductShards productShards(final ShardingProperties properties) {
+        return ProductShards.open(Path.of(properties.getDirectory()), properties.getCount(), properties.getPoolSize());
+    }
+
+    /**
+     * Creates the allocator handing out globally unique product ids.
+     *
+     * @param shards     the catalog shards
+     * @param properties the sharding properties
+     * @return the id allocator
+     */
+    @Bean
+    public ShardIdAllocator shardIdAllocator(final ProductShards shards, final ShardingProperties properties) {
+        return new ShardIdAllocator(shards, properties.getIdBlockSize());
+    }
+}
@@ -0,0 +1,113 @@
+package fr.rayandfz.back.shard;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for the sharded catalog, bound from the {@code catalog.sharding} prefix.
+ * <p>
+ * When {@code catalog.sharding.enabled} is {@code true}, products are stored across {@link #getCount()}
+ * file-backed H2 databases located in {@link #getDirectory()} instead of the single embedded database.
+ * </p>
+ */
+@ConfigurationProperties(prefix = "catalog.sharding")
+public class ShardingProperties {
+    private boolean enabled = false;
+
+    private int count = 4;
+
+    private String directory = "./data/shards";
+
+    private int poolSize = 4;
+
+    private int idBlockSize = 1000;
+
+    /**
+     * Whether the sharded persistence layer is enabled.
+     *
+     * @return {@code true} if products are stored in shards
+     */
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    /**
+     * Enables or disables the sharded persistence layer.
+     *
+     * @param enabled the new enabled flag
+     */
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Gets the number of shards.
+     *
+     * @return the number of shards
+     */
+    public int getCount() {
+        return this.count;
+    }
+
+    /**
+     * Sets the number of shards.
+     *
+     * @param count the new number of shards
+     */
+    public void setCount(final int count) {
+        this.count = count;
+    }
+
+    /**
+     * Gets the directory holding the shard database files.
+     *
+     * @return the shard directory
+     */
+    public String getDirectory() {
+        return this.directory;
+    }
+
+    /**
+     * Sets the directory holding the shard database files.
+     *
+     * @param directory the new shard directory
+     */
+    public void setDirectory(final String directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Gets the maximum number of pooled connections per shard.
+     *
+     * @return the pool size per shard
+     */
+    public int getPoolSize() {
+        return this.poolSize;
+    }
+
+    /**
+     * Sets the maximum number of pooled connections per shard.
+     *
+     * @param poolSize the new pool size per shard
+     */
+    public void setPoolSize(final int poolSize) {
+        this.poolSize = poolSize;
+    }
+
+    /**
+     * Gets the number of ids reserved at once by the id allocator.
+     *
+     * @return the id block size
+     */
+    public int getIdBlockSize() {
+        return this.idBlockSize;
+    }
+
+    /**
+     * Sets the number of ids reserved at once by the id allocator.
+     *
+     * @param idBlockSize the new id block size
+     */
+    public void setIdBlockSize(final int idBlockSize) {
+        this.idBlockSize = idBlockSize;
+    }
+}
@@ -3,8 +3,11 @@ package fr.rayandfz.back.utils;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.BeanWrapper;
 import org.springframework.beans.BeanWrapperImpl;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
 import java.beans.PropertyDescriptor;
 import java.util.HashSet;
+import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Stream;
 
@@ -37,4 +40,38 @@ public class Utils {
         String[] result = emptyNames.toArray(new String[0]);
         BeanUtils.copyProperties(src, target, result);
     }
+
+    /**
+     * Copies properties from one object to another, ignoring {@code null} values, and reports the properties
+     * whose value changed.
+     * <p>
+     * This method copies the non-null readable properties of the source object to the writable properties
+     * of the same name of the target object, like {@link #copyNonNullProperties(Object, Object)}. Each time the
+     * copied value differs from the previous value of the target, the listener is notified with both values,
+     * so that a partial update can be audited without comparing the objects afterwards.
+     * </p>
+     *
+     * @param src      the source object from which to copy properties
+     * @param target   the target object to which properties should be copied
+     * @param listener the listener notified of each changed property of the target
+     */
+    public static void copyNonNullProperties(final Object src, final Object target, final PropertyChangeListener listener) {
+        BeanWrapper srcWrap = new BeanWrapperImpl(src);
+        BeanWrapper targetWrap = new BeanWrapperImpl(target);
+        for (PropertyDescriptor pd : srcWrap.getPropertyDescriptors()) {
+            String name = pd.getName();
+            if (pd.getReadMethod() == null || !targetWrap.isReadableProperty(name) || !targetWrap.isWritableProperty(name)) {
+                continue;
+            }
+            Object srcValue = srcWrap.getPropertyValue(name);
+            if (srcValue == null) {
+                continue;
+            }
+            Object previousValue = targetWrap.getPropertyValue(name);
+            targetWrap.setPropertyValue(name, srcValue);
+            if (!Objects.equals(previousValue, srcValue)) {
+                listener.propertyChange(new PropertyChangeEvent(target, name, previousValue, srcValue));
+            }
+        }
+    }
 }
@@ -0,0 +1,98 @@
+package fr.rayandfz.back.audit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for AuditRingBuffer.
+ */
+public class AuditRingBufferTest {
+
+    /**
+     * Tests that elements are drained in the order they were offered, at their offer positions.
+     */
+    @Test
+    public void testOfferAndDrain_Order() {
+        AuditRingBuffer<String> ring = new AuditRingBuffer<>(4);
+
+        assertEquals(0, ring.offer("a"));
+        assertEquals(1, ring.offer("b"));
+        assertEquals(2, ring.offer("c"));
+        List<String> batch = new ArrayList<>();
+
+        assertEquals(2, ring.drainTo(batch, 2));
+        assertEquals(List.of("a", "b"), batch);
+        assertEquals(1, ring.size());
+        assertEquals(3, ring.offer("d"));
+        assertEquals(2, ring.drainTo(batch, 10));
+        assertEquals(List.of("a", "b", "c", "d"), batch);
+        assertEquals(4, ring.head());
+        assertEquals(4, ring.tail());
+    }
+
+    /**
+     * Tests that a full ring buffer refuses new elements until some are drained.
+     */
+    @Test
+    public void testOffer_Full() {
+        AuditRingBuffer<Integer> ring = new AuditRingBuffer<>(2);
+        ring.offer(1);
+        ring.offer(2);
+
+        assertEquals(-1, ring.offer(3));
+        assertEquals(1, ring.drainTo(new ArrayList<>(), 1));
+        assertEquals(2, ring.offer(3));
+    }
+
+    /**
+     * Tests that a capacity which is not a power of two is refused.
+     */
+    @Test
+    public void testConstructor_InvalidCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new AuditRingBuffer<>(3));
+    }
+
+    /**
+     * Tests that elements offered by concurrent producers are all drained once, while the consumer drains.
+     */
+    @Test
+    public void testOffer_ConcurrentProducers() throws InterruptedException {
+        AuditRingBuffer<Integer> ring = new AuditRingBuffer<>(64);
+        int producers = 4;
+        int perProducer = 2_000;
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            final int base = p * perProducer;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    while (ring.offer(base + i) < 0) {
+                        Thread.yield();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        Set<Integer> seen = new HashSet<>();
+        List<Integer> batch = new ArrayList<>();
+        while (seen.size() < producers * perProducer) {
+            batch.clear();
+            ring.drainTo(batch, 16);
+            for (Integer element : batch) {
+                assertTrue(seen.add(element), "drained twice: " + element);
+            }
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(0, ring.size());
+    }
+}
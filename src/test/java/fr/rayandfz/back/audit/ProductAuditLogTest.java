@@ -0,0 +1,240 @@
+package fr.rayandfz.back.audit;
+
+import fr.rayandfz.back.model.Product;
+import fr.rayandfz.back.model.ProductAuditEntry;
+import fr.rayandfz.back.model.ProductFieldChange;
+import fr.rayandfz.back.service.ProductChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for ProductAuditLog, writing its database to a temporary directory.
+ */
+public class ProductAuditLogTest {
+
+    @TempDir
+    Path directory;
+
+    private final AtomicReference<String> actor = new AtomicReference<>();
+
+    private static final String CATALOG_ID = "catalog";
+
+    private ProductAuditLog open(final int ringCapacity, final AuditDurability durability) {
+        return open(ringCapacity, durability, CATALOG_ID);
+    }
+
+    private ProductAuditLog open(final int ringCapacity, final AuditDurability durability, final String catalogId) {
+        return ProductAuditLog.open(directory, ringCapacity, 64, durability, 5_000, actor::get, catalogId);
+    }
+
+    private static Product product(final long id, final String name, final double price) {
+        Product product = new Product();
+        product.setId(id);
+        product.setCode("P" + id);
+        product.setName(name);
+        product.setPrice(price);
+        return product;
+    }
+
+    /**
+     * Tests that a creation, an update and a deletion are recorded with their actor and changed fields.
+     */
+    @Test
+    public void testGetEntries_Lifecycle() {
+        try (ProductAuditLog log = open(1024, AuditDurability.FIRE_AND_FORGET)) {
+            Product created = product(1L, "Bamboo Watch", 65.0);
+            Product updated = product(1L, "Bamboo Watch", 70.0);
+            actor.set("alice");
+            log.onProductChanged(new ProductChangedEvent(null, created));
+            actor.set("bob");
+            log.onProductChanged(new ProductChangedEvent(created, updated,
+                    List.of(ProductFieldChange.of("price", 65.0, 70.0))));
+            actor.set(null);
+            log.onProductChanged(new ProductChangedEvent(updated, null));
+            log.onProductChanged(new ProductChangedEvent(null, product(2L, "Black Watch", 72.0)));
+            assertTrue(log.flush(5_000));
+
+            List<ProductAuditEntry> entries = log.getEntries(1L);
+
+            assertEquals(3, entries.size());
+            assertEquals("CREATED", entries.get(0).getType());
+            assertEquals("alice", entries.get(0).getActor());
+            assertTrue(entries.get(0).getChanges().stream().noneMatch(change -> change.getField().equals("id")));
+            assertEquals("Bamboo Watch", entries.get(0).getChanges().stream()
+                    .filter(change -> change.getField().equals("name")).findFirst().orElseThrow().getNewValue());
+            assertEquals("UPDATED", entries.get(1).getType());
+            assertEquals("bob", entries.get(1).getActor());
+            assertEquals(1, entries.get(1).getChanges().size());
+            assertEquals("65.0", entries.get(1).getChanges().get(0).getPreviousValue());
+            assertEquals("70.0", entries.get(1).getChanges().get(0).getNewValue());
+            assertEquals("DELETED", entries.get(2).getType());
+            assertEquals("anonymous", entries.get(2).getActor());
+            assertNull(entries.get(2).getChanges().stream()
+                    .filter(change -> change.getField().equals("price")).findFirst().orElseThrow().getNewValue());
+            assertEquals(1, log.getEntries(2L).size());
+            assertTrue(log.getEntries(3L).isEmpty());
+        }
+    }
+
+    /**
+     * Tests that an update which changed no field is not recorded.
+     */
+    @Test
+    public void testOnProductChanged_NoChange() {
+        try (ProductAuditLog log = open(1024, AuditDurability.FIRE_AND_FORGET)) {
+            Product product = product(1L, "Bamboo Watch", 65.0);
+            log.onProductChanged(new ProductChangedEvent(product, product(1L, "Bamboo Watch", 65.0), List.of()));
+            assertTrue(log.flush(5_000));
+
+            assertTrue(log.getEntries(1L).isEmpty());
+            assertEquals(0, log.getStats().getPublished());
+        }
+    }
+
+    /**
+     * Tests that in fire-and-forget mode, every entry is either written or counted as dropped when the
+     * ring buffer is full.
+     */
+    @Test
+    public void testRecord_FireAndForgetOverflow() {
+        int count = 2_000;
+        try (ProductAuditLog log = open(4, AuditDurability.FIRE_AND_FORGET)) {
+            for (long id = 1; id <= count; id++) {
+                log.onProductChanged(new ProductChangedEvent(null, product(id, "P", 1.0)));
+            }
+            assertTrue(log.flush(5_000));
+
+            AuditStats stats = log.getStats();
+            assertEquals(count, stats.getPublished() + stats.getDropped());
+            assertEquals(stats.getPublished(), stats.getWritten());
+            assertEquals(0, stats.getInlineWrites());
+            assertEquals(0, stats.getFailed());
+        }
+    }
+
+    /**
+     * Tests that in flush-before-ack mode, an entry is written by the time the change is acknowledged and
+     * that no entry is dropped, even with a tiny ring buffer.
+     */
+    @Test
+    public void testRecord_FlushBeforeAck() throws InterruptedException {
+        try (ProductAuditLog log = open(2, AuditDurability.FLUSH_BEFORE_ACK)) {
+            log.onProductChanged(new ProductChangedEvent(null, product(1L, "Bamboo Watch", 65.0)));
+
+            assertEquals(1, log.getEntries(1L).size());
+
+            Thread[] threads = new Thread[4];
+            for (int t = 0; t < threads.length; t++) {
+                final long base = 100L * (t + 1);
+                threads[t] = new Thread(() -> {
+                    for (long id = base; id < base + 50; id++) {
+                        log.onProductChanged(new ProductChangedEvent(null, product(id, "P", 1.0)));
+                    }
+                });
+                threads[t].start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            AuditStats stats = log.getStats();
+            assertEquals(201, stats.getWritten());
+            assertEquals(0, stats.getDropped());
+            assertEquals(0, stats.getAckTimeouts());
+            assertEquals(AuditDurability.FLUSH_BEFORE_ACK, stats.getDurability());
+        }
+    }
+
+    // Too long for the field column, so that the batch holding the entry fails
+    private static ProductChangedEvent unwritableUpdate(final long id) {
+        return new ProductChangedEvent(product(id, "P", 1.0), product(id, "P", 2.0),
+                List.of(new ProductFieldChange("x".repeat(100), "1.0", "2.0")));
+    }
+
+    /**
+     * Tests that in flush-before-ack mode, a request whose entry could not be written is told so, and that
+     * the following entries are still written.
+     */
+    @Test
+    public void testRecord_FlushBeforeAckWriteFailure() {
+        try (ProductAuditLog log = open(1024, AuditDurability.FLUSH_BEFORE_ACK)) {
+            log.onProductChanged(new ProductChangedEvent(null, product(1L, "Bamboo Watch", 65.0)));
+            log.onProductChanged(unwritableUpdate(1L));
+            log.onProductChanged(new ProductChangedEvent(null, product(2L, "Black Watch", 72.0)));
+
+            AuditStats stats = log.getStats();
+            assertEquals(2, stats.getWritten());
+            assertEquals(1, stats.getFailed());
+            assertEquals(1, stats.getAckFailures());
+            assertEquals(0, stats.getAckTimeouts());
+            assertEquals(1, log.getEntries(1L).size());
+            assertEquals(1, log.getEntries(2L).size());
+        }
+    }
+
+    /**
+     * Tests that a flush reports the entries that could not be written.
+     */
+    @Test
+    public void testFlush_WriteFailure() {
+        try (ProductAuditLog log = open(1024, AuditDurability.FIRE_AND_FORGET)) {
+            log.onProductChanged(new ProductChangedEvent(null, product(1L, "Bamboo Watch", 65.0)));
+            assertTrue(log.flush(5_000));
+
+            log.onProductChanged(unwritableUpdate(1L));
+
+            assertFalse(log.flush(5_000));
+            assertEquals(1, log.getStats().getFailed());
+            assertEquals(0, log.getStats().getAckFailures());
+        }
+    }
+
+    /**
+     * Tests that reopening the audit log keeps the written entries and continues their ids.
+     */
+    @Test
+    public void testOpen_Reopen() {
+        try (ProductAuditLog log = open(1024, AuditDurability.FIRE_AND_FORGET)) {
+            log.onProductChanged(new ProductChangedEvent(null, product(1L, "Bamboo Watch", 65.0)));
+        }
+        try (ProductAuditLog log = open(1024, AuditDurability.FIRE_AND_FORGET)) {
+            log.onProductChanged(new ProductChangedEvent(product(1L, "Bamboo Watch", 65.0), null));
+            assertTrue(log.flush(5_000));
+
+            List<ProductAuditEntry> entries = log.getEntries(1L);
+
+            assertEquals(2, entries.size());
+            assertTrue(entries.get(0).getId() < entries.get(1).getId());
+        }
+    }
+
+    /**
+     * Tests that the entries of a previous catalog are not returned for the products of a new one reusing
+     * their ids, and are still there for their own catalog.
+     */
+    @Test
+    public void testOpen_OtherCatalog() {
+        try (ProductAuditLog log = open(1024, AuditDurability.FIRE_AND_FORGET, "first")) {
+            log.onProductChanged(new ProductChangedEvent(null, product(1L, "Bamboo Watch", 65.0)));
+        }
+        try (ProductAuditLog log = open(1024, AuditDurability.FIRE_AND_FORGET, "second")) {
+            log.onProductChanged(new ProductChangedEvent(null, product(1L, "Black Watch", 72.0)));
+            assertTrue(log.flush(5_000));
+
+            List<ProductAuditEntry> entries = log.getEntries(1L);
+
+            assertEquals(1, entries.size());
+            assertEquals("Black Watch", entries.get(0).getChanges().stream()
+                    .filter(change -> change.getField().equals("name")).findFirst().orElseThrow().getNewValue());
+        }
+        try (ProductAuditLog log = open(1024, AuditDurability.FIRE_AND_FORGET, "first")) {
+            assertEquals(1, log.getEntries(1L).size());
+        }
+    }
+}
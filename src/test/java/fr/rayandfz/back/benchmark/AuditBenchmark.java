@@ -0,0 +1,75 @@
+package fr.rayandfz.back.benchmark;
+
+import fr.rayandfz.back.audit.AuditDurability;
+import fr.rayandfz.back.audit.AuditStats;
+import fr.rayandfz.back.audit.ProductAuditLog;
+import fr.rayandfz.back.model.Product;
+import fr.rayandfz.back.model.ProductFieldChange;
+import fr.rayandfz.back.service.ProductChangedEvent;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost the audit log adds to a PATCH in each durability mode: the event listener reading the
+ * actor and putting the entry in the ring buffer, plus, in flush-before-ack mode, the wait for the batch
+ * holding the entry to be committed.
+ * <p>
+ * The teardown prints the counters of the audit log, as entries dropped in fire-and-forget mode when the
+ * writer falls behind do not show up in the latency.
+ * </p>
+ * Run with {@code mvnw -Pbenchmark test-compile exec:exec -Djmh.args="AuditBenchmark -f 1"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AuditBenchmark {
+
+    @Param({"FIRE_AND_FORGET", "FLUSH_BEFORE_ACK"})
+    public AuditDurability durability;
+
+    private Path directory;
+    private ProductAuditLog log;
+    private Product previous;
+    private Product current;
+    private List<ProductFieldChange> changes;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("audit-benchmark");
+        log = ProductAuditLog.open(directory, 16_384, 512, durability, 5_000, () -> "benchmark", "benchmark");
+        previous = new Product();
+        previous.setId(1L);
+        previous.setPrice(10.0);
+        previous.setQuantity(5);
+        current = new Product(previous);
+        current.setQuantity(4);
+        changes = List.of(ProductFieldChange.of("quantity", 5, 4));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        log.flush(60_000);
+        final AuditStats stats = log.getStats();
+        System.out.printf("%npublished %d, dropped %d, inline %d, written %d in %d batches%n", stats.getPublished(),
+                stats.getDropped(), stats.getInlineWrites(), stats.getWritten(), stats.getBatches());
+        log.close();
+        try (var files = Files.walk(directory)) {
+            for (final Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public void recordChange() {
+        log.onProductChanged(new ProductChangedEvent(previous, current, changes));
+    }
+}
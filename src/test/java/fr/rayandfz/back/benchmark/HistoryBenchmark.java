@@ -0,0 +1,104 @@
+package fr.rayandfz.back.benchmark;
+
+import fr.rayandfz.back.history.ProductHistoryStore;
+import fr.rayandfz.back.model.Product;
+import fr.rayandfz.back.model.ProductHistory;
+import fr.rayandfz.back.model.ProductHistoryAggregate;
+import fr.rayandfz.back.model.ProductInventoryStatus;
+import fr.rayandfz.back.service.ProductChangedEvent;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the product history: the cost it adds to a PATCH, and the latency of range queries and
+ * downsampled aggregates over a product with {@code pointsPerProduct} change points.
+ * <p>
+ * {@code recordChange} is what the PATCH path pays: the event listener comparing the previous and current
+ * product, then handing the change to the writer thread. The setup prints the size of the segments per
+ * change point.
+ * </p>
+ * Run with {@code mvnw -Pbenchmark test-compile exec:exec -Djmh.args="HistoryBenchmark -f 1"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class HistoryBenchmark {
+    private static final int PRODUCTS = 100;
+    private static final long START = 1_700_000_000_000L;
+    private static final long STEP_MILLIS = 60_000;
+
+    @Param({"10000", "100000"})
+    public int pointsPerProduct;
+
+    private Path directory;
+    private ProductHistoryStore store;
+    private Product previous;
+    private Product current;
+    private long timestamp;
+    private long end;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("history-benchmark");
+        store = ProductHistoryStore.open(directory, 64 * 1024 * 1024, 256, 65_536, 60_000, "benchmark");
+        final SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < pointsPerProduct; i++) {
+            for (int product = 0; product < PRODUCTS; product++) {
+                store.record(product, START + i * STEP_MILLIS + random.nextInt(1_000),
+                        random.nextInt(10) == 0 ? 10.0 + random.nextInt(100) : 49.99, random.nextInt(200),
+                        ProductInventoryStatus.INSTOCK);
+            }
+        }
+        store.flush();
+        end = START + pointsPerProduct * STEP_MILLIS;
+        System.out.printf("%n%d points, %.2f bytes per point%n", store.getPointCount(), (double) store.getUsedBytes() / store.getPointCount());
+
+        previous = new Product();
+        previous.setId(PRODUCTS + 1L);
+        previous.setPrice(10.0);
+        previous.setQuantity(5);
+        previous.setInventoryStatus(ProductInventoryStatus.INSTOCK);
+        current = new Product(previous);
+        current.setQuantity(4);
+        timestamp = end;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        store.close();
+        try (var files = Files.list(directory)) {
+            for (final Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void recordChange() {
+        store.onProductChanged(new ProductChangedEvent(previous, current, timestamp++));
+    }
+
+    @Benchmark
+    public ProductHistory lastDayRange() {
+        return store.getHistory(7, end - TimeUnit.DAYS.toMillis(1), end);
+    }
+
+    @Benchmark
+    public ProductHistory fullRange() {
+        return store.getHistory(7, START, end);
+    }
+
+    @Benchmark
+    public ProductHistoryAggregate fullRangeHourly() {
+        return store.getAggregate(7, START, end, TimeUnit.HOURS.toMillis(1));
+    }
+}
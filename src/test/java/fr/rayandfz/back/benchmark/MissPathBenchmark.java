@@ -0,0 +1,75 @@
+package fr.rayandfz.back.benchmark;
+
+import fr.rayandfz.back.error.GlobalExceptionHandler;
+import fr.rayandfz.back.error.ProductNotFoundException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of the "product not found" path, from the throw in the service to the
+ * response body built by the exception handler.
+ * <p>
+ * {@code legacyMiss} reproduces the previous path: a plain {@link RuntimeException} filling in its stack
+ * trace, turned into a fresh {@link HashMap} body with a timestamp. {@code problemDetailMiss} goes through
+ * {@link ProductNotFoundException} and {@link GlobalExceptionHandler}. The exception is thrown
+ * {@code stackDepth} frames deep, as a Spring MVC request is, since filling in a stack trace costs
+ * proportionally to the depth.
+ * </p>
+ * Run with {@code mvnw -Pbenchmark test-compile exec:exec -Djmh.args="MissPathBenchmark -f 1"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class MissPathBenchmark {
+
+    @Param({"20", "120"})
+    public int stackDepth;
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+
+    private long id = 1;
+
+    @Benchmark
+    public Object legacyMiss() {
+        try {
+            throwAt(stackDepth, true);
+            return null;
+        } catch (RuntimeException ex) {
+            final Map<String, Object> body = new HashMap<>();
+            body.put("timestamp", LocalDateTime.now());
+            body.put("status", HttpStatus.INTERNAL_SERVER_ERROR.value());
+            body.put("message", "An unexpected error occurred ");
+            return new ResponseEntity<>(body, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @Benchmark
+    public Object problemDetailMiss() {
+        try {
+            throwAt(stackDepth, false);
+            return null;
+        } catch (ProductNotFoundException ex) {
+            return handler.handleApiException(ex, null);
+        }
+    }
+
+    private void throwAt(final int depth, final boolean legacy) {
+        if (depth > 0) {
+            throwAt(depth - 1, legacy);
+            return;
+        }
+        final long missingId = id++;
+        if (legacy) {
+            throw new RuntimeException("Product not found with id " + missingId);
+        }
+        throw ProductNotFoundException.forId(missingId);
+    }
+}
@@ -0,0 +1,98 @@
+package fr.rayandfz.back.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fr.rayandfz.back.BackApplication;
+import fr.rayandfz.back.model.Product;
+import fr.rayandfz.back.model.ProductCategory;
+import fr.rayandfz.back.model.ProductInventoryStatus;
+import fr.rayandfz.back.service.IProductService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares resolving a cart of products with one {@code GET /products/{id}} per product, fired in
+ * parallel as the cart and order services do today, with a single {@code POST /products/batch}.
+ * <p>
+ * A tenth of the requested ids do not exist, so both variants also pay for their miss path.
+ * </p>
+ * Run with {@code mvnw -Pbenchmark test-compile exec:exec -Djmh.args="MultiGetBenchmark -f 1"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class MultiGetBenchmark {
+
+    @Param({"20", "100", "200"})
+    public int batchSize;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+    private List<Long> ids;
+    private String batchBody;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = new SpringApplicationBuilder(BackApplication.class)
+                .properties("server.port=0", "spring.main.banner-mode=off", "logging.level.root=WARN")
+                .run();
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/products";
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+        final IProductService productService = context.getBean(IProductService.class);
+        ids = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            final Product product = new Product();
+            product.setCode("P" + i);
+            product.setName("Product " + i);
+            product.setDescription("Benchmark product " + i);
+            product.setPrice(1.0 + i);
+            product.setQuantity(i);
+            product.setInventoryStatus(ProductInventoryStatus.INSTOCK);
+            product.setCategory(ProductCategory.ACCESSORIES);
+            final long id = productService.createProduct(product).getId();
+            ids.add(i % 10 == 0 ? -id : id);
+        }
+        batchBody = context.getBean(ObjectMapper.class).writeValueAsString(ids);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int individualGets() {
+        final List<CompletableFuture<HttpResponse<byte[]>>> responses = new ArrayList<>(ids.size());
+        for (final Long id : ids) {
+            responses.add(client.sendAsync(HttpRequest.newBuilder(URI.create(baseUrl + "/" + id)).build(),
+                    HttpResponse.BodyHandlers.ofByteArray()));
+        }
+        int bytes = 0;
+        for (final CompletableFuture<HttpResponse<byte[]>> response : responses) {
+            bytes += response.join().body().length;
+        }
+        return bytes;
+    }
+
+    @Benchmark
+    public int batchGet() throws Exception {
+        final HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/batch"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(batchBody))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofByteArray()).body().length;
+    }
+}
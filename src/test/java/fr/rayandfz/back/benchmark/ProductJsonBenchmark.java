@@ -0,0 +1,85 @@
+package fr.rayandfz.back.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import fr.rayandfz.back.json.ProductJsonDeserializer;
+import fr.rayandfz.back.json.ProductJsonSerializer;
+import fr.rayandfz.back.model.Product;
+import fr.rayandfz.back.model.ProductCategory;
+import fr.rayandfz.back.model.ProductInventoryStatus;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the bean serializer and deserializer of Jackson with the specialized Product ones, through an
+ * object mapper configured like the one of the message converters.
+ * <p>
+ * {@code writeList} writes a page of {@code pageSize} products, as {@code GET /products} does, into a reused
+ * buffer. {@code readProduct} reads a POST body. Run with {@code -prof gc} to see the allocations per operation.
+ * </p>
+ * Run with {@code mvnw -Pbenchmark test-compile exec:exec -Djmh.args="ProductJsonBenchmark -f 1 -prof gc"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ProductJsonBenchmark {
+
+    @Param({"bean", "specialized"})
+    public String codec;
+
+    @Param({"100"})
+    public int pageSize;
+
+    private ObjectMapper mapper;
+    private ObjectReader productReader;
+    private List<Product> page;
+    private byte[] body;
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream(64 * 1024);
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        final Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        if ("specialized".equals(codec)) {
+            builder.serializers(new ProductJsonSerializer()).deserializers(new ProductJsonDeserializer());
+        }
+        mapper = builder.build();
+        productReader = mapper.readerFor(Product.class);
+        page = new ArrayList<>(pageSize);
+        for (long id = 1; id <= pageSize; id++) {
+            final Product product = new Product();
+            product.setId(id);
+            product.setCode("P" + id);
+            product.setName("Product " + id);
+            product.setDescription("Description of product " + id + ", a catalog entry of average length");
+            product.setPrice(10.0 + id % 500 + 0.99);
+            product.setQuantity((int) (id % 200));
+            product.setInventoryStatus(ProductInventoryStatus.values()[(int) (id % 3)]);
+            product.setCategory(ProductCategory.values()[(int) (id % 4)]);
+            product.setImage("product-" + id + ".jpg");
+            product.setRating(1.0 + id % 5);
+            page.add(product);
+        }
+        body = mapper.writeValueAsString(page.get(0)).replace("\"id\":1,", "").getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public int writeList() throws IOException {
+        output.reset();
+        mapper.writeValue(output, page);
+        return output.size();
+    }
+
+    @Benchmark
+    public Product readProduct() throws IOException {
+        return productReader.readValue(body);
+    }
+}
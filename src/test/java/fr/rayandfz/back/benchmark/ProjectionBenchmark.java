@@ -0,0 +1,86 @@
+package fr.rayandfz.back.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fr.rayandfz.back.BackApplication;
+import fr.rayandfz.back.model.Product;
+import fr.rayandfz.back.model.ProductCategory;
+import fr.rayandfz.back.model.ProductField;
+import fr.rayandfz.back.model.ProductInventoryStatus;
+import fr.rayandfz.back.service.IProductService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares a listing page serialized from full {@link Product} entities with the same page read
+ * through the {@code summary} projection, which skips the large description column.
+ * <p>
+ * The payload size of each variant is printed once during setup. Descriptions are as long as the
+ * default {@code VARCHAR(255)} column allows, so the gap only widens with larger descriptions.
+ * </p>
+ * Run with {@code mvnw -Pbenchmark test-compile exec:exec -Djmh.args="ProjectionBenchmark -f 1"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ProjectionBenchmark {
+
+    @Param({"255"})
+    public int descriptionLength;
+
+    @Param({"100"})
+    public int pageSize;
+
+    private ConfigurableApplicationContext context;
+    private IProductService productService;
+    private ObjectMapper objectMapper;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = new SpringApplicationBuilder(BackApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.main.banner-mode=off", "logging.level.root=WARN")
+                .run();
+        productService = context.getBean(IProductService.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+
+        final String description = "x".repeat(descriptionLength);
+        final ProductCategory[] categories = ProductCategory.values();
+        for (int i = 0; i < 5000; i++) {
+            final Product product = new Product();
+            product.setCode("P" + i);
+            product.setName("Product " + i);
+            product.setDescription(description);
+            product.setPrice(1.0 + i % 500);
+            product.setQuantity(i % 100);
+            product.setInventoryStatus(ProductInventoryStatus.INSTOCK);
+            product.setCategory(categories[i % categories.length]);
+            product.setImage("https://cdn.example.com/products/" + i + ".jpg");
+            product.setRating(i % 5 + 0.5);
+            productService.createProduct(product);
+        }
+
+        System.out.printf("%nPayload for a page of %d products: full entities %d bytes, summary projection %d bytes%n",
+                pageSize, fullEntities().length, summaryProjection().length);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] fullEntities() throws Exception {
+        return objectMapper.writeValueAsBytes(productService.getProducts(null, null, 3, pageSize));
+    }
+
+    @Benchmark
+    public byte[] summaryProjection() throws Exception {
+        return objectMapper.writeValueAsBytes(productService.getProductViews(ProductField.SUMMARY, null, null, 3, pageSize));
+    }
+}
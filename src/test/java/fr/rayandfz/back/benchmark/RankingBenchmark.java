@@ -0,0 +1,76 @@
+package fr.rayandfz.back.benchmark;
+
+import fr.rayandfz.back.model.Product;
+import fr.rayandfz.back.model.ProductCategory;
+import fr.rayandfz.back.model.ProductInventoryStatus;
+import fr.rayandfz.back.ranking.ProductRankings;
+import fr.rayandfz.back.service.ProductChangedEvent;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the top 10 of a category computed by sorting the whole catalog, as the home page did, with the
+ * incrementally maintained {@link ProductRankings}, and measures the cost a write adds to keep them up to date.
+ * The rankings only return ids: the batch lookup of the ten products that follows is not measured.
+ * Run with {@code mvnw -Pbenchmark test-compile exec:exec -Djmh.args="RankingBenchmark -f 1"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RankingBenchmark {
+    private static final ProductCategory[] CATEGORIES = ProductCategory.values();
+    private static final ProductInventoryStatus[] STATUSES = ProductInventoryStatus.values();
+
+    @Param({"10000", "100000"})
+    public int products;
+
+    private List<Product> catalog;
+    private ProductRankings rankings;
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        catalog = new ArrayList<>(products);
+        for (long id = 1; id <= products; id++) {
+            catalog.add(product(id));
+        }
+        rankings = new ProductRankings(catalog);
+    }
+
+    @Benchmark
+    public List<Product> sortCatalog() {
+        return catalog.stream()
+                .filter(product -> product.getCategory() == ProductCategory.FITNESS && product.getRating() != null)
+                .sorted(Comparator.comparing(Product::getRating).reversed().thenComparing(Product::getId))
+                .limit(10)
+                .toList();
+    }
+
+    @Benchmark
+    public List<Long> readRanking() {
+        return rankings.getTopRated(ProductCategory.FITNESS, 10);
+    }
+
+    @Benchmark
+    public void updateRanking() {
+        final Product product = product(1 + random.nextInt(products));
+        rankings.onProductChanged(new ProductChangedEvent(null, product));
+    }
+
+    private Product product(final long id) {
+        final Product product = new Product();
+        product.setId(id);
+        product.setCategory(CATEGORIES[(int) (id % CATEGORIES.length)]);
+        product.setInventoryStatus(STATUSES[random.nextInt(STATUSES.length)]);
+        product.setRating(random.nextInt(51) / 10.0);
+        product.setPrice(1.0 + random.nextInt(50_000) / 100.0);
+        return product;
+    }
+}
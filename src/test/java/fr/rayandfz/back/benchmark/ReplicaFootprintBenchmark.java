@@ -0,0 +1,148 @@
+package fr.rayandfz.back.benchmark;
+
+import fr.rayandfz.back.model.Product;
+import fr.rayandfz.back.model.ProductCategory;
+import fr.rayandfz.back.model.ProductInventoryStatus;
+import fr.rayandfz.back.replica.CatalogReplica;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares a catalog of {@code products} entities held on the heap, as a {@link HashMap} by id, with the
+ * same catalog in the off-heap {@link CatalogReplica}.
+ * <p>
+ * {@code readMostly} reads a random product, and replaces one every tenth call, as the service would on a
+ * PATCH. Each trial runs in a JVM limited to a 2 GB heap, and prints the heap still used after a full
+ * collection once the catalog is loaded, then the number and total time of the collections that ran
+ * during the measurement. Add {@code -prof gc} for the allocation rate.
+ * </p>
+ * Run with {@code mvnw -Pbenchmark test-compile exec:exec -Djmh.args="ReplicaFootprintBenchmark -f 1"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class ReplicaFootprintBenchmark {
+    private static final ProductCategory[] CATEGORIES = ProductCategory.values();
+    private static final ProductInventoryStatus[] STATUSES = ProductInventoryStatus.values();
+
+    @Param({"1000000"})
+    public int products;
+
+    @Param({"heap", "replica"})
+    public String store;
+
+    private Map<Long, Product> heap;
+    private CatalogReplica replica;
+    private Path directory;
+    private final SplittableRandom random = new SplittableRandom(42);
+    private long collections;
+    private long collectionMillis;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        if ("heap".equals(store)) {
+            heap = new HashMap<>(products * 2);
+            for (long id = 1; id <= products; id++) {
+                heap.put(id, product(id, 0));
+            }
+        } else {
+            directory = Files.createTempDirectory("replica-benchmark");
+            replica = CatalogReplica.create(directory, 65_536, 16 * 1024 * 1024, 1_000);
+            for (long id = 1; id <= products; id++) {
+                replica.put(product(id, 0));
+            }
+        }
+        System.gc();
+        final Runtime runtime = Runtime.getRuntime();
+        System.out.printf("%n%s: %d MB of heap used after loading %d products%n",
+                store, (runtime.totalMemory() - runtime.freeMemory()) >> 20, products);
+    }
+
+    @Setup(Level.Iteration)
+    public void startIteration() {
+        collections = -collectionCount();
+        collectionMillis = -collectionMillis();
+    }
+
+    @TearDown(Level.Iteration)
+    public void endIteration() {
+        collections += collectionCount();
+        collectionMillis += collectionMillis();
+        System.out.printf(" %d collections in %d ms, ", collections, collectionMillis);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (replica != null) {
+            replica.close();
+            try (var files = Files.list(directory)) {
+                for (final Path file : files.toList()) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(directory);
+        }
+    }
+
+    @Benchmark
+    public void readMostly(final Blackhole blackhole) {
+        final long id = 1 + random.nextInt(products);
+        if (random.nextInt(10) == 0) {
+            final Product product = product(id, random.nextInt(1_000));
+            if (heap != null) {
+                heap.put(id, product);
+            } else {
+                replica.put(product);
+            }
+            return;
+        }
+        final Product product = heap != null ? heap.get(id) : replica.get(id);
+        blackhole.consume(product.getName());
+        blackhole.consume(product.getPrice());
+        blackhole.consume(product.getInventoryStatus());
+    }
+
+    private static Product product(final long id, final int version) {
+        final Product product = new Product();
+        product.setId(id);
+        product.setCode("P" + id);
+        product.setName("Product " + id);
+        product.setDescription("Description of product " + id + ", a catalog entry of average length");
+        product.setPrice(10.0 + id % 500 + version / 100.0);
+        product.setQuantity((int) (id % 200));
+        product.setInventoryStatus(STATUSES[(int) (id % STATUSES.length)]);
+        product.setCategory(CATEGORIES[(int) (id % CATEGORIES.length)]);
+        product.setImage("product-" + id + ".jpg");
+        product.setRating(1.0 + id % 5);
+        return product;
+    }
+
+    private static long collectionCount() {
+        long count = 0;
+        for (final GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += collector.getCollectionCount();
+        }
+        return count;
+    }
+
+    private static long collectionMillis() {
+        long millis = 0;
+        for (final GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += collector.getCollectionTime();
+        }
+        return millis;
+    }
+}
@@ -0,0 +1,88 @@
+package fr.rayandfz.back.benchmark;
+
+import fr.rayandfz.back.model.Product;
+import fr.rayandfz.back.model.ProductCategory;
+import fr.rayandfz.back.model.ProductInventoryStatus;
+import fr.rayandfz.back.service.ShardedProductService;
+import fr.rayandfz.back.shard.ProductShards;
+import fr.rayandfz.back.shard.ShardIdAllocator;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures how the sharded catalog behaves as the shard count grows.
+ * <p>
+ * Point lookups should stay flat, while full scans and filtered pages are fanned out in parallel and
+ * should get cheaper per shard as the catalog is split further.
+ * </p>
+ * Run with {@code mvnw -Pbenchmark test-compile exec:exec -Djmh.args="ShardScalingBenchmark -f 1"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ShardScalingBenchmark {
+
+    @Param({"1", "2", "4", "8"})
+    public int shardCount;
+
+    @Param({"50000"})
+    public int productCount;
+
+    private Path directory;
+    private ProductShards shards;
+    private ShardedProductService productService;
+    private long maxId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("shard-bench");
+        shards = ProductShards.open(directory, shardCount, 4);
+        productService = new ShardedProductService(shards, new ShardIdAllocator(shards, 1000), event -> { });
+
+        final ProductCategory[] categories = ProductCategory.values();
+        for (int i = 0; i < productCount; i++) {
+            final Product product = new Product();
+            product.setCode("P" + i);
+            product.setName("Product " + i);
+            product.setDescription("Benchmark product " + i);
+            product.setPrice(1.0 + i % 500);
+            product.setQuantity(i % 100);
+            product.setInventoryStatus(ProductInventoryStatus.INSTOCK);
+            product.setCategory(categories[i % categories.length]);
+            maxId = productService.createProduct(product).getId();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        shards.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public Product pointLookup() {
+        return productService.getProductById(ThreadLocalRandom.current().nextLong(1, maxId + 1));
+    }
+
+    @Benchmark
+    public Collection<Product> filteredPage() {
+        return productService.getProducts(ProductCategory.FITNESS, null, 10, 50);
+    }
+
+    @Benchmark
+    public Collection<Product> fullScan() {
+        return productService.getAllProducts();
+    }
+}
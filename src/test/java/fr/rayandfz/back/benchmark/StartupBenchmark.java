@@ -0,0 +1,134 @@
+package fr.rayandfz.back.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Compares the startup of the regular executable jar with the startup-optimized artifact built by the
+ * {@code fast-startup} Maven profile (Spring AOT and a class-data-sharing archive).
+ * <p>
+ * Each run starts a fresh JVM, measures the time until the first successful {@code GET /products}, reads the
+ * resident set size of the process at that moment from {@code /proc} (Linux only), then stops the process.
+ * This is a process-level measurement rather than a JMH benchmark, as every sample needs a cold JVM.
+ * </p>
+ * Build both artifacts and run with:
+ * <pre>
+ * mvnw -Pfast-startup package -DskipTests
+ * mvnw test-compile
+ * java -cp target/test-classes fr.rayandfz.back.benchmark.StartupBenchmark [runs]
+ * </pre>
+ */
+public final class StartupBenchmark {
+    private static final Path TARGET = Path.of("target");
+    private static final Path FAST_STARTUP = TARGET.resolve("fast-startup");
+
+    private StartupBenchmark() {
+    }
+
+    public static void main(final String[] args) throws Exception {
+        final int runs = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        final Path jar = findJar();
+        if (!Files.exists(FAST_STARTUP.resolve("app.jsa"))) {
+            throw new IllegalStateException("Run 'mvnw -Pfast-startup package' first: no " + FAST_STARTUP.resolve("app.jsa"));
+        }
+
+        final List<Sample> regular = new ArrayList<>();
+        final List<Sample> optimized = new ArrayList<>();
+        for (int run = 0; run < runs; run++) {
+            regular.add(measure(TARGET.toFile(), List.of("-jar", TARGET.relativize(jar).toString())));
+            optimized.add(measure(FAST_STARTUP.resolve("app").toFile(), List.of(
+                    "-XX:SharedArchiveFile=../app.jsa", "-Dspring.aot.enabled=true",
+                    "-cp", "application.jar" + File.pathSeparator + "lib/*", "fr.rayandfz.back.BackApplication")));
+        }
+
+        System.out.printf("%-22s %14s %14s %14s%n", "artifact", "median (ms)", "min (ms)", "median RSS (MB)");
+        report("executable jar", regular);
+        report("AOT + CDS", optimized);
+    }
+
+    private static Sample measure(final File directory, final List<String> launchArgs) throws Exception {
+        final int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        final List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(launchArgs);
+        command.add("--server.port=" + port);
+
+        final HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(200))
+                .build();
+        final HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/products")).build();
+
+        final long start = System.nanoTime();
+        final Process process = new ProcessBuilder(command)
+                .directory(directory)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            while (process.isAlive()) {
+                try {
+                    if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        final long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+                        return new Sample(elapsedMillis, residentSetMegabytes(process.pid()));
+                    }
+                } catch (IOException notListeningYet) {
+                    Thread.sleep(5);
+                }
+            }
+            throw new IllegalStateException("Application exited with code " + process.exitValue() + ": " + command);
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private static long residentSetMegabytes(final long pid) throws IOException {
+        final Path status = Path.of("/proc", Long.toString(pid), "status");
+        if (!Files.exists(status)) {
+            return -1;
+        }
+        for (final String line : Files.readAllLines(status)) {
+            if (line.startsWith("VmRSS:")) {
+                return Long.parseLong(line.replaceAll("\\D", "")) / 1024;
+            }
+        }
+        return -1;
+    }
+
+    private static Path findJar() throws IOException {
+        try (var files = Files.list(TARGET)) {
+            return files.filter(path -> path.toString().endsWith("-SNAPSHOT.jar")).findFirst()
+                    .orElseThrow(() -> new IllegalStateException("Run 'mvnw package' first: no jar in " + TARGET));
+        }
+    }
+
+    private static void report(final String name, final List<Sample> samples) {
+        final List<Long> millis = new ArrayList<>();
+        final List<Long> rss = new ArrayList<>();
+        for (final Sample sample : samples) {
+            millis.add(sample.millis);
+            rss.add(sample.rssMegabytes);
+        }
+        Collections.sort(millis);
+        Collections.sort(rss);
+        System.out.printf("%-22s %14d %14d %14d%n", name, millis.get(millis.size() / 2), millis.get(0), rss.get(rss.size() / 2));
+    }
+
+    private record Sample(long millis, long rssMegabytes) {
+    }
+}
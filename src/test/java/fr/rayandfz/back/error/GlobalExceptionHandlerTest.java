@@ -0,0 +1,90 @@
+package fr.rayandfz.back.error;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.MissingRequestHeaderException;
+import org.springframework.web.bind.MissingServletRequestParameterException;
+import org.springframework.web.servlet.resource.NoResourceFoundException;
+
+import java.net.URI;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GlobalExceptionHandlerTest {
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+
+    @Test
+    void testProductNotFound_IsStackless404Problem() {
+        ProductNotFoundException ex = ProductNotFoundException.forId(7L);
+
+        ResponseEntity<Object> response = handler.handleApiException(ex, null);
+
+        assertEquals(0, ex.getStackTrace().length);
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        ProblemDetail problem = (ProblemDetail) response.getBody();
+        assertEquals(404, problem.getStatus());
+        assertEquals(URI.create("/problems/not-found"), problem.getType());
+        assertEquals("Product not found", problem.getTitle());
+        assertEquals("Product not found with id 7", problem.getDetail());
+    }
+
+    @Test
+    void testDuplicateCode_Is409Problem() {
+        ResponseEntity<Object> response = handler.handleApiException(new DuplicateProductCodeException("A"), null);
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals(URI.create("/problems/conflict"), ((ProblemDetail) response.getBody()).getType());
+    }
+
+    @Test
+    void testNullBatchItem_Is400Problem() {
+        ResponseEntity<Object> response = handler.handleApiException(new NullBatchItemException(2), null);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals(URI.create("/problems/bad-request"), ((ProblemDetail) response.getBody()).getType());
+        assertEquals("Batch item at index 2 is null", ((ProblemDetail) response.getBody()).getDetail());
+    }
+
+    @Test
+    void testSpringErrorResponse_KeepsItsStatus() {
+        ResponseEntity<Object> response = handler.handleAllExceptions(new NoResourceFoundException(HttpMethod.GET, "robots.txt"), null);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    @Test
+    void testMissingParameter_IsBadRequestProblem() {
+        ResponseEntity<Object> response = handler.handleMissingParameter(
+                new MissingServletRequestParameterException("bucket", "Duration"), null);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        ProblemDetail problem = (ProblemDetail) response.getBody();
+        assertEquals(URI.create("/problems/bad-request"), problem.getType());
+        assertEquals("Bad request", problem.getTitle());
+        assertEquals("Missing required parameter 'bucket'", problem.getDetail());
+    }
+
+    @Test
+    void testSpringBadRequest_IsBadRequestProblem() {
+        ResponseEntity<Object> response = handler.handleAllExceptions(
+                new MissingRequestHeaderException("X-User", null), null);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        ProblemDetail problem = (ProblemDetail) response.getBody();
+        assertEquals(URI.create("/problems/bad-request"), problem.getType());
+        assertEquals("Bad request", problem.getTitle());
+        assertNotNull(problem.getDetail());
+    }
+
+    @Test
+    void testUnexpectedException_Is500ProblemWithoutDetails() {
+        ResponseEntity<Object> response = handler.handleAllExceptions(new IllegalStateException("secret"), null);
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+        assertEquals("An unexpected error occurred", ((ProblemDetail) response.getBody()).getDetail());
+    }
+}
@@ -0,0 +1,223 @@
+package fr.rayandfz.back.history;
+
+import fr.rayandfz.back.error.InvalidHistoryQueryException;
+import fr.rayandfz.back.model.Product;
+import fr.rayandfz.back.model.ProductHistory;
+import fr.rayandfz.back.model.ProductHistoryAggregate;
+import fr.rayandfz.back.model.ProductInventoryStatus;
+import fr.rayandfz.back.service.ProductChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for ProductHistoryStore, writing small segments to a temporary directory.
+ */
+public class ProductHistoryStoreTest {
+
+    private static final int SEGMENT_SIZE = 4096;
+    private static final int BLOCK_POINTS = 16;
+    private static final String CATALOG_ID = "catalog-1";
+
+    @TempDir
+    Path directory;
+
+    private ProductHistoryStore store;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        store = open();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        store.close();
+    }
+
+    private ProductHistoryStore open() throws IOException {
+        return open(CATALOG_ID);
+    }
+
+    private ProductHistoryStore open(final String catalogId) throws IOException {
+        return ProductHistoryStore.open(directory, SEGMENT_SIZE, BLOCK_POINTS, 1024, 60_000, catalogId);
+    }
+
+    private static Product product(final long id, final double price, final int quantity, final ProductInventoryStatus status) {
+        Product product = new Product();
+        product.setId(id);
+        product.setCode("P" + id);
+        product.setPrice(price);
+        product.setQuantity(quantity);
+        product.setInventoryStatus(status);
+        return product;
+    }
+
+    // Waits for the writer thread to take the queued changes, without sealing the buffered points like flush does
+    private void awaitPointCount(final long count) {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (store.getPointCount() < count) {
+            if (System.nanoTime() - deadline > 0) {
+                fail("Expected " + count + " points within 5 s, got " + store.getPointCount());
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Tests that points are returned in time order and filtered by range, whether buffered or sealed.
+     */
+    @Test
+    public void testGetHistory_Range() throws IOException {
+        for (int i = 0; i < 40; i++) {
+            store.record(1L, 1_000 + i * 10L, 10.0 + i, 100 - i, ProductInventoryStatus.INSTOCK);
+        }
+        store.record(2L, 1_000, 5.0, 1, ProductInventoryStatus.LOWSTOCK);
+        store.flush();
+        // Recorded slightly out of order, as concurrent requests may be
+        store.record(1L, 1_395, 99.5, 3, ProductInventoryStatus.LOWSTOCK);
+        awaitPointCount(42);
+
+        ProductHistory history = store.getHistory(1L, 1_100, 1_400);
+
+        assertEquals(31, history.getTimestamps().length);
+        assertEquals(1_100, history.getTimestamps()[0]);
+        assertEquals(1_390, history.getTimestamps()[29]);
+        assertEquals(1_395, history.getTimestamps()[30]);
+        assertEquals(20.0, history.getPrices()[0]);
+        assertEquals(90, history.getQuantities()[0]);
+        assertEquals(99.5, history.getPrices()[30]);
+        assertEquals(ProductInventoryStatus.LOWSTOCK, history.getStatuses()[30]);
+        assertEquals(0, store.getHistory(3L, 0, Long.MAX_VALUE).getTimestamps().length);
+    }
+
+    /**
+     * Tests downsampling into buckets aligned on the start of the range.
+     */
+    @Test
+    public void testGetAggregate() throws IOException {
+        store.record(1L, 0, 10.0, 5, ProductInventoryStatus.INSTOCK);
+        store.record(1L, 400, 20.0, 3, ProductInventoryStatus.INSTOCK);
+        store.record(1L, 999, 30.0, 0, ProductInventoryStatus.OUTOFSTOCK);
+        store.record(1L, 2_500, 25.0, 8, ProductInventoryStatus.INSTOCK);
+        store.flush();
+
+        ProductHistoryAggregate aggregate = store.getAggregate(1L, 0, 10_000, 1_000);
+
+        assertArrayEquals(new long[]{0, 2_000}, aggregate.getBucketStarts());
+        assertArrayEquals(new int[]{3, 1}, aggregate.getCounts());
+        assertArrayEquals(new double[]{10.0, 25.0}, aggregate.getMinPrices());
+        assertArrayEquals(new double[]{30.0, 25.0}, aggregate.getMaxPrices());
+        assertArrayEquals(new double[]{20.0, 25.0}, aggregate.getAveragePrices());
+        assertArrayEquals(new double[]{30.0, 25.0}, aggregate.getLastPrices());
+        assertArrayEquals(new int[]{0, 8}, aggregate.getMinQuantities());
+        assertArrayEquals(new int[]{5, 8}, aggregate.getMaxQuantities());
+        assertArrayEquals(new int[]{0, 8}, aggregate.getLastQuantities());
+        assertArrayEquals(new ProductInventoryStatus[]{ProductInventoryStatus.OUTOFSTOCK, ProductInventoryStatus.INSTOCK},
+                aggregate.getLastStatuses());
+    }
+
+    /**
+     * Tests that the history spans several segments, is compact, and is recovered after a restart.
+     */
+    @Test
+    public void testReopen_RecoversSegments() throws IOException {
+        final int points = 2_000;
+        for (int i = 0; i < points; i++) {
+            store.record(i % 4, 1_700_000_000_000L + i * 1_000L, i % 7 == 0 ? 19.99 + i : 19.99, 50 - i % 5,
+                    ProductInventoryStatus.INSTOCK);
+        }
+        store.flush();
+        assertTrue(Files.exists(directory.resolve("history-000001.seg")));
+        assertTrue((double) store.getUsedBytes() / points < 21, "Encoded points must be smaller than raw ones");
+        store.close();
+
+        store = open();
+
+        assertEquals(points, store.getPointCount());
+        ProductHistory history = store.getHistory(3L, 0, Long.MAX_VALUE);
+        assertEquals(points / 4, history.getTimestamps().length);
+        assertEquals(1_700_000_003_000L, history.getTimestamps()[0]);
+        assertEquals(19.99, history.getPrices()[0]);
+        assertEquals(47, history.getQuantities()[0]);
+    }
+
+    /**
+     * Tests that only creations and changes of price, quantity or status are recorded.
+     */
+    @Test
+    public void testOnProductChanged() throws IOException {
+        Product created = product(7L, 10.0, 5, ProductInventoryStatus.INSTOCK);
+        Product renamed = new Product(created);
+        renamed.setName("Renamed");
+        Product restocked = new Product(renamed);
+        restocked.setQuantity(50);
+
+        store.onProductChanged(new ProductChangedEvent(null, created, 1_000));
+        store.onProductChanged(new ProductChangedEvent(created, renamed, 2_000));
+        store.onProductChanged(new ProductChangedEvent(renamed, restocked, 3_000));
+        store.flush();
+
+        ProductHistory history = store.getHistory(7L, 0, Long.MAX_VALUE);
+        assertArrayEquals(new long[]{1_000, 3_000}, history.getTimestamps());
+        assertArrayEquals(new int[]{5, 50}, history.getQuantities());
+    }
+
+    /**
+     * Tests that deleting a product drops its history, including the blocks already written, for good.
+     */
+    @Test
+    public void testDelete_DropsHistory() throws IOException {
+        Product deleted = product(7L, 10.0, 5, ProductInventoryStatus.INSTOCK);
+        for (int i = 0; i < 3 * BLOCK_POINTS; i++) {
+            store.record(7L, 1_000 + i, 10.0 + i, 5, ProductInventoryStatus.INSTOCK);
+            store.record(8L, 1_000 + i, 20.0 + i, 5, ProductInventoryStatus.INSTOCK);
+        }
+        store.flush();
+        store.record(7L, 5_000, 99.0, 1, ProductInventoryStatus.LOWSTOCK);
+
+        store.onProductChanged(new ProductChangedEvent(deleted, null, 6_000));
+        store.record(7L, 7_000, 98.0, 1, ProductInventoryStatus.LOWSTOCK);
+        store.flush();
+
+        assertEquals(0, store.getHistory(7L, 0, Long.MAX_VALUE).getTimestamps().length);
+        store.close();
+        store = open();
+        assertEquals(0, store.getHistory(7L, 0, Long.MAX_VALUE).getTimestamps().length);
+        assertEquals(3 * BLOCK_POINTS, store.getHistory(8L, 0, Long.MAX_VALUE).getTimestamps().length);
+        assertEquals(3 * BLOCK_POINTS, store.getPointCount());
+    }
+
+    /**
+     * Tests that a history recorded for another catalog, whose product ids may be reused, is discarded.
+     */
+    @Test
+    public void testOpen_OtherCatalog() throws IOException {
+        store.record(1L, 1_000, 10.0, 5, ProductInventoryStatus.INSTOCK);
+        store.close();
+
+        store = open(CATALOG_ID);
+        assertEquals(1, store.getPointCount());
+        store.close();
+        store = open("catalog-2");
+
+        assertEquals(0, store.getPointCount());
+        assertEquals(0, store.getHistory(1L, 0, Long.MAX_VALUE).getTimestamps().length);
+    }
+
+    /**
+     * Tests that empty ranges and invalid buckets are rejected.
+     */
+    @Test
+    public void testInvalidQueries() {
+        assertThrows(InvalidHistoryQueryException.class, () -> store.getHistory(1L, 10, 10));
+        assertThrows(InvalidHistoryQueryException.class, () -> store.getAggregate(1L, 0, 10, 0));
+    }
+}
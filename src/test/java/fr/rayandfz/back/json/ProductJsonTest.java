@@ -0,0 +1,129 @@
+package fr.rayandfz.back.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import fr.rayandfz.back.error.GlobalExceptionHandler;
+import fr.rayandfz.back.model.Product;
+import fr.rayandfz.back.model.ProductCategory;
+import fr.rayandfz.back.model.ProductInventoryStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.MockHttpInputMessage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the specialized Product serializer and deserializer, compared with the bean ones of Jackson.
+ */
+public class ProductJsonTest {
+
+    private final ObjectMapper beanMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private final ObjectMapper specializedMapper = Jackson2ObjectMapperBuilder.json()
+            .serializers(new ProductJsonSerializer())
+            .deserializers(new ProductJsonDeserializer())
+            .build();
+
+    private static Product product(final long id) {
+        Product product = new Product();
+        product.setId(id);
+        product.setCode("P" + id);
+        product.setName("Lampe \"design\" \u00e9t\u00e9 \uD83D\uDCA1");
+        product.setDescription("Line one\nLine two\t\u0001 back\\slash");
+        product.setPrice(12.99);
+        product.setQuantity(3);
+        product.setInventoryStatus(ProductInventoryStatus.LOWSTOCK);
+        product.setCategory(ProductCategory.ELECTRONICS);
+        product.setImage("lamp.png");
+        product.setRating(4.5);
+        return product;
+    }
+
+    /**
+     * Tests that products and lists of products are written exactly like the bean serializer writes them.
+     */
+    @Test
+    public void testSerializationMatchesBeanSerializer() throws Exception {
+        List<Product> products = new ArrayList<>();
+        products.add(product(1));
+        products.add(new Product());
+        SplittableRandom random = new SplittableRandom(42);
+        for (long id = 2; id < 1_000; id++) {
+            Product product = product(id);
+            product.setPrice(random.nextInt(1_000_000) / 100.0);
+            product.setRating(random.nextInt(51) / 10.0);
+            product.setQuantity(random.nextInt() % 1000);
+            products.add(product);
+        }
+
+        assertEquals(beanMapper.writeValueAsString(products), specializedMapper.writeValueAsString(products));
+    }
+
+    /**
+     * Tests that doubles are formatted like Double.toString, or left to the caller.
+     */
+    @Test
+    public void testFormatDouble() {
+        char[] buffer = new char[JsonNumbers.BUFFER_SIZE];
+        for (double value : new double[]{0.0, -0.0, 1.0, 0.1, 0.3, 12.5, -7.25, 0.001, 9_999_999.99, 4.0, 1234.5678}) {
+            int length = JsonNumbers.formatDouble(value, buffer);
+            assertEquals(Double.toString(value), new String(buffer, 0, length));
+        }
+        assertEquals(-1, JsonNumbers.formatDouble(1e7, buffer));
+        assertEquals(-1, JsonNumbers.formatDouble(1e-4, buffer));
+        assertEquals(-1, JsonNumbers.formatDouble(Math.PI, buffer));
+        assertEquals(-1, JsonNumbers.formatDouble(Double.NaN, buffer));
+
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < 100_000; i++) {
+            double value = random.nextLong(1_000_000_000_000L) / Math.pow(10, random.nextInt(9));
+            int length = JsonNumbers.formatDouble(value, buffer);
+            if (length >= 0) {
+                assertEquals(value, Double.parseDouble(new String(buffer, 0, length)));
+            }
+        }
+    }
+
+    /**
+     * Tests that request bodies are read like the bean deserializer reads them, coercions and unknown properties included.
+     */
+    @Test
+    public void testDeserializationMatchesBeanDeserializer() throws Exception {
+        String json = "{\"code\":\"P1\",\"name\":\"Lamp\",\"unknown\":{\"nested\":[1,2]},\"description\":\"Desk \\u00e9\","
+                + "\"price\":\"12.5\",\"quantity\":3,\"inventoryStatus\":\"INSTOCK\",\"category\":\"FITNESS\","
+                + "\"image\":null,\"rating\":4,\"id\":7}";
+
+        Product expected = beanMapper.readValue(json, Product.class);
+        Product actual = specializedMapper.readValue(json, Product.class);
+
+        assertEquals(beanMapper.writeValueAsString(expected), beanMapper.writeValueAsString(actual));
+        assertEquals(12.5, actual.getPrice());
+        assertEquals(ProductCategory.FITNESS, actual.getCategory());
+    }
+
+    /**
+     * Tests that invalid values still produce the exceptions the exception handler maps to problem details.
+     */
+    @Test
+    public void testInvalidValues() {
+        InvalidFormatException category = assertThrows(InvalidFormatException.class,
+                () -> specializedMapper.readValue("{\"category\":\"TOYS\"}", Product.class));
+        assertEquals(ProductCategory.class, category.getTargetType());
+        InvalidFormatException status = assertThrows(InvalidFormatException.class,
+                () -> specializedMapper.readValue("{\"inventoryStatus\":\"SOLD\"}", Product.class));
+        assertEquals(ProductInventoryStatus.class, status.getTargetType());
+        assertThrows(MismatchedInputException.class, () -> specializedMapper.readValue("[1]", Product.class));
+        assertThrows(MismatchedInputException.class, () -> specializedMapper.readValue("{\"name\":[\"a\"]}", Product.class));
+
+        ProblemDetail problem = (ProblemDetail) new GlobalExceptionHandler().handleHttpMessageNotReadable(
+                new HttpMessageNotReadableException("Invalid body", category, new MockHttpInputMessage(new byte[0])), null).getBody();
+        assertTrue(problem.getDetail().startsWith("Invalid category: TOYS"));
+    }
+}
@@ -0,0 +1,79 @@
+package fr.rayandfz.back.loadtest;
+
+import fr.rayandfz.back.BackApplication;
+import fr.rayandfz.back.model.Product;
+import fr.rayandfz.back.model.ProductCategory;
+import fr.rayandfz.back.model.ProductInventoryStatus;
+import fr.rayandfz.back.service.IProductService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.http.HttpClient;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Load test of the product API against an embedded instance of the application.
+ * <p>
+ * It is excluded from the regular build and only runs with the {@code load-test} profile, which also sets
+ * the latency objectives; the run fails when one of them is missed. The report and the latency histograms
+ * are written to {@code target/load-test}.
+ * </p>
+ * Run with {@code mvnw -Pload-test test}, or e.g. {@code mvnw -Pload-test test -Dloadtest.rate=300 -Dloadtest.slo.get.p99=20}.
+ */
+@Tag("load")
+public class CatalogLoadTest {
+
+    /**
+     * Seeds the catalog, replays the configured traffic and checks the latency, error rate and throughput objectives.
+     *
+     * @throws Exception if the application cannot start or the report cannot be written
+     */
+    @Test
+    void productApiMeetsObjectivesUnderLoad() throws Exception {
+        final LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BackApplication.class)
+                .properties("server.port=0", "spring.main.banner-mode=off", "logging.level.root=WARN")
+                .run()) {
+            final List<Product> hotSet = seed(context.getBean(IProductService.class), settings);
+            final String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/products";
+            final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+            final LatencyReport report = new OpenLoopDriver(client, baseUrl, settings, hotSet).run();
+            report.print(System.out);
+            report.write(settings.getReportDirectory());
+
+            final List<String> violations = report.violations(settings);
+            assertTrue(violations.isEmpty(), () -> "Service level objectives missed:\n" + String.join("\n", violations));
+        }
+    }
+
+    // Products are created through the service rather than the API, so seeding does not warm up the web layer
+    private static List<Product> seed(final IProductService productService, final LoadTestSettings settings) {
+        final Random random = new Random(settings.getSeed());
+        final ProductCategory[] categories = ProductCategory.values();
+        final ProductInventoryStatus[] statuses = ProductInventoryStatus.values();
+        final List<Product> products = new ArrayList<>(settings.getProductCount());
+        for (int i = 0; i < settings.getProductCount(); i++) {
+            final Product product = new Product();
+            product.setCode("SEED-" + i);
+            product.setName("Seeded product " + i);
+            product.setDescription("Seeded by the load test");
+            product.setPrice(1.0 + random.nextInt(50_000) / 100.0);
+            product.setQuantity(random.nextInt(100));
+            product.setInventoryStatus(statuses[random.nextInt(statuses.length)]);
+            product.setCategory(categories[random.nextInt(categories.length)]);
+            product.setRating(random.nextInt(51) / 10.0);
+            products.add(productService.createProduct(product));
+        }
+        // Popularity is unrelated to the id, as in a real catalog
+        Collections.shuffle(products, random);
+        return products;
+    }
+}
@@ -0,0 +1,227 @@
+package fr.rayandfz.back.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies, errors and throughput of a load test run, per operation and overall.
+ * <p>
+ * Latencies are recorded in microseconds in HDR histograms, which keep three significant digits from one
+ * microsecond up to a minute, so the tail percentiles are exact rather than averaged away.
+ * </p>
+ */
+public final class LatencyReport {
+    private static final long HIGHEST_TRACKABLE_MICROS = Duration.ofMinutes(1).toNanos() / 1000;
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+    private final Map<Operation, AtomicLong> errors = new EnumMap<>(Operation.class);
+    private final Histogram overall = newHistogram();
+    private final Map<String, LongAdder> errorCauses = new ConcurrentHashMap<>();
+    private final LongAdder completedInWindow = new LongAdder();
+    private final double targetRate;
+    private Duration measuredDuration = Duration.ZERO;
+
+    /**
+     * Constructs an empty report.
+     *
+     * @param targetRate the number of requests per second the run tried to start
+     */
+    public LatencyReport(final double targetRate) {
+        this.targetRate = targetRate;
+        for (final Operation operation : Operation.values()) {
+            this.histograms.put(operation, newHistogram());
+            this.errors.put(operation, new AtomicLong());
+        }
+    }
+
+    /**
+     * Records the latency of a successful request, measured from the time it was scheduled to start.
+     *
+     * @param operation    the operation
+     * @param latencyNanos the latency in nanoseconds
+     */
+    public void recordSuccess(final Operation operation, final long latencyNanos) {
+        final long micros = Math.min(HIGHEST_TRACKABLE_MICROS, Math.max(1, latencyNanos / 1000));
+        this.histograms.get(operation).recordValue(micros);
+        this.overall.recordValue(micros);
+    }
+
+    /**
+     * Records a failed request.
+     *
+     * @param operation the operation
+     * @param cause     a short description of the failure, such as the HTTP status
+     */
+    public void recordError(final Operation operation, final String cause) {
+        this.errors.get(operation).incrementAndGet();
+        this.errorCauses.computeIfAbsent(operation + " " + cause, key -> new LongAdder()).increment();
+    }
+
+    /**
+     * Counts a successful request that completed within the measured phase, for the throughput.
+     */
+    public void recordCompletionInWindow() {
+        this.completedInWindow.increment();
+    }
+
+    /**
+     * Sets the duration of the measured phase, once the run is over.
+     *
+     * @param measuredDuration the duration of the measured phase
+     */
+    public void setMeasuredDuration(final Duration measuredDuration) {
+        this.measuredDuration = measuredDuration;
+    }
+
+    /**
+     * Gets the latency histogram of an operation, in microseconds.
+     *
+     * @param operation the operation
+     * @return the histogram
+     */
+    public Histogram getHistogram(final Operation operation) {
+        return this.histograms.get(operation);
+    }
+
+    /**
+     * Gets the latency histogram of all operations, in microseconds.
+     *
+     * @return the histogram
+     */
+    public Histogram getOverallHistogram() {
+        return this.overall;
+    }
+
+    /**
+     * Gets the number of failed requests of an operation.
+     *
+     * @param operation the operation
+     * @return the number of errors
+     */
+    public long getErrors(final Operation operation) {
+        return this.errors.get(operation).get();
+    }
+
+    /**
+     * Gets the number of successful requests completed per second during the measured phase.
+     *
+     * @return the achieved throughput
+     */
+    public double getThroughput() {
+        final double seconds = this.measuredDuration.toNanos() / 1e9;
+        return seconds == 0 ? 0 : this.completedInWindow.sum() / seconds;
+    }
+
+    /**
+     * Prints the report as a table, one line per operation.
+     *
+     * @param out the stream to print to
+     */
+    public void print(final PrintStream out) {
+        out.printf(Locale.ROOT, "%-8s %9s %7s %10s %10s %10s %10s %10s%n",
+                "op", "count", "errors", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (final Operation operation : Operation.values()) {
+            printLine(out, operation.name().toLowerCase(Locale.ROOT), this.histograms.get(operation), getErrors(operation));
+        }
+        printLine(out, "all", this.overall, this.errors.values().stream().mapToLong(AtomicLong::get).sum());
+        out.printf(Locale.ROOT, "throughput %.1f req/s for a target of %.1f req/s over %ds%n",
+                getThroughput(), this.targetRate, this.measuredDuration.toSeconds());
+        new TreeMap<>(this.errorCauses).forEach((cause, count) -> out.printf("error %s: %d%n", cause, count.sum()));
+    }
+
+    /**
+     * Writes the report and one percentile distribution per operation, in the HdrHistogram text format
+     * with values in milliseconds, which can be plotted with the HdrHistogram plotter.
+     *
+     * @param directory the directory receiving the files
+     * @throws IOException if a file cannot be written
+     */
+    public void write(final Path directory) throws IOException {
+        Files.createDirectories(directory);
+        try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve("summary.txt")))) {
+            print(out);
+        }
+        for (final Operation operation : Operation.values()) {
+            writeDistribution(directory.resolve(operation.name().toLowerCase(Locale.ROOT) + ".hgrm"), this.histograms.get(operation));
+        }
+        writeDistribution(directory.resolve("all.hgrm"), this.overall);
+    }
+
+    /**
+     * Compares the run with the objectives of the settings.
+     *
+     * @param settings the settings holding the objectives
+     * @return a description of every objective that was missed, empty if all were met
+     */
+    public List<String> violations(final LoadTestSettings settings) {
+        final List<String> violations = new ArrayList<>();
+        long total = 0;
+        long failed = 0;
+        for (final Operation operation : Operation.values()) {
+            final Histogram histogram = this.histograms.get(operation);
+            total += histogram.getTotalCount() + getErrors(operation);
+            failed += getErrors(operation);
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            final LoadTestSettings.LatencySlo slo = settings.getLatencySlo(operation);
+            check(violations, operation, "p50", histogram, 50.0, slo.p50Millis());
+            check(violations, operation, "p99", histogram, 99.0, slo.p99Millis());
+            check(violations, operation, "p99.9", histogram, 99.9, slo.p999Millis());
+        }
+        final double errorRate = total == 0 ? 0 : (double) failed / total;
+        if (errorRate > settings.getMaxErrorRate()) {
+            violations.add(String.format(Locale.ROOT, "error rate %.4f exceeds %.4f", errorRate, settings.getMaxErrorRate()));
+        }
+        final double minThroughput = this.targetRate * settings.getMinThroughputRatio();
+        if (getThroughput() < minThroughput) {
+            violations.add(String.format(Locale.ROOT, "throughput %.1f req/s is below %.1f req/s", getThroughput(), minThroughput));
+        }
+        return violations;
+    }
+
+    private static void check(final List<String> violations, final Operation operation, final String name,
+                              final Histogram histogram, final double percentile, final Double maxMillis) {
+        if (maxMillis == null) {
+            return;
+        }
+        final double actualMillis = histogram.getValueAtPercentile(percentile) / 1000.0;
+        if (actualMillis > maxMillis) {
+            violations.add(String.format(Locale.ROOT, "%s %s is %.2f ms, objective %.2f ms",
+                    operation.name().toLowerCase(Locale.ROOT), name, actualMillis, maxMillis));
+        }
+    }
+
+    private void printLine(final PrintStream out, final String name, final Histogram histogram, final long errors) {
+        final double seconds = this.measuredDuration.toNanos() / 1e9;
+        out.printf(Locale.ROOT, "%-8s %9d %7d %10.1f %10.2f %10.2f %10.2f %10.2f%n", name, histogram.getTotalCount(), errors,
+                seconds == 0 ? 0 : histogram.getTotalCount() / seconds, histogram.getValueAtPercentile(50.0) / 1000.0, histogram.getValueAtPercentile(99.0) / 1000.0,
+                histogram.getValueAtPercentile(99.9) / 1000.0, histogram.getMaxValue() / 1000.0);
+    }
+
+    private static void writeDistribution(final Path file, final Histogram histogram) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+            histogram.outputPercentileDistribution(out, 1000.0);
+        }
+    }
+
+    private static Histogram newHistogram() {
+        return new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+    }
+}
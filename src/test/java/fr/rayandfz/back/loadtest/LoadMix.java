@@ -0,0 +1,88 @@
+package fr.rayandfz.back.loadtest;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.random.RandomGenerator;
+
+/**
+ * Weighted mix of operations, such as {@code list=20,get=60,create=8,patch=10,delete=2}.
+ * <p>
+ * Weights are relative: they do not need to add up to 100. Operations that are not listed are never drawn.
+ * </p>
+ */
+public final class LoadMix {
+    private final Operation[] operations;
+    private final double[] cumulativeWeights;
+
+    private LoadMix(final Map<Operation, Double> weights) {
+        this.operations = weights.keySet().toArray(new Operation[0]);
+        this.cumulativeWeights = new double[this.operations.length];
+        final double total = weights.values().stream().mapToDouble(Double::doubleValue).sum();
+        double cumulative = 0;
+        for (int i = 0; i < this.operations.length; i++) {
+            cumulative += weights.get(this.operations[i]) / total;
+            this.cumulativeWeights[i] = cumulative;
+        }
+    }
+
+    /**
+     * Parses a mix from its textual form.
+     *
+     * @param mix comma-separated {@code operation=weight} pairs, operation names being case-insensitive
+     * @return the parsed mix
+     * @throws IllegalArgumentException if an operation is unknown, a weight is negative, or all weights are zero
+     */
+    public static LoadMix parse(final String mix) {
+        final Map<Operation, Double> weights = new EnumMap<>(Operation.class);
+        for (final String entry : mix.split(",")) {
+            final String[] pair = entry.trim().split("=");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry '" + entry + "', expected operation=weight");
+            }
+            final Operation operation = Operation.valueOf(pair[0].trim().toUpperCase(Locale.ROOT));
+            final double weight = Double.parseDouble(pair[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight for " + operation);
+            }
+            if (weight > 0) {
+                weights.put(operation, weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("The mix '" + mix + "' has no operation with a positive weight");
+        }
+        return new LoadMix(weights);
+    }
+
+    /**
+     * Draws the next operation.
+     *
+     * @param random the source of uniform randomness
+     * @return an operation, drawn according to the weights of the mix
+     */
+    public Operation next(final RandomGenerator random) {
+        final double u = random.nextDouble();
+        for (int i = 0; i < this.cumulativeWeights.length - 1; i++) {
+            if (u < this.cumulativeWeights[i]) {
+                return this.operations[i];
+            }
+        }
+        return this.operations[this.operations.length - 1];
+    }
+
+    /**
+     * Gets the share of the traffic of the given operation.
+     *
+     * @param operation the operation
+     * @return the probability of drawing the operation, between 0 and 1
+     */
+    public double share(final Operation operation) {
+        for (int i = 0; i < this.operations.length; i++) {
+            if (this.operations[i] == operation) {
+                return this.cumulativeWeights[i] - (i == 0 ? 0 : this.cumulativeWeights[i - 1]);
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,197 @@
+package fr.rayandfz.back.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Settings of a load test run, read from {@code loadtest.*} system properties.
+ * <p>
+ * The {@code load-test} Maven profile passes its properties through, so any of them can be overridden on the
+ * command line, e.g. {@code -Dloadtest.rate=500}. Latency objectives are given in milliseconds, for all
+ * operations with {@code loadtest.slo.p50}, {@code loadtest.slo.p99} and {@code loadtest.slo.p999}, or for a
+ * single operation with {@code loadtest.slo.<operation>.p99} and the like. An objective that is not set is
+ * not checked.
+ * </p>
+ */
+public final class LoadTestSettings {
+    private static final String PREFIX = "loadtest.";
+
+    private final double rate;
+    private final Duration warmup;
+    private final Duration duration;
+    private final int productCount;
+    private final double zipfExponent;
+    private final long seed;
+    private final LoadMix mix;
+    private final Map<Operation, LatencySlo> latencySlos;
+    private final double maxErrorRate;
+    private final double minThroughputRatio;
+    private final Path reportDirectory;
+
+    private LoadTestSettings(final Properties properties) {
+        this.rate = Double.parseDouble(get(properties, "rate", "100"));
+        this.warmup = Duration.ofSeconds(Long.parseLong(get(properties, "warmup", "30")));
+        this.duration = Duration.ofSeconds(Long.parseLong(get(properties, "duration", "30")));
+        this.productCount = Integer.parseInt(get(properties, "products", "5000"));
+        this.zipfExponent = Double.parseDouble(get(properties, "zipf", "0.99"));
+        this.seed = Long.parseLong(get(properties, "seed", "42"));
+        this.mix = LoadMix.parse(get(properties, "mix", "list=20,get=60,create=8,patch=10,delete=2"));
+        this.maxErrorRate = Double.parseDouble(get(properties, "slo.errorRate", "0.001"));
+        this.minThroughputRatio = Double.parseDouble(get(properties, "slo.throughputRatio", "0.95"));
+        this.reportDirectory = Path.of(get(properties, "reportDirectory", "target/load-test"));
+
+        final LatencySlo defaults = new LatencySlo(
+                millis(properties, "slo.p50", null), millis(properties, "slo.p99", null), millis(properties, "slo.p999", null));
+        this.latencySlos = new EnumMap<>(Operation.class);
+        for (final Operation operation : Operation.values()) {
+            final String name = "slo." + operation.name().toLowerCase(Locale.ROOT) + ".";
+            this.latencySlos.put(operation, new LatencySlo(
+                    millis(properties, name + "p50", defaults.p50Millis()),
+                    millis(properties, name + "p99", defaults.p99Millis()),
+                    millis(properties, name + "p999", defaults.p999Millis())));
+        }
+    }
+
+    /**
+     * Reads the settings from the system properties.
+     *
+     * @return the settings of the run
+     */
+    public static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings(System.getProperties());
+    }
+
+    /**
+     * Reads the settings from the given properties, falling back to the defaults for missing ones.
+     *
+     * @param properties the {@code loadtest.*} properties
+     * @return the settings of the run
+     */
+    public static LoadTestSettings fromProperties(final Properties properties) {
+        return new LoadTestSettings(properties);
+    }
+
+    /**
+     * Gets the target arrival rate, which does not depend on how fast the application answers.
+     *
+     * @return the number of requests started per second
+     */
+    public double getRate() {
+        return this.rate;
+    }
+
+    /**
+     * Gets the duration of the warmup phase, whose requests are not recorded.
+     *
+     * @return the warmup duration
+     */
+    public Duration getWarmup() {
+        return this.warmup;
+    }
+
+    /**
+     * Gets the duration of the measured phase.
+     *
+     * @return the measured duration
+     */
+    public Duration getDuration() {
+        return this.duration;
+    }
+
+    /**
+     * Gets the number of products in the catalog before the run, which are the targets of reads and updates.
+     *
+     * @return the number of seeded products
+     */
+    public int getProductCount() {
+        return this.productCount;
+    }
+
+    /**
+     * Gets the skew of the product popularity.
+     *
+     * @return the Zipfian exponent
+     */
+    public double getZipfExponent() {
+        return this.zipfExponent;
+    }
+
+    /**
+     * Gets the seed of the random generators, so that two runs replay the same traffic.
+     *
+     * @return the seed
+     */
+    public long getSeed() {
+        return this.seed;
+    }
+
+    /**
+     * Gets the mix of operations.
+     *
+     * @return the mix
+     */
+    public LoadMix getMix() {
+        return this.mix;
+    }
+
+    /**
+     * Gets the latency objectives of an operation.
+     *
+     * @param operation the operation
+     * @return the objectives, whose unset percentiles are null
+     */
+    public LatencySlo getLatencySlo(final Operation operation) {
+        return this.latencySlos.get(operation);
+    }
+
+    /**
+     * Gets the maximum share of failed requests.
+     *
+     * @return the maximum error rate, between 0 and 1
+     */
+    public double getMaxErrorRate() {
+        return this.maxErrorRate;
+    }
+
+    /**
+     * Gets the minimum share of the target rate that must complete successfully.
+     *
+     * @return the minimum ratio of the achieved throughput to the target rate
+     */
+    public double getMinThroughputRatio() {
+        return this.minThroughputRatio;
+    }
+
+    /**
+     * Gets the directory receiving the report and the latency histograms.
+     *
+     * @return the report directory
+     */
+    public Path getReportDirectory() {
+        return this.reportDirectory;
+    }
+
+    private static String get(final Properties properties, final String name, final String defaultValue) {
+        final String value = properties.getProperty(PREFIX + name);
+        return value == null || value.isBlank() ? defaultValue : value.trim();
+    }
+
+    private static Double millis(final Properties properties, final String name, final Double defaultValue) {
+        final String value = get(properties, name, null);
+        return value == null ? defaultValue : Double.valueOf(value);
+    }
+
+    /**
+     * Latency objectives of an operation, in milliseconds.
+     *
+     * @param p50Millis  the maximum median latency, or null
+     * @param p99Millis  the maximum 99th percentile, or null
+     * @param p999Millis the maximum 99.9th percentile, or null
+     */
+    public record LatencySlo(Double p50Millis, Double p99Millis, Double p999Millis) {
+    }
+}
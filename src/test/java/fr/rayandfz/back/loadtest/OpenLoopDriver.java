@@ -0,0 +1,207 @@
+package fr.rayandfz.back.loadtest;
+
+import fr.rayandfz.back.model.Product;
+import fr.rayandfz.back.model.ProductCategory;
+import fr.rayandfz.back.model.ProductInventoryStatus;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Replays a mix of product API calls against a running application, following an open model.
+ * <p>
+ * Requests are started on a Poisson schedule at the target rate, whether or not the previous ones have
+ * completed, as independent clients do. Each latency is measured from the time the request was scheduled to
+ * start, not from the time it was actually sent: when the application (or the load generator) stalls, the
+ * requests that queue up behind the stall are charged for the wait. This avoids the coordinated omission of
+ * closed-loop drivers, which stop sending while they wait and so never sample the stall.
+ * </p>
+ * <p>
+ * Reads and updates target the seeded products with a Zipfian popularity. Deletes only target products
+ * created during the run, so the hot set never shrinks and reads never miss.
+ * </p>
+ */
+public final class OpenLoopDriver {
+    private static final int MAX_IN_FLIGHT = 10_000;
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(30);
+    private static final int PAGE_SIZE = 50;
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+
+    private static final ProductCategory[] CATEGORIES = ProductCategory.values();
+    private static final ProductInventoryStatus[] STATUSES = ProductInventoryStatus.values();
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final LoadTestSettings settings;
+    private final List<Product> hotSet;
+    private final ZipfianGenerator popularity;
+    private final SplittableRandom random;
+    private final Queue<Long> createdIds = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong codeSequence = new AtomicLong();
+
+    /**
+     * Constructs a driver.
+     *
+     * @param client   the HTTP client sending the requests
+     * @param baseUrl  the URL of the product resource, such as {@code http://localhost:8080/products}
+     * @param settings the rate, durations and mix of the run
+     * @param hotSet   the seeded products, the most popular first
+     */
+    public OpenLoopDriver(final HttpClient client, final String baseUrl, final LoadTestSettings settings, final List<Product> hotSet) {
+        this.client = client;
+        this.baseUrl = baseUrl;
+        this.settings = settings;
+        this.hotSet = hotSet;
+        this.popularity = new ZipfianGenerator(hotSet.size(), settings.getZipfExponent());
+        this.random = new SplittableRandom(settings.getSeed());
+    }
+
+    /**
+     * Runs the warmup and measured phases, then waits for the requests still in flight.
+     *
+     * @return the latencies, errors and throughput of the measured phase
+     * @throws InterruptedException if interrupted while waiting for the requests in flight
+     */
+    public LatencyReport run() throws InterruptedException {
+        final LatencyReport report = new LatencyReport(this.settings.getRate());
+        final double meanIntervalNanos = TimeUnit.SECONDS.toNanos(1) / this.settings.getRate();
+        final long start = System.nanoTime();
+        final long measureStart = start + this.settings.getWarmup().toNanos();
+        final long end = measureStart + this.settings.getDuration().toNanos();
+
+        long intended = start;
+        while (true) {
+            intended += (long) (-Math.log(1 - this.random.nextDouble()) * meanIntervalNanos);
+            if (intended >= end) {
+                break;
+            }
+            final long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            final Operation operation = this.settings.getMix().next(this.random);
+            final boolean measured = intended >= measureStart;
+            if (this.inFlight.get() >= MAX_IN_FLIGHT) {
+                if (measured) {
+                    report.recordError(operation, "dropped, too many requests in flight");
+                }
+                continue;
+            }
+            send(operation, intended, measured, measureStart, end, report);
+        }
+
+        final long drainDeadline = System.nanoTime() + DRAIN_TIMEOUT.toNanos();
+        while (this.inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+        report.setMeasuredDuration(this.settings.getDuration());
+        return report;
+    }
+
+    private void send(final Operation requested, final long intended, final boolean measured,
+                      final long measureStart, final long end, final LatencyReport report) {
+        final Long deletableId = requested == Operation.DELETE ? this.createdIds.poll() : null;
+        // Nothing created yet to delete: create instead, so the mix of writes stays close to the requested one
+        final Operation operation = requested == Operation.DELETE && deletableId == null ? Operation.CREATE : requested;
+        final HttpRequest request = switch (operation) {
+            case LIST -> list();
+            case GET -> get(hot());
+            case CREATE -> create();
+            case PATCH -> patch(hot());
+            case DELETE -> delete(deletableId);
+        };
+
+        this.inFlight.incrementAndGet();
+        this.client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).whenComplete((response, failure) -> {
+            final long now = System.nanoTime();
+            try {
+                if (failure != null || response.statusCode() / 100 != 2) {
+                    if (measured) {
+                        report.recordError(operation, failure != null ? failure.getClass().getSimpleName() : "HTTP " + response.statusCode());
+                    }
+                    return;
+                }
+                if (operation == Operation.CREATE) {
+                    final Matcher id = ID.matcher(response.body());
+                    if (id.find()) {
+                        this.createdIds.add(Long.valueOf(id.group(1)));
+                    }
+                }
+                if (measured) {
+                    report.recordSuccess(operation, now - intended);
+                }
+                if (now >= measureStart && now < end) {
+                    report.recordCompletionInWindow();
+                }
+            } finally {
+                this.inFlight.decrementAndGet();
+            }
+        });
+    }
+
+    private Product hot() {
+        return this.hotSet.get((int) this.popularity.next(this.random));
+    }
+
+    private HttpRequest list() {
+        // Half of the listings browse a category, the others the whole catalog, mostly its first pages
+        final StringBuilder uri = new StringBuilder(this.baseUrl)
+                .append("?size=").append(PAGE_SIZE)
+                .append("&page=").append(Math.min(this.random.nextInt(1, 8), this.random.nextInt(1, 8)) - 1);
+        if (this.random.nextBoolean()) {
+            uri.append("&category=").append(CATEGORIES[this.random.nextInt(CATEGORIES.length)]);
+        }
+        return request(uri.toString()).GET().build();
+    }
+
+    private HttpRequest get(final Product product) {
+        return request(this.baseUrl + "/" + product.getId()).GET().build();
+    }
+
+    private HttpRequest create() {
+        final String code = "LT-" + this.settings.getSeed() + "-" + System.nanoTime() + "-" + this.codeSequence.incrementAndGet();
+        return request(this.baseUrl)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body(code, CATEGORIES[this.random.nextInt(CATEGORIES.length)])))
+                .build();
+    }
+
+    private HttpRequest patch(final Product product) {
+        return request(this.baseUrl + "/" + product.getId())
+                .header("Content-Type", "application/json")
+                .method("PATCH", HttpRequest.BodyPublishers.ofString(body(product.getCode(), product.getCategory())))
+                .build();
+    }
+
+    private HttpRequest delete(final long id) {
+        return request(this.baseUrl + "/" + id).DELETE().build();
+    }
+
+    private HttpRequest.Builder request(final String uri) {
+        return HttpRequest.newBuilder(URI.create(uri)).timeout(REQUEST_TIMEOUT);
+    }
+
+    private String body(final String code, final ProductCategory category) {
+        return String.format(Locale.ROOT,
+                "{\"code\":\"%s\",\"name\":\"Load test product\",\"description\":\"Generated by the load test\","
+                        + "\"price\":%.2f,\"quantity\":%d,\"inventoryStatus\":\"%s\",\"category\":\"%s\",\"rating\":%.1f}",
+                code, this.random.nextDouble(1, 500), this.random.nextInt(0, 100),
+                STATUSES[this.random.nextInt(STATUSES.length)], category, this.random.nextDouble(0, 5));
+    }
+}
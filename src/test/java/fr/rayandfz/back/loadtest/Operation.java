@@ -0,0 +1,27 @@
+package fr.rayandfz.back.loadtest;
+
+/**
+ * The calls of the product API replayed by the load test.
+ */
+public enum Operation {
+    /**
+     * {@code GET /products}, one page, sometimes filtered by category.
+     */
+    LIST,
+    /**
+     * {@code GET /products/{id}} on the hot set of products.
+     */
+    GET,
+    /**
+     * {@code POST /products} with a new product code.
+     */
+    CREATE,
+    /**
+     * {@code PATCH /products/{id}} on the hot set of products.
+     */
+    PATCH,
+    /**
+     * {@code DELETE /products/{id}} on a product created during the run.
+     */
+    DELETE
+}
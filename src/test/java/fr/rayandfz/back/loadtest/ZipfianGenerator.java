@@ -0,0 +1,85 @@
+package fr.rayandfz.back.loadtest;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Draws ranks in {@code [0, itemCount)} following a Zipfian distribution: rank 0 is the most popular,
+ * and the popularity of rank {@code i} decreases as {@code 1 / (i + 1)^exponent}.
+ * <p>
+ * This is the algorithm of Gray et al., "Quickly Generating Billion-Record Synthetic Databases", as used by YCSB.
+ * The normalization constant is computed once, so each draw costs a single uniform draw and a power.
+ * </p>
+ */
+public final class ZipfianGenerator {
+    private final long itemCount;
+    private final double exponent;
+    private final double zetaN;
+    private final double alpha;
+    private final double eta;
+    private final double secondRankThreshold;
+
+    /**
+     * Constructs a generator over the given number of items.
+     *
+     * @param itemCount the number of items, at least 2
+     * @param exponent  the skew, strictly between 0 and 1; 0.99 is the usual skew of production traffic
+     */
+    public ZipfianGenerator(final long itemCount, final double exponent) {
+        if (itemCount < 2) {
+            throw new IllegalArgumentException("At least 2 items are required, got " + itemCount);
+        }
+        if (exponent <= 0 || exponent >= 1) {
+            throw new IllegalArgumentException("The exponent must be strictly between 0 and 1, got " + exponent);
+        }
+        this.itemCount = itemCount;
+        this.exponent = exponent;
+        this.zetaN = zeta(itemCount, exponent);
+        this.alpha = 1.0 / (1.0 - exponent);
+        this.eta = (1 - Math.pow(2.0 / itemCount, 1 - exponent)) / (1 - zeta(2, exponent) / this.zetaN);
+        this.secondRankThreshold = 1 + Math.pow(0.5, exponent);
+    }
+
+    /**
+     * Draws the next rank.
+     *
+     * @param random the source of uniform randomness
+     * @return a rank in {@code [0, itemCount)}, 0 being the most frequent
+     */
+    public long next(final RandomGenerator random) {
+        final double u = random.nextDouble();
+        final double uz = u * this.zetaN;
+        if (uz < 1.0) {
+            return 0;
+        }
+        if (uz < this.secondRankThreshold) {
+            return 1;
+        }
+        return Math.min(this.itemCount - 1, (long) (this.itemCount * Math.pow(this.eta * u - this.eta + 1, this.alpha)));
+    }
+
+    /**
+     * Gets the number of items.
+     *
+     * @return the number of items
+     */
+    public long getItemCount() {
+        return this.itemCount;
+    }
+
+    /**
+     * Gets the skew of the distribution.
+     *
+     * @return the exponent
+     */
+    public double getExponent() {
+        return this.exponent;
+    }
+
+    private static double zeta(final long n, final double exponent) {
+        double sum = 0;
+        for (long i = 1; i <= n; i++) {
+            sum += 1 / Math.pow(i, exponent);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,64 @@
+package fr.rayandfz.back.loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for ZipfianGenerator and LoadMix
+ */
+public class ZipfianGeneratorTest {
+
+    @Test
+    void testZipfianSkewsTowardsFirstRanks() {
+        final ZipfianGenerator generator = new ZipfianGenerator(10_000, 0.99);
+        final SplittableRandom random = new SplittableRandom(1);
+        final int[] counts = new int[10_000];
+        final int draws = 200_000;
+        for (int i = 0; i < draws; i++) {
+            final long rank = generator.next(random);
+            assertTrue(rank >= 0 && rank < 10_000);
+            counts[(int) rank]++;
+        }
+
+        assertTrue(counts[0] > counts[1] && counts[1] > counts[10] && counts[10] > counts[1000]);
+        int top100 = 0;
+        for (int i = 0; i < 100; i++) {
+            top100 += counts[i];
+        }
+        // With an exponent of 0.99, the top 1% of the items receives about half of the traffic
+        assertEquals(0.5, (double) top100 / draws, 0.1);
+    }
+
+    @Test
+    void testZipfianRejectsInvalidExponent() {
+        assertThrows(IllegalArgumentException.class, () -> new ZipfianGenerator(100, 1.0));
+        assertThrows(IllegalArgumentException.class, () -> new ZipfianGenerator(1, 0.5));
+    }
+
+    @Test
+    void testLoadMixFollowsWeights() {
+        final LoadMix mix = LoadMix.parse("list=20, GET=60,create=20,delete=0");
+        final SplittableRandom random = new SplittableRandom(1);
+        int gets = 0;
+        for (int i = 0; i < 100_000; i++) {
+            final Operation operation = mix.next(random);
+            assertNotEquals(Operation.DELETE, operation);
+            assertNotEquals(Operation.PATCH, operation);
+            if (operation == Operation.GET) {
+                gets++;
+            }
+        }
+        assertEquals(0.6, gets / 100_000.0, 0.01);
+        assertEquals(0.2, mix.share(Operation.LIST), 1e-9);
+        assertEquals(0.0, mix.share(Operation.DELETE));
+    }
+
+    @Test
+    void testLoadMixRejectsUnknownOperation() {
+        assertThrows(IllegalArgumentException.class, () -> LoadMix.parse("list=20,search=10"));
+        assertThrows(IllegalArgumentException.class, () -> LoadMix.parse("list=0"));
+    }
+}
@@ -0,0 +1,33 @@
+package fr.rayandfz.back.model;
+
+import fr.rayandfz.back.error.InvalidProductFieldException;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductFieldTest {
+
+    @Test
+    void testParseFields() {
+        assertEquals(EnumSet.of(ProductField.ID, ProductField.PRICE, ProductField.INVENTORY_STATUS),
+                ProductField.parse("inventoryStatus, price,id"));
+    }
+
+    @Test
+    void testParseProfiles() {
+        assertEquals(ProductField.SUMMARY, ProductField.parse("summary"));
+        assertEquals(EnumSet.allOf(ProductField.class), ProductField.parse("full"));
+
+        EnumSet<ProductField> expected = EnumSet.copyOf(ProductField.SUMMARY);
+        expected.add(ProductField.CODE);
+        assertEquals(expected, ProductField.parse("summary,code"));
+    }
+
+    @Test
+    void testParseInvalidFields() {
+        assertThrows(InvalidProductFieldException.class, () -> ProductField.parse("name,inventory_status"));
+        assertThrows(InvalidProductFieldException.class, () -> ProductField.parse(" , "));
+    }
+}
@@ -0,0 +1,211 @@
+package fr.rayandfz.back.ranking;
+
+import fr.rayandfz.back.model.Product;
+import fr.rayandfz.back.model.ProductCategory;
+import fr.rayandfz.back.model.ProductInventoryStatus;
+import fr.rayandfz.back.service.ProductChangedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for ProductRankings.
+ */
+public class ProductRankingsTest {
+
+    private static Product product(final long id, final ProductCategory category, final Double rating, final Double price,
+                                   final ProductInventoryStatus status) {
+        Product product = new Product();
+        product.setId(id);
+        product.setCode("P" + id);
+        product.setCategory(category);
+        product.setRating(rating);
+        product.setPrice(price);
+        product.setInventoryStatus(status);
+        return product;
+    }
+
+    /**
+     * Tests the order of both rankings, the ties, the limit and the products left out.
+     */
+    @Test
+    public void testRankings() {
+        ProductRankings rankings = new ProductRankings(List.of(
+                product(1, ProductCategory.FITNESS, 4.0, 30.0, ProductInventoryStatus.INSTOCK),
+                product(2, ProductCategory.FITNESS, 5.0, 10.0, ProductInventoryStatus.OUTOFSTOCK),
+                product(3, ProductCategory.FITNESS, 4.0, 20.0, ProductInventoryStatus.LOWSTOCK),
+                product(4, ProductCategory.FITNESS, null, 5.0, ProductInventoryStatus.INSTOCK),
+                product(5, ProductCategory.CLOTHING, 3.0, 1.0, ProductInventoryStatus.INSTOCK),
+                product(6, null, 5.0, 1.0, ProductInventoryStatus.INSTOCK)));
+
+        assertEquals(List.of(2L, 1L, 3L), rankings.getTopRated(ProductCategory.FITNESS, 10));
+        assertEquals(List.of(2L, 1L), rankings.getTopRated(ProductCategory.FITNESS, 2));
+        assertEquals(List.of(4L, 3L, 1L), rankings.getCheapestInStock(ProductCategory.FITNESS, 10));
+        assertEquals(List.of(5L), rankings.getCheapestInStock(ProductCategory.CLOTHING, 10));
+        assertTrue(rankings.getTopRated(ProductCategory.ELECTRONICS, 10).isEmpty());
+        assertEquals(5, rankings.size());
+    }
+
+    /**
+     * Tests that updates move products within and across categories, and that deletions remove them.
+     */
+    @Test
+    public void testOnProductChanged() {
+        Product lamp = product(1, ProductCategory.FITNESS, 4.0, 30.0, ProductInventoryStatus.INSTOCK);
+        Product mat = product(2, ProductCategory.FITNESS, 3.0, 20.0, ProductInventoryStatus.INSTOCK);
+        ProductRankings rankings = new ProductRankings(List.of(lamp, mat));
+
+        Product soldOut = product(2, ProductCategory.FITNESS, 4.5, 20.0, ProductInventoryStatus.OUTOFSTOCK);
+        rankings.onProductChanged(new ProductChangedEvent(mat, soldOut));
+        assertEquals(List.of(2L, 1L), rankings.getTopRated(ProductCategory.FITNESS, 10));
+        assertEquals(List.of(1L), rankings.getCheapestInStock(ProductCategory.FITNESS, 10));
+
+        Product moved = product(1, ProductCategory.ELECTRONICS, 4.0, 30.0, ProductInventoryStatus.INSTOCK);
+        rankings.onProductChanged(new ProductChangedEvent(lamp, moved));
+        assertEquals(List.of(2L), rankings.getTopRated(ProductCategory.FITNESS, 10));
+        assertEquals(List.of(1L), rankings.getCheapestInStock(ProductCategory.ELECTRONICS, 10));
+
+        rankings.onProductChanged(new ProductChangedEvent(moved, null));
+        assertTrue(rankings.getCheapestInStock(ProductCategory.ELECTRONICS, 10).isEmpty());
+        assertEquals(1, rankings.size());
+    }
+
+    private static Product versioned(final Product product, final long version) {
+        product.setVersion(version);
+        return product;
+    }
+
+    /**
+     * Tests that updates delivered out of order do not replace a newer rating or price.
+     */
+    @Test
+    public void testOnProductChanged_OutOfOrder() {
+        Product created = versioned(product(1, ProductCategory.FITNESS, 3.0, 30.0, ProductInventoryStatus.INSTOCK), 0);
+        Product other = versioned(product(2, ProductCategory.FITNESS, 4.0, 20.0, ProductInventoryStatus.INSTOCK), 0);
+        ProductRankings rankings = new ProductRankings(List.of(created, other));
+        Product first = versioned(product(1, ProductCategory.FITNESS, 3.5, 25.0, ProductInventoryStatus.INSTOCK), 1);
+        Product second = versioned(product(1, ProductCategory.FITNESS, 5.0, 10.0, ProductInventoryStatus.INSTOCK), 2);
+
+        rankings.onProductChanged(new ProductChangedEvent(first, second));
+        rankings.onProductChanged(new ProductChangedEvent(created, first));
+
+        assertEquals(List.of(1L, 2L), rankings.getTopRated(ProductCategory.FITNESS, 10));
+        assertEquals(List.of(1L, 2L), rankings.getCheapestInStock(ProductCategory.FITNESS, 10));
+        assertEquals(2, rankings.size());
+    }
+
+    /**
+     * Tests that an update delivered after the deletion of the product does not bring it back.
+     */
+    @Test
+    public void testOnProductChanged_UpdateAfterDelete() {
+        Product created = versioned(product(1, ProductCategory.FITNESS, 3.0, 30.0, ProductInventoryStatus.INSTOCK), 0);
+        ProductRankings rankings = new ProductRankings(List.of(created));
+        Product updated = versioned(product(1, ProductCategory.FITNESS, 4.0, 20.0, ProductInventoryStatus.INSTOCK), 1);
+
+        rankings.onProductChanged(new ProductChangedEvent(updated, null));
+        rankings.onProductChanged(new ProductChangedEvent(created, updated));
+
+        assertTrue(rankings.getTopRated(ProductCategory.FITNESS, 10).isEmpty());
+        assertTrue(rankings.getCheapestInStock(ProductCategory.FITNESS, 10).isEmpty());
+        assertEquals(0, rankings.size());
+    }
+
+    /**
+     * Tests that concurrent updates of the same products leave exactly one entry per product.
+     */
+    @Test
+    public void testConcurrentUpdates() throws Exception {
+        ProductRankings rankings = new ProductRankings(List.of());
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                final SplittableRandom random = new SplittableRandom(thread);
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 20_000; i++) {
+                        long id = random.nextInt(50);
+                        rankings.onProductChanged(new ProductChangedEvent(null, product(id, ProductCategory.ACCESSORIES,
+                                random.nextInt(51) / 10.0, 1.0 + random.nextInt(100), ProductInventoryStatus.INSTOCK)));
+                        rankings.getTopRated(ProductCategory.ACCESSORIES, 10);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(50, rankings.getTopRated(ProductCategory.ACCESSORIES, 100).size());
+        assertEquals(50, rankings.getCheapestInStock(ProductCategory.ACCESSORIES, 100).size());
+
+        // No stale entry is left behind to break the order of the final ratings
+        for (long id = 0; id < 50; id++) {
+            rankings.onProductChanged(new ProductChangedEvent(null, product(id, ProductCategory.ACCESSORIES,
+                    (double) (id % 5), 1.0, ProductInventoryStatus.INSTOCK)));
+        }
+        List<Long> expected = LongStream.range(0, 50).boxed()
+                .sorted(Comparator.comparing((Long id) -> id % 5).reversed().thenComparing(id -> id)).toList();
+        assertEquals(expected, rankings.getTopRated(ProductCategory.ACCESSORIES, 100));
+    }
+
+    /**
+     * Tests that readers walking a ranking while its products are moved list each product at most once.
+     */
+    @Test
+    public void testReadsDuringWrites() throws Exception {
+        ProductRankings rankings = new ProductRankings(List.of());
+        for (long id = 0; id < 20; id++) {
+            rankings.onProductChanged(new ProductChangedEvent(null, product(id, ProductCategory.ACCESSORIES,
+                    id / 4.0, 1.0, ProductInventoryStatus.INSTOCK)));
+        }
+        AtomicBoolean writing = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            Future<?> writer = executor.submit(() -> {
+                SplittableRandom random = new SplittableRandom(42);
+                try {
+                    for (int i = 0; i < 200_000; i++) {
+                        rankings.onProductChanged(new ProductChangedEvent(null, product(random.nextInt(20),
+                                ProductCategory.ACCESSORIES, random.nextInt(51) / 10.0, 1.0, ProductInventoryStatus.INSTOCK)));
+                    }
+                } finally {
+                    writing.set(false);
+                }
+            });
+            List<Future<Integer>> readers = new ArrayList<>();
+            for (int thread = 0; thread < 2; thread++) {
+                readers.add(executor.submit(() -> {
+                    int reads = 0;
+                    while (writing.get()) {
+                        List<Long> ids = rankings.getTopRated(ProductCategory.ACCESSORIES, 20);
+                        assertEquals(ids.size(), new HashSet<>(ids).size(), () -> "Duplicated ids in " + ids);
+                        assertTrue(ids.stream().allMatch(id -> id >= 0 && id < 20));
+                        reads++;
+                    }
+                    return reads;
+                }));
+            }
+            writer.get();
+            for (Future<Integer> reader : readers) {
+                assertTrue(reader.get() > 0);
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(20, rankings.getTopRated(ProductCategory.ACCESSORIES, 20).size());
+    }
+}
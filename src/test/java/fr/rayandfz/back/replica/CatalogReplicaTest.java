@@ -0,0 +1,236 @@
+package fr.rayandfz.back.replica;
+
+import fr.rayandfz.back.model.Product;
+import fr.rayandfz.back.model.ProductCategory;
+import fr.rayandfz.back.model.ProductInventoryStatus;
+import fr.rayandfz.back.service.ProductChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for CatalogReplica, mapping small chunks in a temporary directory.
+ */
+public class CatalogReplicaTest {
+
+    private static final int CHUNK_RECORDS = 4;
+    private static final int STRING_CHUNK_SIZE = 64;
+
+    @TempDir
+    Path directory;
+
+    private CatalogReplica replica;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        replica = CatalogReplica.create(directory, CHUNK_RECORDS, STRING_CHUNK_SIZE, 0);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        replica.close();
+    }
+
+    private static Product product(final long id, final ProductCategory category, final ProductInventoryStatus status) {
+        Product product = new Product();
+        product.setId(id);
+        product.setCode("P" + id);
+        product.setName("Product " + id);
+        product.setDescription("Description of product " + id);
+        product.setPrice(id * 1.5);
+        product.setQuantity((int) id * 10);
+        product.setInventoryStatus(status);
+        product.setCategory(category);
+        product.setImage("p" + id + ".png");
+        product.setRating(4.5);
+        return product;
+    }
+
+    /**
+     * Tests that a view reads back every field of the product, across several record and string chunks.
+     */
+    @Test
+    void testPutAndGet() {
+        for (long id = 1; id <= 10; id++) {
+            replica.put(product(id, ProductCategory.ELECTRONICS, ProductInventoryStatus.INSTOCK));
+        }
+
+        assertEquals(10, replica.size());
+        for (long id = 1; id <= 10; id++) {
+            Product view = replica.get(id);
+            Product expected = product(id, ProductCategory.ELECTRONICS, ProductInventoryStatus.INSTOCK);
+            assertEquals(id, view.getId());
+            assertEquals(expected.getCode(), view.getCode());
+            assertEquals(expected.getName(), view.getName());
+            assertEquals(expected.getDescription(), view.getDescription());
+            assertEquals(expected.getPrice(), view.getPrice());
+            assertEquals(expected.getQuantity(), view.getQuantity());
+            assertEquals(ProductInventoryStatus.INSTOCK, view.getInventoryStatus());
+            assertEquals(ProductCategory.ELECTRONICS, view.getCategory());
+            assertEquals(expected.getImage(), view.getImage());
+            assertEquals(4.5, view.getRating());
+        }
+        assertNull(replica.get(11));
+    }
+
+    /**
+     * Tests that null fields are read back as null, and that views cannot be modified.
+     */
+    @Test
+    void testNullFieldsAndReadOnlyView() {
+        Product product = new Product();
+        product.setId(1L);
+        product.setCode("P1");
+        replica.put(product);
+
+        Product view = replica.get(1);
+        assertEquals("P1", view.getCode());
+        assertNull(view.getName());
+        assertNull(view.getPrice());
+        assertNull(view.getQuantity());
+        assertNull(view.getRating());
+        assertNull(view.getInventoryStatus());
+        assertNull(view.getCategory());
+        assertThrows(UnsupportedOperationException.class, () -> view.setName("Renamed"));
+    }
+
+    /**
+     * Tests that an update leaves the views already handed out unchanged, and that removed products are gone.
+     */
+    @Test
+    void testUpdateAndRemove() {
+        replica.put(product(1, ProductCategory.ELECTRONICS, ProductInventoryStatus.INSTOCK));
+        Product before = replica.get(1);
+
+        Product updated = product(1, ProductCategory.ELECTRONICS, ProductInventoryStatus.LOWSTOCK);
+        updated.setName("Renamed");
+        replica.put(updated);
+
+        assertEquals("Product 1", before.getName());
+        assertEquals(ProductInventoryStatus.INSTOCK, before.getInventoryStatus());
+        assertEquals("Renamed", replica.get(1).getName());
+        assertEquals(ProductInventoryStatus.LOWSTOCK, replica.get(1).getInventoryStatus());
+        assertEquals(1, replica.size());
+
+        assertTrue(replica.remove(1));
+        assertFalse(replica.remove(1));
+        assertNull(replica.get(1));
+        assertEquals(0, replica.size());
+    }
+
+    /**
+     * Tests that listings are ordered by id, filtered, and paged over the matching products.
+     */
+    @Test
+    void testList() {
+        for (long id = 10; id >= 1; id--) {
+            replica.put(product(id, id % 2 == 0 ? ProductCategory.ELECTRONICS : ProductCategory.FITNESS,
+                    id <= 5 ? ProductInventoryStatus.INSTOCK : ProductInventoryStatus.OUTOFSTOCK));
+        }
+
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L), ids(replica.getAll()));
+        assertEquals(List.of(4L, 5L, 6L), ids(replica.list(null, null, 3, 3)));
+        assertEquals(List.of(6L, 8L), ids(replica.list(ProductCategory.ELECTRONICS, null, 2, 2)));
+        assertEquals(List.of(7L, 9L), ids(replica.list(ProductCategory.FITNESS, ProductInventoryStatus.OUTOFSTOCK, 0, 10)));
+        assertTrue(replica.list(null, null, 20, 5).isEmpty());
+    }
+
+    /**
+     * Tests that the slots of replaced records are reused once the grace period is over.
+     */
+    @Test
+    void testSlotReuse() throws IOException {
+        for (long id = 1; id <= CHUNK_RECORDS; id++) {
+            replica.put(product(id, ProductCategory.ELECTRONICS, ProductInventoryStatus.INSTOCK));
+        }
+        long mappedBytes = replica.getMappedBytes();
+        for (int round = 0; round < 10; round++) {
+            replica.put(product(1, ProductCategory.ELECTRONICS, ProductInventoryStatus.INSTOCK));
+        }
+        // One spare slot is needed to write the first new record, then the released ones are reused
+        assertTrue(replica.getMappedBytes() <= mappedBytes + CHUNK_RECORDS * CatalogReplica.RECORD_SIZE);
+        assertEquals("Product 1", replica.get(1).getName());
+    }
+
+    /**
+     * Tests that the replica follows the changes published by the product services.
+     */
+    @Test
+    void testOnProductChanged() {
+        Product created = product(1, ProductCategory.ELECTRONICS, ProductInventoryStatus.INSTOCK);
+        replica.onProductChanged(new ProductChangedEvent(null, created));
+        assertEquals("P1", replica.get(1).getCode());
+
+        Product updated = product(1, ProductCategory.ELECTRONICS, ProductInventoryStatus.INSTOCK);
+        updated.setPrice(99.0);
+        replica.onProductChanged(new ProductChangedEvent(created, updated));
+        assertEquals(99.0, replica.get(1).getPrice());
+
+        replica.onProductChanged(new ProductChangedEvent(updated, null));
+        assertNull(replica.get(1));
+    }
+
+    /**
+     * Tests that changes delivered out of order do not replace a newer version of the product.
+     */
+    @Test
+    void testOnProductChanged_OutOfOrder() {
+        Product created = product(1, ProductCategory.ELECTRONICS, ProductInventoryStatus.INSTOCK);
+        created.setVersion(0L);
+        Product first = new Product(created);
+        first.setPrice(10.0);
+        first.setVersion(1L);
+        Product second = new Product(first);
+        second.setQuantity(5);
+        second.setVersion(2L);
+
+        replica.onProductChanged(new ProductChangedEvent(null, created));
+        replica.onProductChanged(new ProductChangedEvent(first, second, List.of()));
+        replica.onProductChanged(new ProductChangedEvent(created, first, List.of()));
+
+        assertEquals(10.0, replica.get(1).getPrice());
+        assertEquals(5, replica.get(1).getQuantity());
+        assertFalse(replica.put(first));
+    }
+
+    /**
+     * Tests that an update delivered after the deletion of the product does not bring it back.
+     */
+    @Test
+    void testOnProductChanged_UpdateAfterDelete() {
+        Product created = product(1, ProductCategory.ELECTRONICS, ProductInventoryStatus.INSTOCK);
+        created.setVersion(0L);
+        Product updated = new Product(created);
+        updated.setPrice(10.0);
+        updated.setVersion(1L);
+
+        replica.onProductChanged(new ProductChangedEvent(null, created));
+        replica.onProductChanged(new ProductChangedEvent(updated, null));
+        replica.onProductChanged(new ProductChangedEvent(created, updated, List.of()));
+
+        assertNull(replica.get(1));
+        assertEquals(0, replica.size());
+    }
+
+    /**
+     * Tests that a string larger than a chunk of the arena is rejected.
+     */
+    @Test
+    void testStringTooLarge() {
+        Product product = product(1, ProductCategory.ELECTRONICS, ProductInventoryStatus.INSTOCK);
+        product.setDescription("x".repeat(STRING_CHUNK_SIZE + 1));
+        assertThrows(IllegalArgumentException.class, () -> replica.put(product));
+        assertNull(replica.get(1));
+    }
+
+    private static List<Long> ids(final List<Product> products) {
+        return products.stream().map(Product::getId).toList();
+    }
+}
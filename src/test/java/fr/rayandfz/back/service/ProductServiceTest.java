@@ -1,7 +1,15 @@
 package fr.rayandfz.back.service;
 
+import fr.rayandfz.back.error.ConcurrentUpdateException;
+import fr.rayandfz.back.error.DuplicateProductCodeException;
+import fr.rayandfz.back.error.ProductNotFoundException;
+import fr.rayandfz.back.model.CatalogInfo;
 import fr.rayandfz.back.model.Product;
+import fr.rayandfz.back.model.ProductBatch;
 import fr.rayandfz.back.model.ProductCategory;
+import fr.rayandfz.back.model.ProductField;
+import fr.rayandfz.back.model.ProductFieldChange;
+import fr.rayandfz.back.repository.ICatalogInfoRepository;
 import fr.rayandfz.back.repository.IProductRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,11 +19,13 @@ import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 
 import java.util.*;
 
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.anyIterable;
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -28,9 +38,18 @@ public class ProductServiceTest {
     @Mock
     private IProductRepository productRepository;
 
+    @Mock
+    private ICatalogInfoRepository catalogInfoRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @Captor
     private ArgumentCaptor<Product> productArgumentCaptor;
 
+    @Captor
+    private ArgumentCaptor<ProductChangedEvent> eventCaptor;
+
     @InjectMocks
     private ProductService productService;
 
@@ -116,7 +135,7 @@ public class ProductServiceTest {
     public void testGetProductById_NotFound() {
         when(productRepository.findById(anyLong())).thenReturn(Optional.empty());
 
-        Exception exception = assertThrows(RuntimeException.class, () -> {
+        Exception exception = assertThrows(ProductNotFoundException.class, () -> {
             productService.getProductById(1L);
         });
 
@@ -124,6 +143,127 @@ public class ProductServiceTest {
         String actualMessage = exception.getMessage();
 
         assertTrue(actualMessage.contains(expectedMessage));
+        assertEquals(0, exception.getStackTrace().length);
+    }
+
+    /**
+     * Test retrieving a product by its code once it has been created.
+     */
+    @Test
+    public void testGetProductByCode() {
+        product.setCode("C1");
+        when(productRepository.save(any(Product.class))).thenReturn(product);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        productService.createProduct(product);
+
+        Product found = productService.getProductByCode("C1");
+
+        assertEquals(product.getId(), found.getId());
+    }
+
+    /**
+     * Test error handling when retrieving a product by an unknown code, which must not hit the repository.
+     */
+    @Test
+    public void testGetProductByCode_NotFound() {
+        Exception exception = assertThrows(ProductNotFoundException.class, () -> productService.getProductByCode("missing"));
+
+        assertTrue(exception.getMessage().contains("Product not found with code missing"));
+        verifyNoInteractions(productRepository);
+    }
+
+    /**
+     * Test that a second product with the same code is rejected before reaching the repository.
+     */
+    @Test
+    public void testCreateProduct_DuplicateCode() {
+        product.setCode("C1");
+        when(productRepository.save(any(Product.class))).thenReturn(product);
+        productService.createProduct(product);
+
+        Product duplicate = new Product();
+        duplicate.setCode("C1");
+
+        assertThrows(DuplicateProductCodeException.class, () -> productService.createProduct(duplicate));
+        verify(productRepository, times(1)).save(any(Product.class));
+    }
+
+    /**
+     * Tests retrieving several products by their codes, in request order.
+     */
+    @Test
+    public void testGetProductsByCodes() {
+        Product other = new Product();
+        other.setId(2L);
+        other.setCode("C2");
+        product.setCode("C1");
+        when(productRepository.save(any(Product.class))).thenReturn(product, other);
+        productService.createProduct(product);
+        productService.createProduct(other);
+        when(productRepository.findAllById(List.of(2L, 1L))).thenReturn(List.of(product, other));
+
+        List<Product> found = productService.getProductsByCodes(List.of("C2", "missing", "C1"));
+
+        assertEquals(List.of(other, product), found);
+    }
+
+    /**
+     * Tests that a batch of ids is resolved with one query per chunk, in request order, reporting missing ids.
+     */
+    @Test
+    public void testGetProductsByIds() {
+        List<Long> ids = new ArrayList<>();
+        for (long id = 250; id > 0; id--) {
+            ids.add(id);
+        }
+        ids.add(42L);
+        when(productRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            List<Product> found = new ArrayList<>();
+            for (Long id : invocation.<Iterable<Long>>getArgument(0)) {
+                if (id % 2 == 0) {
+                    Product even = new Product();
+                    even.setId(id);
+                    found.add(even);
+                }
+            }
+            Collections.reverse(found);
+            return found;
+        });
+
+        ProductBatch batch = productService.getProductsByIds(ids);
+
+        verify(productRepository, times(3)).findAllById(anyIterable());
+        assertEquals(125, batch.getProducts().size());
+        assertEquals(250L, batch.getProducts().get(0).getId());
+        assertEquals(2L, batch.getProducts().get(124).getId());
+        assertEquals(125, batch.getMissingIds().size());
+        assertEquals(249L, batch.getMissingIds().get(0));
+    }
+
+    /**
+     * Tests that a page starting past the rows JPA can address is empty instead of overflowing the offset.
+     */
+    @Test
+    public void testGetProducts_HugePage() {
+        assertTrue(productService.getProducts(ProductCategory.FITNESS, null, Integer.MAX_VALUE, 100).isEmpty());
+        assertTrue(productService.getProductViews(ProductField.SUMMARY, null, null, Integer.MAX_VALUE, 100).isEmpty());
+
+        verifyNoInteractions(productRepository);
+    }
+
+    /**
+     * Tests that the catalog identifier is created once, with the first call on an empty catalog.
+     */
+    @Test
+    public void testGetCatalogId() {
+        when(catalogInfoRepository.findAll()).thenReturn(List.of());
+        when(catalogInfoRepository.save(any(CatalogInfo.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        String catalogId = productService.getCatalogId();
+
+        assertNotNull(catalogId);
+        assertEquals(catalogId, productService.getCatalogId());
+        verify(catalogInfoRepository, times(1)).save(any(CatalogInfo.class));
     }
 
     /**
@@ -161,6 +301,75 @@ public class ProductServiceTest {
         assertEquals(updatedProduct.getQuantity(), capturedProduct.getQuantity());
         assertEquals(updatedProduct.getCategory(), capturedProduct.getCategory());
         assertEquals(updatedProduct.getRating(), capturedProduct.getRating());
+
+        verify(eventPublisher).publishEvent(eventCaptor.capture());
+        ProductChangedEvent event = eventCaptor.getValue();
+        assertEquals(ProductChangedEvent.Type.UPDATED, event.getType());
+        assertEquals(100.0, event.getPrevious().getPrice());
+        assertEquals(200.0, event.getCurrent().getPrice());
+        ProductFieldChange priceChange = event.getChanges().stream()
+                .filter(change -> change.getField().equals("price")).findFirst().orElseThrow();
+        assertEquals("100.0", priceChange.getPreviousValue());
+        assertEquals("200.0", priceChange.getNewValue());
+    }
+
+    /**
+     * Tests that an id in the update is ignored, so that the product updated and its recorded changes stay
+     * those of the requested id.
+     */
+    @Test
+    public void testUpdateProduct_IdIgnored() {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productRepository.save(any(Product.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Product details = new Product();
+        details.setId(2L);
+        details.setPrice(200.0);
+        Product result = productService.updateProduct(1L, details);
+
+        assertEquals(1L, result.getId());
+        verify(productRepository).save(productArgumentCaptor.capture());
+        assertEquals(1L, productArgumentCaptor.getValue().getId());
+        verify(eventPublisher).publishEvent(eventCaptor.capture());
+        assertEquals(List.of("price"), eventCaptor.getValue().getChanges().stream()
+                .map(ProductFieldChange::getField).toList());
+    }
+
+    /**
+     * Tests that an update losing the race with another write is applied again to the new state of the product.
+     */
+    @Test
+    public void testUpdateProduct_ConcurrentWrite() {
+        Product concurrent = new Product(product);
+        concurrent.setQuantity(5);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(new Product(product)), Optional.of(concurrent));
+        when(productRepository.save(any(Product.class)))
+                .thenThrow(new OptimisticLockingFailureException("stale"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        Product details = new Product();
+        details.setPrice(200.0);
+        Product result = productService.updateProduct(1L, details);
+
+        assertEquals(200.0, result.getPrice());
+        assertEquals(5, result.getQuantity());
+        verify(productRepository, times(2)).save(any(Product.class));
+        verify(eventPublisher, times(1)).publishEvent(any(ProductChangedEvent.class));
+    }
+
+    /**
+     * Tests that an update always losing the race with other writes is reported as a conflict.
+     */
+    @Test
+    public void testUpdateProduct_TooManyConcurrentWrites() {
+        when(productRepository.findById(1L)).thenAnswer(invocation -> Optional.of(new Product(product)));
+        when(productRepository.save(any(Product.class))).thenThrow(new OptimisticLockingFailureException("stale"));
+
+        Product details = new Product();
+        details.setPrice(200.0);
+        assertThrows(ConcurrentUpdateException.class, () -> productService.updateProduct(1L, details));
+        verify(productRepository, times(ProductService.MAX_WRITE_ATTEMPTS)).save(any(Product.class));
+        verifyNoInteractions(eventPublisher);
     }
 
     /**
@@ -168,10 +377,49 @@ public class ProductServiceTest {
      */
     @Test
     public void testDeleteProduct() {
+        product.setVersion(3L);
         when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productRepository.deleteByIdAndVersion(1L, 3L)).thenReturn(1);
+
+        productService.deleteProduct(1L);
+
+        verify(productRepository, times(1)).deleteByIdAndVersion(1L, 3L);
+        verify(eventPublisher).publishEvent(eventCaptor.capture());
+        assertEquals(ProductChangedEvent.Type.DELETED, eventCaptor.getValue().getType());
+        assertEquals(1L, eventCaptor.getValue().getId());
+    }
+
+    /**
+     * Tests that a deletion losing the race with another deletion of the product fails with a 404, without
+     * publishing the deletion a second time.
+     */
+    @Test
+    public void testDeleteProduct_ConcurrentDelete() {
+        product.setVersion(0L);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product), Optional.empty());
+        when(productRepository.deleteByIdAndVersion(1L, 0L)).thenReturn(0);
+
+        assertThrows(ProductNotFoundException.class, () -> productService.deleteProduct(1L));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    /**
+     * Tests that a deletion losing the race with an update deletes the updated product.
+     */
+    @Test
+    public void testDeleteProduct_ConcurrentUpdate() {
+        product.setVersion(0L);
+        Product updated = new Product(product);
+        updated.setVersion(1L);
+        updated.setPrice(150.0);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product), Optional.of(updated));
+        when(productRepository.deleteByIdAndVersion(1L, 0L)).thenReturn(0);
+        when(productRepository.deleteByIdAndVersion(1L, 1L)).thenReturn(1);
 
         productService.deleteProduct(1L);
 
-        verify(productRepository, times(1)).delete(eq(product));
+        verify(eventPublisher).publishEvent(eventCaptor.capture());
+        assertEquals(150.0, eventCaptor.getValue().getPrevious().getPrice());
+        assertEquals(1L, eventCaptor.getValue().getVersion());
     }
 }
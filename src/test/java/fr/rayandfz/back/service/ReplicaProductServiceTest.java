@@ -0,0 +1,111 @@
+package fr.rayandfz.back.service;
+
+import fr.rayandfz.back.error.ProductNotFoundException;
+import fr.rayandfz.back.model.Product;
+import fr.rayandfz.back.model.ProductBatch;
+import fr.rayandfz.back.model.ProductCategory;
+import fr.rayandfz.back.model.ProductInventoryStatus;
+import fr.rayandfz.back.replica.CatalogReplica;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for ReplicaProductService, over a mocked underlying service and a real replica.
+ */
+@ExtendWith(MockitoExtension.class)
+public class ReplicaProductServiceTest {
+
+    @Mock
+    private IProductService delegate;
+
+    @TempDir
+    Path directory;
+
+    private CatalogReplica replica;
+
+    private ReplicaProductService productService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        List<Product> products = new ArrayList<>();
+        for (long id = 1; id <= 5; id++) {
+            products.add(product(id, id <= 3 ? ProductCategory.FITNESS : ProductCategory.CLOTHING));
+        }
+        when(delegate.getAllProducts()).thenReturn(products);
+        replica = CatalogReplica.create(directory, 16, 1024, 0);
+        productService = new ReplicaProductService(delegate, replica);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        replica.close();
+    }
+
+    private static Product product(final long id, final ProductCategory category) {
+        Product product = new Product();
+        product.setId(id);
+        product.setCode("P" + id);
+        product.setName("Product " + id);
+        product.setPrice(10.0 * id);
+        product.setCategory(category);
+        product.setInventoryStatus(ProductInventoryStatus.INSTOCK);
+        return product;
+    }
+
+    /**
+     * Tests that reads by id are served by the replica loaded at startup.
+     */
+    @Test
+    public void testGetProductById() {
+        assertEquals("Product 2", productService.getProductById(2L).getName());
+        assertThrows(ProductNotFoundException.class, () -> productService.getProductById(6L));
+        verify(delegate, never()).getProductById(any());
+    }
+
+    /**
+     * Tests that listings and batches are served by the replica.
+     */
+    @Test
+    public void testListsAndBatches() {
+        assertEquals(5, productService.getAllProducts().size());
+        assertEquals(List.of(3L), productService.getProducts(ProductCategory.FITNESS, null, 1, 2)
+                .stream().map(Product::getId).toList());
+
+        ProductBatch batch = productService.getProductsByIds(List.of(4L, 9L, 1L, 4L));
+        assertEquals(List.of(4L, 1L), batch.getProducts().stream().map(Product::getId).toList());
+        assertEquals(List.of(9L), batch.getMissingIds());
+    }
+
+    /**
+     * Tests that writes go to the underlying service, and that its events update the replica.
+     */
+    @Test
+    public void testWritesGoThroughDelegate() {
+        Product details = new Product();
+        details.setName("Renamed");
+        Product updated = product(2, ProductCategory.FITNESS);
+        updated.setName("Renamed");
+        when(delegate.updateProduct(2L, details)).thenAnswer(invocation -> {
+            replica.onProductChanged(new ProductChangedEvent(product(2, ProductCategory.FITNESS), updated));
+            return updated;
+        });
+
+        productService.updateProduct(2L, details);
+
+        verify(delegate).updateProduct(2L, details);
+        assertEquals("Renamed", productService.getProductById(2L).getName());
+    }
+}
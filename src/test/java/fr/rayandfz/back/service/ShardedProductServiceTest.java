@@ -0,0 +1,384 @@
+package fr.rayandfz.back.service;
+
+import fr.rayandfz.back.error.DuplicateProductCodeException;
+import fr.rayandfz.back.error.ProductNotFoundException;
+import fr.rayandfz.back.model.Product;
+import fr.rayandfz.back.model.ProductBatch;
+import fr.rayandfz.back.model.ProductCategory;
+import fr.rayandfz.back.model.ProductField;
+import fr.rayandfz.back.model.ProductInventoryStatus;
+import fr.rayandfz.back.shard.ProductShards;
+import fr.rayandfz.back.shard.ShardIdAllocator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for ShardedProductService, running against file-backed H2 shards in a temporary directory.
+ */
+public class ShardedProductServiceTest {
+
+    private static final int SHARD_COUNT = 3;
+
+    @TempDir
+    Path shardDirectory;
+
+    private ProductShards shards;
+
+    private ShardedProductService productService;
+
+    private final List<Object> events = new ArrayList<>();
+
+    /**
+     * Opens fresh shards before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        shards = ProductShards.open(shardDirectory, SHARD_COUNT, 2);
+        productService = new ShardedProductService(shards, new ShardIdAllocator(shards, 10), events::add);
+    }
+
+    @AfterEach
+    void tearDown() {
+        shards.close();
+    }
+
+    private static Product newProduct(final String code, final ProductCategory category) {
+        Product product = new Product();
+        product.setCode(code);
+        product.setName("Product " + code);
+        product.setDescription("Description of " + code);
+        product.setPrice(10.0);
+        product.setQuantity(5);
+        product.setInventoryStatus(ProductInventoryStatus.INSTOCK);
+        product.setCategory(category);
+        return product;
+    }
+
+    /**
+     * Tests that created products get unique ids and are spread across shards.
+     */
+    @Test
+    public void testCreateProduct_AllocatesUniqueIdsAcrossShards() {
+        Set<Long> ids = new HashSet<>();
+        Set<Integer> usedShards = new HashSet<>();
+        for (int i = 0; i < 30; i++) {
+            Product created = productService.createProduct(newProduct("P" + i, ProductCategory.FITNESS));
+            assertTrue(ids.add(created.getId()));
+            usedShards.add(shards.shardIndexFor(created.getId()));
+        }
+
+        assertEquals(SHARD_COUNT, usedShards.size());
+    }
+
+    /**
+     * Tests that a point lookup returns the stored product.
+     */
+    @Test
+    public void testGetProductById() {
+        Product created = productService.createProduct(newProduct("P1", ProductCategory.CLOTHING));
+
+        Product found = productService.getProductById(created.getId());
+
+        assertEquals(created.getId(), found.getId());
+        assertEquals("P1", found.getCode());
+        assertEquals(ProductCategory.CLOTHING, found.getCategory());
+        assertNull(found.getRating());
+    }
+
+    /**
+     * Tests error handling when retrieving a product by an ID that does not exist.
+     */
+    @Test
+    public void testGetProductById_NotFound() {
+        Exception exception = assertThrows(ProductNotFoundException.class, () -> productService.getProductById(42L));
+
+        assertTrue(exception.getMessage().contains("Product not found with id 42"));
+    }
+
+    /**
+     * Tests that the merged result of all shards is ordered by id.
+     */
+    @Test
+    public void testGetAllProducts_OrderedById() {
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            expected.add(productService.createProduct(newProduct("P" + i, ProductCategory.FITNESS)).getId());
+        }
+
+        List<Long> actual = productService.getAllProducts().stream().map(Product::getId).toList();
+
+        assertEquals(expected, actual);
+    }
+
+    /**
+     * Tests that filtered pages are exact windows of the globally ordered result.
+     */
+    @Test
+    public void testGetProducts_FilteredPages() {
+        List<Long> electronics = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            ProductCategory category = i % 2 == 0 ? ProductCategory.ELECTRONICS : ProductCategory.ACCESSORIES;
+            Product created = productService.createProduct(newProduct("P" + i, category));
+            if (category == ProductCategory.ELECTRONICS) {
+                electronics.add(created.getId());
+            }
+        }
+
+        List<Long> page1 = productService.getProducts(ProductCategory.ELECTRONICS, null, 1, 7)
+                .stream().map(Product::getId).toList();
+        List<Long> lastPage = productService.getProducts(ProductCategory.ELECTRONICS, null, 2, 7)
+                .stream().map(Product::getId).toList();
+
+        assertEquals(electronics.subList(7, 14), page1);
+        assertEquals(electronics.subList(14, 20), lastPage);
+    }
+
+    /**
+     * Tests that views only contain the selected fields, and are merged in id order even without the id.
+     */
+    @Test
+    public void testGetProductViews() {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            names.add(productService.createProduct(newProduct("P" + i, ProductCategory.FITNESS)).getName());
+        }
+
+        Collection<Map<String, Object>> summaries = productService.getAllProductViews(ProductField.SUMMARY);
+        assertEquals(12, summaries.size());
+        assertEquals(List.of("id", "name", "price", "inventoryStatus", "image"),
+                new ArrayList<>(summaries.iterator().next().keySet()));
+
+        List<Object> page = productService.getProductViews(EnumSet.of(ProductField.NAME), ProductCategory.FITNESS, null, 1, 5)
+                .stream().map(view -> view.get("name")).toList();
+        assertEquals(names.subList(5, 10), page);
+
+        Map<String, Object> single = productService.getProductViewById(1L, EnumSet.of(ProductField.PRICE, ProductField.CATEGORY));
+        assertEquals(Map.of("price", 10.0, "category", "FITNESS"), single);
+    }
+
+    /**
+     * Tests that a batch of ids spanning several shards and chunks is returned in request order.
+     */
+    @Test
+    public void testGetProductsByIds() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            ids.add(productService.createProduct(newProduct("P" + i, ProductCategory.FITNESS)).getId());
+        }
+        List<Long> requested = new ArrayList<>(ids);
+        Collections.shuffle(requested, new Random(7));
+        requested.add(1, -5L);
+        requested.add(9999L);
+
+        ProductBatch batch = productService.getProductsByIds(requested);
+
+        requested.removeAll(List.of(-5L, 9999L));
+        assertEquals(requested, batch.getProducts().stream().map(Product::getId).toList());
+        assertEquals(List.of(-5L, 9999L), batch.getMissingIds());
+    }
+
+    /**
+     * Tests batches whose ids all belong to one shard, such as a single id, which take the single-shard path.
+     */
+    @Test
+    public void testGetProductsByIds_OneShard() {
+        Product product = productService.createProduct(newProduct("P1", ProductCategory.FITNESS));
+
+        ProductBatch single = productService.getProductsByIds(List.of(product.getId()));
+        ProductBatch missing = productService.getProductsByIds(List.of(9999L));
+
+        assertEquals(List.of(product.getId()), single.getProducts().stream().map(Product::getId).toList());
+        assertTrue(single.getMissingIds().isEmpty());
+        assertTrue(missing.getProducts().isEmpty());
+        assertEquals(List.of(9999L), missing.getMissingIds());
+    }
+
+    /**
+     * Tests lookups by code, one at a time and in batch.
+     */
+    @Test
+    public void testGetProductsByCode() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            ids.add(productService.createProduct(newProduct("P" + i, ProductCategory.FITNESS)).getId());
+        }
+
+        assertEquals(ids.get(3), productService.getProductByCode("P3").getId());
+        assertThrows(RuntimeException.class, () -> productService.getProductByCode("missing"));
+
+        List<Long> found = productService.getProductsByCodes(List.of("P7", "missing", "P2", "P9"))
+                .stream().map(Product::getId).toList();
+        assertEquals(List.of(ids.get(7), ids.get(2), ids.get(9)), found);
+    }
+
+    /**
+     * Tests that codes are unique across shards, on create and on update, and survive a restart.
+     */
+    @Test
+    public void testDuplicateCodes_Rejected() {
+        Product first = productService.createProduct(newProduct("P1", ProductCategory.FITNESS));
+        Product second = productService.createProduct(newProduct("P2", ProductCategory.FITNESS));
+
+        assertThrows(DuplicateProductCodeException.class,
+                () -> productService.createProduct(newProduct("P1", ProductCategory.CLOTHING)));
+
+        Product details = new Product();
+        details.setCode("P1");
+        assertThrows(DuplicateProductCodeException.class, () -> productService.updateProduct(second.getId(), details));
+
+        details.setCode("P3");
+        productService.updateProduct(second.getId(), details);
+        assertEquals(second.getId(), productService.getProductByCode("P3").getId());
+        assertThrows(RuntimeException.class, () -> productService.getProductByCode("P2"));
+
+        ShardedProductService reopened = new ShardedProductService(shards, new ShardIdAllocator(shards, 10), events::add);
+        assertEquals(first.getId(), reopened.getProductByCode("P1").getId());
+        assertThrows(DuplicateProductCodeException.class,
+                () -> reopened.createProduct(newProduct("P3", ProductCategory.CLOTHING)));
+    }
+
+    /**
+     * Tests a catalog with a single shard, where every query takes the single-shard path.
+     */
+    @Test
+    public void testSingleShard() {
+        ProductShards singleShard = ProductShards.open(shardDirectory.resolve("single"), 1, 2);
+        try {
+            ShardedProductService service = new ShardedProductService(singleShard, new ShardIdAllocator(singleShard, 10), events::add);
+            Product first = service.createProduct(newProduct("P1", ProductCategory.FITNESS));
+            service.createProduct(newProduct("P2", ProductCategory.CLOTHING));
+
+            List<Product> products = service.getProductsByCodes(List.of("P1", "P2", "P3"));
+
+            assertEquals(2, products.size());
+            assertEquals(first.getId(), products.get(0).getId());
+            ShardedProductService reopened = new ShardedProductService(singleShard, new ShardIdAllocator(singleShard, 10), events::add);
+            assertEquals(first.getId(), reopened.getProductByCode("P1").getId());
+            assertEquals(2, reopened.getAllProducts().size());
+        } finally {
+            singleShard.close();
+        }
+    }
+
+    /**
+     * Tests that the catalog identifier is kept by the shards, and changes with a new set of shards.
+     */
+    @Test
+    public void testGetCatalogId() {
+        String catalogId = productService.getCatalogId();
+        shards.close();
+        shards = ProductShards.open(shardDirectory, SHARD_COUNT, 2);
+
+        assertEquals(catalogId, new ShardedProductService(shards, new ShardIdAllocator(shards, 10), events::add).getCatalogId());
+        ProductShards other = ProductShards.open(shardDirectory.resolve("other"), SHARD_COUNT, 2);
+        try {
+            assertNotEquals(catalogId, other.catalogId());
+        } finally {
+            other.close();
+        }
+    }
+
+    /**
+     * Tests that ids stay unique when the id block size changes between restarts.
+     */
+    @Test
+    public void testCreateProduct_IdBlockSizeChanged() {
+        Set<Long> ids = new HashSet<>();
+        ids.add(productService.createProduct(newProduct("P1", ProductCategory.FITNESS)).getId());
+
+        ShardedProductService reopened = new ShardedProductService(shards, new ShardIdAllocator(shards, 1000), events::add);
+        for (int i = 2; i <= 15; i++) {
+            assertTrue(ids.add(reopened.createProduct(newProduct("P" + i, ProductCategory.FITNESS)).getId()));
+        }
+        ShardedProductService shrunk = new ShardedProductService(shards, new ShardIdAllocator(shards, 5), events::add);
+        for (int i = 16; i <= 30; i++) {
+            assertTrue(ids.add(shrunk.createProduct(newProduct("P" + i, ProductCategory.FITNESS)).getId()));
+        }
+    }
+
+    /**
+     * Tests updating a product keeps it on its shard.
+     */
+    @Test
+    public void testUpdateProduct() {
+        Product created = productService.createProduct(newProduct("P1", ProductCategory.CLOTHING));
+
+        Product details = new Product();
+        details.setId(created.getId() + 1);
+        details.setPrice(25.0);
+        details.setRating(4.0);
+        productService.updateProduct(created.getId(), details);
+
+        Product found = productService.getProductById(created.getId());
+        assertEquals(25.0, found.getPrice());
+        assertEquals(4.0, found.getRating());
+        assertEquals("P1", found.getCode());
+
+        assertEquals(2, events.size());
+        ProductChangedEvent event = (ProductChangedEvent) events.get(1);
+        assertEquals(ProductChangedEvent.Type.UPDATED, event.getType());
+        assertEquals(10.0, event.getPrevious().getPrice());
+        assertEquals(25.0, event.getCurrent().getPrice());
+    }
+
+    /**
+     * Tests that concurrent updates of different fields of a product are all kept, each one on a new version.
+     */
+    @Test
+    public void testUpdateProduct_Concurrent() throws Exception {
+        Product created = productService.createProduct(newProduct("P1", ProductCategory.CLOTHING));
+        assertEquals(0L, created.getVersion());
+        int updates = 50;
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> prices = executor.submit(() -> {
+                for (int i = 1; i <= updates; i++) {
+                    Product details = new Product();
+                    details.setPrice((double) i);
+                    productService.updateProduct(created.getId(), details);
+                }
+            });
+            Future<?> quantities = executor.submit(() -> {
+                for (int i = 1; i <= updates; i++) {
+                    Product details = new Product();
+                    details.setQuantity(i);
+                    productService.updateProduct(created.getId(), details);
+                }
+            });
+            prices.get();
+            quantities.get();
+        } finally {
+            executor.shutdown();
+        }
+
+        Product found = productService.getProductById(created.getId());
+        assertEquals((double) updates, found.getPrice());
+        assertEquals(updates, found.getQuantity());
+        assertEquals(2L * updates, found.getVersion());
+    }
+
+    /**
+     * Tests deleting a product.
+     */
+    @Test
+    public void testDeleteProduct() {
+        Product created = productService.createProduct(newProduct("P1", ProductCategory.CLOTHING));
+
+        productService.deleteProduct(created.getId());
+
+        assertThrows(RuntimeException.class, () -> productService.getProductById(created.getId()));
+        assertThrows(RuntimeException.class, () -> productService.deleteProduct(created.getId()));
+        assertEquals(ProductChangedEvent.Type.DELETED, ((ProductChangedEvent) events.get(events.size() - 1)).getType());
+    }
+}
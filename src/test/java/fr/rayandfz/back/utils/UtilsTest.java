@@ -1,6 +1,11 @@
 package fr.rayandfz.back.utils;
 
 import org.junit.jupiter.api.Test;
+
+import java.beans.PropertyChangeEvent;
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class UtilsTest {
@@ -40,4 +45,25 @@ class UtilsTest {
         assertEquals(25, target.getAge());
         assertEquals("initial@example.com", target.getEmail());
     }
+
+    @Test
+    void testCopyNonNullPropertiesWithListener() {
+        SourceObject src = new SourceObject();
+        src.setName("John Doe");
+        src.setAge(25);
+
+        TargetObject target = new TargetObject();
+        target.setName("Initial Name");
+        target.setAge(25);
+        target.setEmail("initial@example.com");
+
+        List<PropertyChangeEvent> events = new ArrayList<>();
+        Utils.copyNonNullProperties(src, target, events::add);
+
+        assertEquals("John Doe", target.getName());
+        assertEquals(1, events.size());
+        assertEquals("name", events.get(0).getPropertyName());
+        assertEquals("Initial Name", events.get(0).getOldValue());
+        assertEquals("John Doe", events.get(0).getNewValue());
+    }
 }